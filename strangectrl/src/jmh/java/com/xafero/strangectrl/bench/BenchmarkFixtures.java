@@ -0,0 +1,112 @@
+package com.xafero.strangectrl.bench;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.java.games.input.AbstractComponent;
+import net.java.games.input.Component;
+import pl.grzeslowski.strangectrl.config.Button;
+import pl.grzeslowski.strangectrl.config.Configuration;
+import pl.grzeslowski.strangectrl.config.Key;
+import pl.grzeslowski.strangectrl.config.Pov;
+
+import com.google.common.base.Suppliers;
+import com.xafero.strangectrl.awt.DesktopUtils;
+import com.xafero.strangectrl.awt.ScreenTopology;
+import com.xafero.strangectrl.input.InputUtils;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+        // utility class
+    }
+
+    static InputUtils inputUtils() {
+        return new InputUtils(NoOpRobot.create());
+    }
+
+    static Configuration configuration() {
+        final List<Button> buttons = new ArrayList<>();
+        buttons.add(new Button("A", Button.COMBO_TYPE, new Key("Q")));
+        buttons.add(new Button("B", Button.COMBO_TYPE, new Key("CONTROL"),
+                new Key("W")));
+
+        final Pov pov = new Pov.PovBuilder()
+                .northPov(new Button("NP", Button.COMBO_TYPE, new Key("UP")))
+                .southPov(
+                        new Button("SP", Button.COMBO_TYPE, new Key("DOWN")))
+                .eastPov(
+                        new Button("EP", Button.COMBO_TYPE, new Key("RIGHT")))
+                .westPov(new Button("WP", Button.COMBO_TYPE, new Key("LEFT")))
+                .build();
+
+        return new Configuration(buttons, pov);
+    }
+
+    static Component component(final Component.Identifier identifier) {
+        return new StubComponent(identifier);
+    }
+
+    static GraphicsDevice graphicsDevice() {
+        return new StubGraphicsDevice();
+    }
+
+    /**
+     * Pointer always in the middle of a full HD screen, MouseInfo is not
+     * available on headless machines.
+     */
+    static DesktopUtils desktopUtils() {
+        final ScreenTopology noScreens = new ScreenTopology(
+                Suppliers.ofInstance(new GraphicsDevice[0]));
+        return new DesktopUtils(noScreens) {
+
+            @Override
+            public Point getMousePos(final GraphicsDevice dev) {
+                return new Point(960, 540);
+            }
+        };
+    }
+
+    private static class StubComponent extends AbstractComponent {
+
+        StubComponent(final Component.Identifier identifier) {
+            super(identifier.getName(), identifier);
+        }
+
+        @Override
+        public boolean isRelative() {
+            return false;
+        }
+
+        @Override
+        protected float poll() {
+            return 0;
+        }
+    }
+
+    private static class StubGraphicsDevice extends GraphicsDevice {
+
+        @Override
+        public int getType() {
+            return TYPE_RASTER_SCREEN;
+        }
+
+        @Override
+        public String getIDstring() {
+            return "bench";
+        }
+
+        @Override
+        public GraphicsConfiguration[] getConfigurations() {
+            return new GraphicsConfiguration[0];
+        }
+
+        @Override
+        public GraphicsConfiguration getDefaultConfiguration() {
+            return null;
+        }
+    }
+}
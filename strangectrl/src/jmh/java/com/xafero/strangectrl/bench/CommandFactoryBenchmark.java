@@ -0,0 +1,65 @@
+package com.xafero.strangectrl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.grzeslowski.strangectrl.cmd.CommandFactory;
+import pl.grzeslowski.strangectrl.cmd.mappers.PovNameMapper;
+
+import com.xafero.strangectrl.cmd.ICommand;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandFactoryBenchmark {
+    private CommandFactory commandFactory;
+    private final PovNameMapper povNameMapper = new PovNameMapper();
+
+    // fields, so the JIT cannot fold the arguments
+    private String directIdentifier = "A";
+    private String mappedIdentifier = "0";
+    private String povIdentifier = "pov";
+    private double povValue = 0.25;
+
+    @Setup
+    public void setUp() {
+        commandFactory = new CommandFactory(BenchmarkFixtures.inputUtils(),
+                BenchmarkFixtures.configuration());
+    }
+
+    @Benchmark
+    public ICommand getCommandDirect() {
+        return commandFactory.getCommand(directIdentifier, 1.0);
+    }
+
+    @Benchmark
+    public ICommand getCommandMapped() {
+        return commandFactory.getCommand(mappedIdentifier, 1.0);
+    }
+
+    @Benchmark
+    public ICommand getCommandPov() {
+        return commandFactory.getCommand(povIdentifier, povValue);
+    }
+
+    @Benchmark
+    public String povNameMapper() {
+        if (povNameMapper.canMap(povIdentifier, povValue)) {
+            return povNameMapper.map(povIdentifier, povValue);
+        }
+        return null;
+    }
+}
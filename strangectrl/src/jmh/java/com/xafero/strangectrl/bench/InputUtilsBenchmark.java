@@ -0,0 +1,65 @@
+package com.xafero.strangectrl.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.grzeslowski.strangectrl.config.Key;
+
+import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.KeyCodes;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputUtilsBenchmark {
+    private InputUtils inputUtils;
+    private final List<Key> singleKey = Arrays.asList(new Key("Q"));
+    private final List<Key> comboKeys = Arrays.asList(new Key("CONTROL"),
+            new Key("SHIFT"), new Key("T"));
+    private final int[] singleKeyCode = KeyCodes.resolve(singleKey);
+    private final int[] comboKeyCodes = KeyCodes.resolve(comboKeys);
+
+    @Setup
+    public void setUp() {
+        inputUtils = BenchmarkFixtures.inputUtils();
+    }
+
+    @Benchmark
+    public void pressReleaseKey() {
+        inputUtils.pressKey(singleKey);
+        inputUtils.releaseKey(singleKey);
+    }
+
+    @Benchmark
+    public void pressReleaseThreeKeys() {
+        inputUtils.pressKey(comboKeys);
+        inputUtils.releaseKey(comboKeys);
+    }
+
+    @Benchmark
+    public void pressReleaseKeyCode() {
+        inputUtils.pressKey(singleKeyCode);
+        inputUtils.releaseKey(singleKeyCode);
+    }
+
+    @Benchmark
+    public void pressReleaseThreeKeyCodes() {
+        inputUtils.pressKey(comboKeyCodes);
+        inputUtils.releaseKey(comboKeyCodes);
+    }
+}
@@ -0,0 +1,51 @@
+package com.xafero.strangectrl.bench;
+
+import java.awt.Robot;
+
+import org.objenesis.ObjenesisStd;
+
+/**
+ * {@link Robot} that does nothing, so benchmarks measure our code and not the
+ * window system. Created without calling the constructor of {@link Robot},
+ * which fails on headless machines.
+ */
+public class NoOpRobot extends Robot {
+
+    private NoOpRobot() throws Exception {
+        // never called, see create()
+    }
+
+    public static Robot create() {
+        return (Robot) new ObjenesisStd().newInstance(NoOpRobot.class);
+    }
+
+    @Override
+    public synchronized void keyPress(final int keycode) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void keyRelease(final int keycode) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void mouseMove(final int x, final int y) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void mousePress(final int buttons) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void mouseRelease(final int buttons) {
+        // no-op
+    }
+
+    @Override
+    public synchronized void mouseWheel(final int wheelAmt) {
+        // no-op
+    }
+}
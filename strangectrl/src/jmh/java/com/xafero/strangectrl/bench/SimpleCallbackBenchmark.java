@@ -0,0 +1,80 @@
+package com.xafero.strangectrl.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.grzeslowski.strangectrl.cmd.CommandFactory;
+
+import com.xafero.strangectrl.input.SimpleCallback;
+
+/**
+ * Press and release of a button, an axis move and a POV push, each going
+ * from a jinput {@link Event} down to the (no-op) robot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleCallbackBenchmark {
+    private SimpleCallback callback;
+    private Component button;
+    private Component axis;
+    private Component pov;
+    private final Event event = new Event();
+
+    @Setup
+    public void setUp() {
+        final CommandFactory commandFactory = new CommandFactory(
+                BenchmarkFixtures.inputUtils(),
+                BenchmarkFixtures.configuration());
+        callback = new SimpleCallback(commandFactory,
+                BenchmarkFixtures.graphicsDevice());
+
+        // "0" is mapped to "A" by XboxNameMapper
+        button = BenchmarkFixtures.component(Identifier.Button._0);
+
+        // "ry" scrolls, "x" and "y" would need the real pointer position
+        axis = BenchmarkFixtures.component(Identifier.Axis.RY);
+        pov = BenchmarkFixtures.component(Identifier.Axis.POV);
+    }
+
+    @Benchmark
+    public void button() {
+        event.set(button, 1.0f, 0);
+        callback.onNewEvent(event);
+        event.set(button, 0.0f, 0);
+        callback.onNewEvent(event);
+    }
+
+    @Benchmark
+    public void axis() {
+        event.set(axis, 0.9f, 0);
+        callback.onNewEvent(event);
+        event.set(axis, 0.0f, 0);
+        callback.onNewEvent(event);
+    }
+
+    @Benchmark
+    public void pov() {
+        event.set(pov, Component.POV.UP, 0);
+        callback.onNewEvent(event);
+        event.set(pov, Component.POV.OFF, 0);
+        callback.onNewEvent(event);
+    }
+}
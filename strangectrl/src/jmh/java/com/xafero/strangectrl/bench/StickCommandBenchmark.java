@@ -0,0 +1,65 @@
+package com.xafero.strangectrl.bench;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.grzeslowski.strangectrl.cmd.CommandFactory;
+import pl.grzeslowski.strangectrl.cmd.StickCommand;
+
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.input.PointerEngine;
+
+/**
+ * Mouse move by the stick: the axis commands store the values and every tick
+ * moves the (no-op) pointer by the whole vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StickCommandBenchmark {
+    private StickCommand command;
+    private ICommand xCommand;
+    private ICommand yCommand;
+    private GraphicsDevice graphicsDevice;
+    private double value = 0.75;
+
+    @Setup
+    public void setUp() {
+        final PointerEngine pointerEngine = new PointerEngine(
+                BenchmarkFixtures.inputUtils(),
+                BenchmarkFixtures.desktopUtils());
+        command = new StickCommand(7, CommandFactory.DELTA_FOR_MOUSE_MOVE,
+                pointerEngine);
+        xCommand = command.getAxisCommand(StickCommand.Axis.X);
+        yCommand = command.getAxisCommand(StickCommand.Axis.Y);
+        graphicsDevice = BenchmarkFixtures.graphicsDevice();
+
+        xCommand.execute(graphicsDevice, value);
+        yCommand.execute(graphicsDevice, -value);
+    }
+
+    @Benchmark
+    public void execute() {
+        xCommand.execute(graphicsDevice, value);
+        yCommand.execute(graphicsDevice, -value);
+    }
+
+    @Benchmark
+    public void tick() {
+        command.tick(graphicsDevice);
+    }
+}
@@ -6,57 +6,151 @@ import java.awt.Image;
 import java.awt.Robot;
 import java.awt.SystemTray;
 import java.awt.TrayIcon;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import net.java.games.input.Controller;
+
 import org.apache.log4j.PropertyConfigurator;
 import org.slf4j.LoggerFactory;
 
 import pl.grzeslowski.strangectrl.cmd.CommandFactory;
 import pl.grzeslowski.strangectrl.config.ConfigReader;
+import pl.grzeslowski.strangectrl.config.ConfigWatcher;
 import pl.grzeslowski.strangectrl.config.Configuration;
+import pl.grzeslowski.strangectrl.config.Polling;
+import pl.grzeslowski.strangectrl.config.Setup;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.xafero.strangectrl.awt.ControllersRefreshListener;
 import com.xafero.strangectrl.awt.DesktopUtils;
 import com.xafero.strangectrl.awt.ExitListener;
+import com.xafero.strangectrl.awt.LatencyReportListener;
 import com.xafero.strangectrl.awt.ResourceUtils;
+import com.xafero.strangectrl.awt.ScreenTopology;
 import com.xafero.strangectrl.awt.TrayPopupMenu;
+import com.xafero.strangectrl.input.AdaptivePollingRate;
+import com.xafero.strangectrl.input.CallbackStats;
+import com.xafero.strangectrl.input.ControllerCallbackFactory;
 import com.xafero.strangectrl.input.ControllerPoller;
 import com.xafero.strangectrl.input.ControllersRefresher;
+import com.xafero.strangectrl.input.FixedTickPeriod;
 import com.xafero.strangectrl.input.IControllerCallback;
 import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.PointerEngine;
 import com.xafero.strangectrl.input.SimpleCallback;
+import com.xafero.strangectrl.input.TickPeriod;
 import com.xafero.strangectrl.input.TimeRunner;
+import com.xafero.strangectrl.mbean.CommandEngine;
+import com.xafero.strangectrl.mbean.MBeans;
+import com.xafero.strangectrl.mbean.Output;
+import com.xafero.strangectrl.mbean.PollLoop;
+import com.xafero.strangectrl.output.OutputBackend;
+import com.xafero.strangectrl.output.OutputFrame;
+import com.xafero.strangectrl.output.OutputPipeline;
+import com.xafero.strangectrl.output.RobotBackend;
+import com.xafero.strangectrl.output.UinputBackend;
 
 /**
  * The main entry point
  */
-public class App implements ControllersRefreshListener, ExitListener {
-    private static final long MAX_WAIT_TIME_TO_REFRESH_CONTROLLERS = 10;
+public class App implements ControllersRefreshListener, ExitListener,
+        LatencyReportListener {
     private static final org.slf4j.Logger logger = LoggerFactory
             .getLogger(App.class);
     public static final String RESOURCES_PATH = "/";
     private static final String LOG4J_PROPERTIES = "log4j.properties";
     private static final String TRAY_ICON = "console-controller2.png";
+    private static final String LATENCY_REPORT = "latency-%tY%<tm%<td-%<tH%<tM%<tS.txt";
     private final static String TIP = "Strange Control";
-    private static final long PERIOD = 10;
+    private static final String UINPUT_PROPERTY = "strangectrl.uinput";
 
+    private final OutputPipeline outputPipeline;
+    private final OutputFrame outputFrame;
     private final InputUtils inputUtils;
+    private final PointerEngine pointerEngine;
     private final GraphicsDevice graphicsDevice;
+    private final ScreenTopology screenTopology = ScreenTopology.shared();
+    private ControllersRefresher controllersRefresher;
     private ControllerPoller controllerPoller;
     private SystemTray tray;
     private TrayIcon trayIcon;
     private TimeRunner timeRunner;
+    private ExecutorService laneExecutor;
     private final ConfigReader configReader = new ConfigReader();
+    private volatile Configuration configuration;
+    private ConfigWatcher configWatcher;
+
+    // callbacks of live lanes, the lanes hold them
+    private final Set<SimpleCallback> callbacks = Collections
+            .newSetFromMap(new WeakHashMap<SimpleCallback, Boolean>());
+    private final CallbackStats callbackStats = new CallbackStats();
+    private final MBeans mBeans = new MBeans(
+            ManagementFactory.getPlatformMBeanServer());
 
     public App() {
         AtomicReference<GraphicsDevice> devRef;
         final Robot robot = DesktopUtils
                 .createRobot(devRef = new AtomicReference<GraphicsDevice>());
         graphicsDevice = devRef.get();
-        inputUtils = new InputUtils(robot);
+        outputPipeline = new OutputPipeline(createOutputBackend(robot,
+                graphicsDevice, screenTopology));
+        outputFrame = new OutputFrame(outputPipeline);
+        inputUtils = new InputUtils(outputFrame);
+
+        // one cursor, whichever controller moves it
+        pointerEngine = new PointerEngine(inputUtils, new DesktopUtils(
+                screenTopology));
+
+        // both cache what they know about the screens
+        screenTopology.addListener(pointerEngine);
+        if (outputPipeline.getBackend() instanceof ScreenTopology.Listener) {
+            screenTopology.addListener((ScreenTopology.Listener) outputPipeline
+                    .getBackend());
+        }
+    }
+
+    private static OutputBackend createOutputBackend(final Robot robot,
+            final GraphicsDevice screen, final ScreenTopology screenTopology) {
+        final String uinput = System.getProperty(UINPUT_PROPERTY);
+        if (uinput != null) {
+            screenTopology.refresh();
+            try {
+                return UinputBackend.create(Paths.get(uinput),
+                        screenTopology.getDesktopBounds());
+            } catch (final IOException e) {
+                logger.error("Cannot create input device with " + uinput
+                        + ", using robot", e);
+            }
+        }
+        return new RobotBackend(robot, screen, screenTopology,
+                new Function<GraphicsDevice, Robot>() {
+
+                    @Override
+                    public Robot apply(final GraphicsDevice other) {
+                        return DesktopUtils.createRobot(other);
+                    }
+                });
     }
 
     public static void main(final String[] args) {
@@ -89,34 +183,144 @@ public class App implements ControllersRefreshListener, ExitListener {
         loadTray();
 
         // load conf
-        final Configuration configuration = loadConfiguration();
+        configuration = loadConfiguration();
 
         logger.info(String.format("Got %s buttons.", configuration.getButtons()
                 .size()));
 
+        outputPipeline.start();
+        screenTopology.start(ScreenTopology.DEFAULT_PERIOD_MILLIS);
         startControllerPoller(configuration);
+        startConfigWatcher();
+    }
+
+    private void startConfigWatcher() {
+        configWatcher = new ConfigWatcher(
+                configReader.getExternalConfigFile(), configReader,
+                new ConfigWatcher.Listener() {
+
+                    @Override
+                    public void configurationChanged(
+                            final Configuration configuration) {
+                        applyConfiguration(configuration);
+                    }
+                });
+        try {
+            configWatcher.start();
+        } catch (final IOException e) {
+            logger.warn("Cannot watch configuration, changes need a restart",
+                    e);
+            configWatcher = null;
+        }
+    }
+
+    /**
+     * Called on the watcher thread: builds new commands for every callback
+     * first, so a broken mapping changes nothing, then hands them over.
+     * Polling and other startup settings still need a restart.
+     */
+    private void applyConfiguration(final Configuration configuration) {
+        synchronized (callbacks) {
+            final List<SimpleCallback> current = new ArrayList<>(callbacks);
+
+            // at least one factory, a broken mapping must fail even without
+            // live lanes
+            final List<CommandFactory> commandFactories = new ArrayList<>();
+            do {
+                commandFactories.add(new CommandFactory(inputUtils,
+                        configuration, pointerEngine));
+            } while (commandFactories.size() < current.size());
+
+            // lanes created from now on get the new configuration
+            this.configuration = configuration;
+            for (int i = 0; i < current.size(); i++) {
+                current.get(i).replaceCommands(commandFactories.get(i));
+            }
+        }
+        logger.info(String.format("Configuration reloaded, %s buttons.",
+                configuration.getButtons().size()));
     }
 
     private void startControllerPoller(final Configuration configuration) {
-        final CommandFactory commandFactory = new CommandFactory(inputUtils,
-                configuration);
+        final Setup setup = configuration.getSetup();
+        final Polling polling = setup.getPolling();
+
+        controllersRefresher = new ControllersRefresher(inputUtils,
+                TimeUnit.SECONDS.toMillis(setup.getCheckNewControllersDelay()));
+        controllersRefresher.start();
+
+        laneExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("controller-lane-%d").setDaemon(true).build());
+        if (polling.isMergeControllers()) {
+            final IControllerCallback callback = createCallback();
+            controllerPoller = new ControllerPoller(callback,
+                    controllersRefresher, laneExecutor);
+        } else {
+            final ControllerCallbackFactory callbackFactory = new ControllerCallbackFactory() {
+
+                @Override
+                public IControllerCallback createCallback(
+                        final Controller controller) {
+                    return App.this.createCallback();
+                }
+            };
+            controllerPoller = new ControllerPoller(callbackFactory,
+                    controllersRefresher, laneExecutor);
+        }
 
-        final IControllerCallback callback = new SimpleCallback(commandFactory,
-                graphicsDevice);
-        final ControllersRefresher controllersRefresher = new ControllersRefresher(
-                inputUtils, MAX_WAIT_TIME_TO_REFRESH_CONTROLLERS, PERIOD);
-        controllerPoller = new ControllerPoller(callback, controllersRefresher);
+        controllerPoller.setOutputFrame(outputFrame);
 
-        timeRunner = new TimeRunner(PERIOD, controllerPoller);
+        final TickPeriod tickPeriod;
+        if (polling.isAdaptive()) {
+            tickPeriod = new AdaptivePollingRate(controllerPoller, polling);
+            logger.info("Adaptive polling: " + polling);
+            if (setup.getTimeRefresher() != Setup.getDefaultSetup()
+                    .getTimeRefresher()) {
+                logger.warn(String.format("timeRefresher = %s ms is ignored "
+                        + "with adaptive polling, set adaptive to false "
+                        + "to poll at a fixed period",
+                        setup.getTimeRefresher()));
+            }
+        } else {
+            tickPeriod = new FixedTickPeriod(TimeUnit.MILLISECONDS.toNanos(setup
+                    .getTimeRefresher()));
+            logger.info(String.format("Fixed polling every %s ms",
+                    setup.getTimeRefresher()));
+        }
+        timeRunner = new TimeRunner(tickPeriod, controllerPoller);
 
+        registerMBeans();
         timeRunner.start();
     }
 
+    private void registerMBeans() {
+        mBeans.register("PollLoop", new PollLoop(timeRunner, controllerPoller,
+                controllersRefresher));
+        mBeans.register("CommandEngine", new CommandEngine(callbackStats,
+                inputUtils));
+        mBeans.register("Output", new Output(outputPipeline,
+                outputFrame));
+    }
+
+    private IControllerCallback createCallback() {
+
+        // every controller keeps its own command state, registered with the
+        // configuration it was built from so a reload cannot miss it
+        synchronized (callbacks) {
+            final CommandFactory commandFactory = new CommandFactory(
+                    inputUtils, configuration, pointerEngine);
+            final SimpleCallback callback = new SimpleCallback(
+                    commandFactory, graphicsDevice, callbackStats);
+            callbacks.add(callback);
+            return callback;
+        }
+    }
+
     private void loadTray() {
         try {
             tray = SystemTray.getSystemTray();
             trayIcon = DesktopUtils.createTrayIcon(loadTrayIconImage(), TIP,
-                    new TrayPopupMenu(this, this));
+                    new TrayPopupMenu(this, this, this));
             tray.add(trayIcon);
         } catch (final AWTException e1) {
             logger.error("Cannot create tray!");
@@ -145,10 +349,73 @@ public class App implements ControllersRefreshListener, ExitListener {
         tray.remove(trayIcon);
 
         timeRunner.stop();
+        stopConfigWatcher();
+        controllersRefresher.stop();
+        screenTopology.stop();
+        laneExecutor.shutdown();
+        stopOutputPipeline();
+        mBeans.unregisterAll();
+    }
+
+    private void stopConfigWatcher() {
+        if (configWatcher != null) {
+            try {
+                configWatcher.stop();
+            } catch (final InterruptedException e) {
+                logger.warn("Interrupted while stopping config watcher", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void stopOutputPipeline() {
+        try {
+            outputPipeline.stop();
+        } catch (final InterruptedException e) {
+            logger.warn("Interrupted while flushing output", e);
+            Thread.currentThread().interrupt();
+        }
+        if (outputPipeline.getBackend() instanceof Closeable) {
+            try {
+                ((Closeable) outputPipeline.getBackend()).close();
+            } catch (final IOException e) {
+                logger.warn("Cannot close output backend", e);
+            }
+        }
+
+        logger.info(String.format(
+                "Output: injected %s actions, max queue depth %s/%s, "
+                        + "%s backpressure waits, max queue latency %s us",
+                outputPipeline.getInjected(),
+                outputPipeline.getMaxQueueDepth(),
+                outputPipeline.getCapacity(),
+                outputPipeline.getBackpressureWaits(),
+                TimeUnit.NANOSECONDS.toMicros(outputPipeline
+                        .getMaxQueueLatencyNanos())));
+        logger.info("Input latency: "
+                + outputPipeline.getInputLatency().summary());
     }
 
     @Override
     public void refreshControllers() {
         controllerPoller.refreshPads();
     }
+
+    @Override
+    public void showLatencyReport() {
+        trayIcon.displayMessage("Input latency", outputPipeline
+                .getInputLatency().summary(), TrayIcon.MessageType.INFO);
+    }
+
+    @Override
+    public void dumpLatencyReport() {
+        final File file = new File(String.format(LATENCY_REPORT, new Date()));
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8)) {
+            outputPipeline.getInputLatency().writeReport(writer);
+            logger.info("Input latency saved to " + file.getAbsolutePath());
+        } catch (final IOException e) {
+            logger.error("Cannot save input latency!", e);
+        }
+    }
 }
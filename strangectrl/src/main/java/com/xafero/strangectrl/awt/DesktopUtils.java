@@ -1,13 +1,15 @@
 package com.xafero.strangectrl.awt;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.awt.AWTException;
-import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsDevice;
 import java.awt.GraphicsEnvironment;
 import java.awt.Image;
 import java.awt.MouseInfo;
 import java.awt.Point;
 import java.awt.PopupMenu;
+import java.awt.Rectangle;
 import java.awt.Robot;
 import java.awt.TrayIcon;
 import java.util.concurrent.atomic.AtomicReference;
@@ -16,6 +18,15 @@ public class DesktopUtils {
 
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
             .getLogger(DesktopUtils.class);
+    private final ScreenTopology screenTopology;
+
+    public DesktopUtils() {
+        this(ScreenTopology.shared());
+    }
+
+    public DesktopUtils(final ScreenTopology screenTopology) {
+        this.screenTopology = checkNotNull(screenTopology);
+    }
 
     public static GraphicsDevice getMouseScreen() {
         return MouseInfo.getPointerInfo().getDevice();
@@ -23,11 +34,31 @@ public class DesktopUtils {
 
     public Point getMousePos(final GraphicsDevice dev) {
         final Point pos = MouseInfo.getPointerInfo().getLocation();
-        final GraphicsConfiguration cfg = dev.getDefaultConfiguration();
-        final int newX = pos.x - cfg.getBounds().x;
-        final int newY = pos.y - cfg.getBounds().y;
+        final Rectangle bounds = getBounds(dev);
+        if (bounds != null) {
+            pos.translate(-bounds.x, -bounds.y);
+        }
+
+        return pos;
+    }
+
+    /**
+     * @return cached bounds of the screen, in the coordinates the robots use;
+     *         must not be modified
+     */
+    public Rectangle getBounds(final GraphicsDevice dev) {
+        return screenTopology.getBounds(dev);
+    }
+
+    /**
+     * @return screen at the point, null if the point is off every screen
+     */
+    public GraphicsDevice getDeviceAt(final int x, final int y) {
+        return screenTopology.getDeviceAt(x, y);
+    }
 
-        return new Point(newX, newY);
+    public ScreenTopology getScreenTopology() {
+        return screenTopology;
     }
 
     public static TrayIcon createTrayIcon(final Image img, final String tip,
@@ -0,0 +1,7 @@
+package com.xafero.strangectrl.awt;
+
+public interface LatencyReportListener {
+    void showLatencyReport();
+
+    void dumpLatencyReport();
+}
@@ -0,0 +1,206 @@
+package com.xafero.strangectrl.awt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Bounds of every screen, read once and kept until the displays change. The
+ * lookups are a scan of a small immutable array, nothing asks the toolkit.
+ * <p>
+ * AWT has no public event for added, removed or re-arranged displays, so
+ * {@link #start(long)} checks the screens on a background thread; a new
+ * snapshot is published (and listeners are told) only if something changed.
+ */
+public class ScreenTopology {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(ScreenTopology.class);
+    public static final long DEFAULT_PERIOD_MILLIS = 2000;
+    private static final Screens NO_SCREENS = new Screens(
+            new GraphicsDevice[0], new Rectangle[0]);
+
+    private final Supplier<GraphicsDevice[]> devicesSupplier;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Screens screens = NO_SCREENS;
+    private ScheduledExecutorService scheduler;
+
+    public interface Listener {
+        void screensChanged(ScreenTopology topology);
+    }
+
+    private static final class Screens {
+        private final GraphicsDevice[] devices;
+        private final Rectangle[] bounds;
+
+        private Screens(final GraphicsDevice[] devices,
+                final Rectangle[] bounds) {
+            this.devices = devices;
+            this.bounds = bounds;
+        }
+
+        private boolean sameAs(final GraphicsDevice[] otherDevices,
+                final Rectangle[] otherBounds) {
+            return Arrays.equals(devices, otherDevices)
+                    && Arrays.equals(bounds, otherBounds);
+        }
+    }
+
+    private static final class Holder {
+        private static final ScreenTopology SHARED = new ScreenTopology();
+    }
+
+    /**
+     * @return topology of the local graphics environment
+     */
+    public static ScreenTopology shared() {
+        return Holder.SHARED;
+    }
+
+    private ScreenTopology() {
+        this(new Supplier<GraphicsDevice[]>() {
+
+            @Override
+            public GraphicsDevice[] get() {
+                return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                        .getScreenDevices();
+            }
+        });
+    }
+
+    public ScreenTopology(final Supplier<GraphicsDevice[]> devicesSupplier) {
+        this.devicesSupplier = checkNotNull(devicesSupplier);
+        refresh();
+    }
+
+    public synchronized void start(final long periodInMillis) {
+        checkArgument(periodInMillis > 0);
+        checkState(scheduler == null);
+
+        scheduler = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("screen-topology").setDaemon(true)
+                        .build());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                refresh();
+            }
+        }, periodInMillis, periodInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        checkState(scheduler != null);
+
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Reads the screens again and publishes them if they changed.
+     *
+     * @return true if the screens changed
+     */
+    public boolean refresh() {
+        final GraphicsDevice[] devices;
+        final Rectangle[] bounds;
+        try {
+            devices = devicesSupplier.get().clone();
+            bounds = new Rectangle[devices.length];
+            for (int i = 0; i < devices.length; i++) {
+                final GraphicsConfiguration configuration = devices[i]
+                        .getDefaultConfiguration();
+                bounds[i] = configuration != null ? configuration.getBounds()
+                        : new Rectangle();
+            }
+        } catch (final RuntimeException e) {
+
+            // headless or a display going away - keep what we have
+            logger.error("Cannot read screens", e);
+            return false;
+        }
+
+        synchronized (listeners) {
+            if (screens.sameAs(devices, bounds)) {
+                return false;
+            }
+            screens = new Screens(devices, bounds);
+        }
+        logger.info("Screens: " + Arrays.toString(bounds));
+        for (final Listener listener : listeners) {
+            listener.screensChanged(this);
+        }
+        return true;
+    }
+
+    public void addListener(final Listener listener) {
+        listeners.add(checkNotNull(listener));
+    }
+
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return bounds of the screen, or null for an unknown device; the
+     *         rectangle is shared and must not be modified
+     */
+    public Rectangle getBounds(final GraphicsDevice device) {
+        final Screens current = screens;
+        for (int i = 0; i < current.devices.length; i++) {
+            if (current.devices[i] == device) {
+                return current.bounds[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return screen that contains the point, or null if it is off every
+     *         screen
+     */
+    public GraphicsDevice getDeviceAt(final int x, final int y) {
+        final Screens current = screens;
+        for (int i = 0; i < current.bounds.length; i++) {
+            if (current.bounds[i].contains(x, y)) {
+                return current.devices[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return smallest rectangle containing every screen, empty without
+     *         screens
+     */
+    public Rectangle getDesktopBounds() {
+        final Screens current = screens;
+        final Rectangle desktop = new Rectangle();
+        for (int i = 0; i < current.bounds.length; i++) {
+            if (i == 0) {
+                desktop.setBounds(current.bounds[i]);
+            } else {
+                desktop.add(current.bounds[i]);
+            }
+        }
+        return desktop;
+    }
+
+    public int getScreenCount() {
+        return screens.devices.length;
+    }
+}
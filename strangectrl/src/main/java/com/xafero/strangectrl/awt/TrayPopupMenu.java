@@ -17,12 +17,15 @@ public class TrayPopupMenu extends PopupMenu {
     private static final String HELP_URL = "https://github.com/magx2/StrangeCtrl/wiki";
     private final ControllersRefreshListener refreshListener;
     private final ExitListener exitListener;
+    private final LatencyReportListener latencyListener;
 
     public TrayPopupMenu(final ControllersRefreshListener refreshListener,
-            final ExitListener exitListener) {
+            final ExitListener exitListener,
+            final LatencyReportListener latencyListener) {
         super("Strange Control menu");
         this.refreshListener = refreshListener;
         this.exitListener = exitListener;
+        this.latencyListener = latencyListener;
         initGui();
     }
 
@@ -34,6 +37,9 @@ public class TrayPopupMenu extends PopupMenu {
         // refresh
         initRefresh();
 
+        // latency
+        initLatency();
+
         // exit
         initExit();
     }
@@ -65,6 +71,30 @@ public class TrayPopupMenu extends PopupMenu {
         // add(refreshItem);
     }
 
+    private void initLatency() {
+        final ActionListener showListener = new ActionListener() {
+
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                latencyListener.showLatencyReport();
+            }
+        };
+        final MenuItem showItem = new MenuItem("Input Latency");
+        showItem.addActionListener(showListener);
+        add(showItem);
+
+        final ActionListener dumpListener = new ActionListener() {
+
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                latencyListener.dumpLatencyReport();
+            }
+        };
+        final MenuItem dumpItem = new MenuItem("Save Input Latency");
+        dumpItem.addActionListener(dumpListener);
+        add(dumpItem);
+    }
+
     private void initHelp() {
         final ActionListener helpListener = new ActionListener() {
 
@@ -0,0 +1,14 @@
+package com.xafero.strangectrl.cmd;
+
+/**
+ * Command that keeps acting after its button was released, e.g. a playback
+ * scheduled on a timer. Called when the command is dropped, so nothing it
+ * started outlives it.
+ */
+public interface CancellableCommand {
+
+    /**
+     * Stops whatever is still scheduled and releases what it holds down.
+     */
+    void cancel();
+}
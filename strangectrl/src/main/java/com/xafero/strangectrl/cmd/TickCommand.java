@@ -0,0 +1,12 @@
+package com.xafero.strangectrl.cmd;
+
+import java.awt.GraphicsDevice;
+
+/**
+ * Command called once per polling tick, after all period commands of the
+ * tick were executed. Lets several inputs be combined into one action.
+ */
+public interface TickCommand {
+
+    void tick(final GraphicsDevice graphicsDevice);
+}
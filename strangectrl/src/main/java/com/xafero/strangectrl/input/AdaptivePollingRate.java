@@ -0,0 +1,72 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import pl.grzeslowski.strangectrl.config.Polling;
+
+/**
+ * Polls fast while the controller is in use and decays to slower rates after
+ * the idle thresholds pass. Without any controller the slowest rate is used.
+ */
+public class AdaptivePollingRate implements TickPeriod {
+    private final PollActivity activity;
+    private final long fastPeriod;
+    private final long idlePeriod;
+    private final long sleepPeriod;
+    private final long idleAfter;
+    private final long sleepAfter;
+    private long lastBusy;
+    private boolean busySeen;
+
+    public AdaptivePollingRate(final PollActivity activity,
+            final Polling polling) {
+        this(activity, TimeUnit.MICROSECONDS.toNanos(polling
+                .getFastPeriodMicros()), TimeUnit.MILLISECONDS.toNanos(polling
+                .getIdlePeriodMillis()), TimeUnit.MILLISECONDS.toNanos(polling
+                .getSleepPeriodMillis()), TimeUnit.MILLISECONDS.toNanos(polling
+                .getIdleAfterMillis()), TimeUnit.MILLISECONDS.toNanos(polling
+                .getSleepAfterMillis()));
+    }
+
+    public AdaptivePollingRate(final PollActivity activity,
+            final long fastPeriod, final long idlePeriod,
+            final long sleepPeriod, final long idleAfter, final long sleepAfter) {
+        checkArgument(fastPeriod > 0 && fastPeriod <= idlePeriod
+                && idlePeriod <= sleepPeriod);
+        checkArgument(idleAfter >= 0 && idleAfter <= sleepAfter);
+        this.activity = checkNotNull(activity);
+        this.fastPeriod = fastPeriod;
+        this.idlePeriod = idlePeriod;
+        this.sleepPeriod = sleepPeriod;
+        this.idleAfter = idleAfter;
+        this.sleepAfter = sleepAfter;
+    }
+
+    @Override
+    public long nextPeriodNanos(final long now) {
+        if (!activity.hasControllers()) {
+            busySeen = false;
+            return sleepPeriod;
+        }
+
+        if (activity.isBusy() || !busySeen) {
+
+            // a freshly attached controller starts in the fast lane as well
+            busySeen = true;
+            lastBusy = now;
+            return fastPeriod;
+        }
+
+        final long idleFor = now - lastBusy;
+        if (idleFor < idleAfter) {
+            return fastPeriod;
+        } else if (idleFor < sleepAfter) {
+            return idlePeriod;
+        } else {
+            return sleepPeriod;
+        }
+    }
+}
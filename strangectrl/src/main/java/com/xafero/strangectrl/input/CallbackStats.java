@@ -0,0 +1,28 @@
+package com.xafero.strangectrl.input;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters shared by the callbacks of all controllers.
+ */
+public class CallbackStats {
+    private final AtomicLong eventsHandled = new AtomicLong();
+    private final AtomicInteger activePeriodCommands = new AtomicInteger();
+
+    void eventHandled() {
+        eventsHandled.incrementAndGet();
+    }
+
+    void periodCommandsChanged(final int delta) {
+        activePeriodCommands.addAndGet(delta);
+    }
+
+    public long getEventsHandled() {
+        return eventsHandled.get();
+    }
+
+    public int getActivePeriodCommands() {
+        return activePeriodCommands.get();
+    }
+}
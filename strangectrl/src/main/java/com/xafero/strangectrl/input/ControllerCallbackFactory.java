@@ -0,0 +1,7 @@
+package com.xafero.strangectrl.input;
+
+import net.java.games.input.Controller;
+
+public interface ControllerCallbackFactory {
+    IControllerCallback createCallback(final Controller controller);
+}
@@ -0,0 +1,127 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.java.games.input.Controller;
+import net.java.games.input.Event;
+import net.java.games.input.EventQueue;
+
+import com.xafero.strangectrl.metrics.EventStamps;
+
+/**
+ * Polls one controller and feeds its events to the callback of that
+ * controller. A lane is never run twice at the same time - if the previous
+ * poll is still in progress the tick is skipped for this lane only.
+ * <p>
+ * Axis values of one poll go through an {@link EventCoalescer}, only the last
+ * value of every axis driving a period or analog command is dispatched.
+ */
+class ControllerLane implements Runnable {
+    static final long NO_FRAME = 0;
+
+    private final Controller controller;
+    private final IControllerCallback callback;
+    private final boolean ownsCallback;
+    private final ControllerPoller poller;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Event event = new Event();
+    private final EventClock eventClock = new EventClock();
+    private final EventCoalescer coalescer = new EventCoalescer();
+    private volatile boolean eventsPolled;
+    private volatile boolean closed;
+    private volatile long frameTick = NO_FRAME;
+
+    ControllerLane(final Controller controller,
+            final IControllerCallback callback, final boolean ownsCallback,
+            final ControllerPoller poller) {
+        this.controller = checkNotNull(controller);
+        this.callback = checkNotNull(callback);
+        this.ownsCallback = ownsCallback;
+        this.poller = checkNotNull(poller);
+    }
+
+    boolean trySchedule() {
+        return !closed && scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * @param frameTick
+     *            tick of the output frame the next run belongs to, or
+     *            {@link #NO_FRAME}
+     */
+    void setFrameTick(final long frameTick) {
+        this.frameTick = frameTick;
+    }
+
+    @Override
+    public void run() {
+        final long tick = frameTick;
+        try {
+            if (!closed) {
+                poll();
+            }
+        } finally {
+
+            // before the lane can be scheduled for another tick
+            poller.laneDone(tick);
+            scheduled.set(false);
+        }
+    }
+
+    private void poll() {
+        if (ownsCallback) {
+            callback.doPeriodCommands();
+        }
+
+        if (controller.poll()) {
+            final long polledAt = System.nanoTime();
+            final EventQueue queue = controller.getEventQueue();
+            boolean polled = false;
+            try {
+                while (queue.getNextEvent(event)) {
+                    final long stamp = eventClock.toNanoTime(
+                            event.getNanos(), polledAt);
+                    if (!coalescer.offer(event, stamp, callback)) {
+
+                        // axes moved before this edge go first
+                        coalescer.flush(callback);
+                        EventStamps.begin(stamp);
+                        callback.onNewEvent(event);
+                    }
+                    polled = true;
+                }
+                coalescer.flush(callback);
+            } finally {
+                EventStamps.end();
+            }
+            eventsPolled = polled;
+        } else {
+
+            // controller is no longer available
+            eventsPolled = false;
+            poller.laneLost(this);
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean isBusy() {
+        return eventsPolled || callback.hasActiveCommands();
+    }
+
+    long getCoalescedEvents() {
+        return coalescer.getCoalesced();
+    }
+
+    Controller getController() {
+        return controller;
+    }
+
+    IControllerCallback getCallback() {
+        return callback;
+    }
+}
@@ -2,72 +2,310 @@ package com.xafero.strangectrl.input;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import net.java.games.input.Controller;
-import net.java.games.input.Event;
-import net.java.games.input.EventQueue;
 
-public class ControllerPoller extends TimerTask {
-    private final Collection<Controller> controllers = new HashSet<>();
-    private final IControllerCallback callback;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.xafero.strangectrl.output.OutputFrame;
+
+/**
+ * Polls every attached controller in its own {@link ControllerLane}. Lanes
+ * are handed to the executor, so with a thread pool a slow controller does
+ * not delay the others. Each controller gets its own callback from the
+ * factory, unless one callback is given - then all controllers are merged
+ * into one virtual controller.
+ * <p>
+ * Lanes follow the snapshots published by {@link ControllersRefresher}, so
+ * pads can be plugged in and out while others are in use.
+ * <p>
+ * With an {@link OutputFrame} set, every tick is one frame: the ticking thread
+ * waits for the lanes it scheduled (at most {@link #DEFAULT_FRAME_WAIT_NANOS})
+ * before it ends the frame, so the merged period commands and the actions of
+ * all lanes are passed on together. A lane still running after that is not
+ * waited for, its actions go out as they come.
+ */
+public class ControllerPoller extends TimerTask implements PollActivity {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(ControllerPoller.class);
+    private static final ControllerLane[] NO_LANES = new ControllerLane[0];
+    static final long DEFAULT_FRAME_WAIT_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(10);
+
+    private final Map<Controller, ControllerLane> lanes = new LinkedHashMap<>();
+    private volatile ControllerLane[] laneArray = NO_LANES;
+    private final Set<Controller> lostControllers = new HashSet<>();
+    private volatile ControllerSnapshot appliedSnapshot;
+    private final ControllerCallbackFactory callbackFactory;
+    private final IControllerCallback mergedCallback;
     private final ControllersRefresher controllersRefresher;
-    private Controller controller;
+    private final Executor executor;
+    private volatile OutputFrame outputFrame;
+
+    // lanes of the current frame, guarded by frameLock
+    private final Object frameLock = new Object();
+    private long frameTick;
+    private int framePending;
+    private volatile long maxFrameWaitNanos = DEFAULT_FRAME_WAIT_NANOS;
+
+    // guarded by lanes
+    private volatile long removedLanesCoalesced;
 
     public ControllerPoller(final IControllerCallback callback,
             final ControllersRefresher controllersRefresher) {
-        this.callback = checkNotNull(callback);
-        this.controllersRefresher = checkNotNull(controllersRefresher);
+        this(callback, controllersRefresher, MoreExecutors
+                .sameThreadExecutor());
     }
 
-    private boolean canRun() {
-        return !controllers.isEmpty();
+    public ControllerPoller(final IControllerCallback mergedCallback,
+            final ControllersRefresher controllersRefresher,
+            final Executor executor) {
+        this(new MergedCallbackFactory(checkNotNull(mergedCallback)),
+                mergedCallback, controllersRefresher, executor);
+    }
+
+    public ControllerPoller(final ControllerCallbackFactory callbackFactory,
+            final ControllersRefresher controllersRefresher,
+            final Executor executor) {
+        this(callbackFactory, null, controllersRefresher, executor);
+    }
+
+    private ControllerPoller(final ControllerCallbackFactory callbackFactory,
+            final IControllerCallback mergedCallback,
+            final ControllersRefresher controllersRefresher,
+            final Executor executor) {
+        this.callbackFactory = checkNotNull(callbackFactory);
+        this.mergedCallback = mergedCallback;
+        this.controllersRefresher = checkNotNull(controllersRefresher);
+        this.executor = checkNotNull(executor);
     }
 
     @Override
     public void run() {
-        synchronized (controllers) {
-            if (canRun()) {
-                if (controller == null) {
-                    controller = controllers.iterator().next();
+
+        // a reference check unless discovery published something new
+        final ControllerSnapshot snapshot = controllersRefresher.getSnapshot();
+        if (snapshot != appliedSnapshot) {
+            applySnapshot(snapshot);
+        }
+
+        final ControllerLane[] current = laneArray;
+        if (current.length == 0) {
+            return;
+        }
+
+        final OutputFrame frame = outputFrame;
+        if (frame == null) {
+            if (mergedCallback != null) {
+                mergedCallback.doPeriodCommands();
+            }
+            schedule(current, ControllerLane.NO_FRAME);
+            return;
+        }
+
+        frame.begin();
+        try {
+            if (mergedCallback != null) {
+                mergedCallback.doPeriodCommands();
+            }
+
+            final long tick;
+            synchronized (frameLock) {
+                tick = ++frameTick;
+                framePending = 0;
+            }
+            schedule(current, tick);
+            awaitLanes(tick);
+        } finally {
+            frame.end();
+        }
+    }
+
+    private void schedule(final ControllerLane[] current, final long tick) {
+        for (final ControllerLane lane : current) {
+            if (lane.trySchedule()) {
+                if (tick != ControllerLane.NO_FRAME) {
+                    synchronized (frameLock) {
+                        framePending++;
+                    }
                 }
-                runForController();
-            } else {
+                lane.setFrameTick(tick);
+                executor.execute(lane);
+            }
+        }
+    }
 
-                // need to refresh controllers
-                refreshControllers();
+    private void awaitLanes(final long tick) {
+        long remaining = maxFrameWaitNanos;
+        final long deadline = System.nanoTime() + remaining;
+        synchronized (frameLock) {
+            while (frameTick == tick && framePending > 0 && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(frameLock, remaining);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.nanoTime();
             }
         }
     }
 
-    private void runForController() {
-        callback.doPeriodCommands();
+    /**
+     * Called by a lane when its poll is over.
+     */
+    void laneDone(final long tick) {
+        if (tick == ControllerLane.NO_FRAME) {
+            return;
+        }
+
+        synchronized (frameLock) {
 
-        if (controller.poll()) {
-            final EventQueue queue = controller.getEventQueue();
-            final Event event = new Event();
-            while (queue.getNextEvent(event)) {
-                callback.onNewEvent(event);
+            // a lane that overran an earlier tick is not part of this frame
+            if (tick == frameTick && --framePending == 0) {
+                frameLock.notifyAll();
             }
-        } else {
+        }
+    }
+
+    private void applySnapshot(final ControllerSnapshot snapshot) {
+        synchronized (lanes) {
 
-            // controller is no longer available
-            callback.controllerRemoved();
-            controllers.remove(controller);
-            controller = null;
+            // unplugged
+            for (final ControllerLane lane : new ArrayList<>(lanes.values())) {
+                if (!snapshot.contains(lane.getController())) {
+                    removeLane(lane);
+                }
+            }
+            lostControllers.retainAll(snapshot.getControllers());
+
+            // plugged in
+            for (final Controller controller : snapshot.getControllers()) {
+                if (!lanes.containsKey(controller)
+                        && !lostControllers.contains(controller)) {
+                    addLane(controller);
+                }
+            }
+            appliedSnapshot = snapshot;
         }
     }
 
-    private void refreshControllers() {
-        controllers.addAll(controllersRefresher.getController());
+    private void addLane(final Controller controller) {
+        final IControllerCallback callback = callbackFactory
+                .createCallback(controller);
+        lanes.put(controller, new ControllerLane(controller, callback,
+                mergedCallback == null, this));
+        laneArray = lanes.values().toArray(NO_LANES);
+
+        logger.info("Polling controller " + controller.getName());
+    }
+
+    void laneLost(final ControllerLane lane) {
+        synchronized (lanes) {
+
+            // discovery still lists it until the next enumeration
+            lostControllers.add(lane.getController());
+            removeLane(lane);
+        }
+        controllersRefresher.controllerLost(lane.getController());
+    }
+
+    private void removeLane(final ControllerLane lane) {
+        if (lanes.remove(lane.getController()) == null) {
+            return;
+        }
+        lane.close();
+        laneArray = lanes.values().toArray(NO_LANES);
+        removedLanesCoalesced += lane.getCoalescedEvents();
+
+        // merged controller lives until its last pad is gone
+        if (mergedCallback == null || lanes.isEmpty()) {
+            lane.getCallback().controllerRemoved();
+        }
+
+        logger.info("Controller " + lane.getController().getName()
+                + " is no longer available");
+    }
+
+    public void setOutputFrame(final OutputFrame outputFrame) {
+        this.outputFrame = outputFrame;
+    }
+
+    void setMaxFrameWaitNanos(final long maxFrameWaitNanos) {
+        this.maxFrameWaitNanos = maxFrameWaitNanos;
+    }
+
+    /**
+     * @return axis events replaced by a later value of the same poll
+     */
+    public long getCoalescedEvents() {
+        long coalesced = removedLanesCoalesced;
+        for (final ControllerLane lane : laneArray) {
+            coalesced += lane.getCoalescedEvents();
+        }
+        return coalesced;
+    }
+
+    public int getControllerCount() {
+        return laneArray.length;
+    }
+
+    @Override
+    public boolean hasControllers() {
+        return laneArray.length > 0;
+    }
+
+    @Override
+    public boolean isBusy() {
+        for (final ControllerLane lane : laneArray) {
+            if (lane.isBusy()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public void refreshPads() {
-        synchronized (controllers) {
-            controllers.clear();
+        synchronized (lanes) {
+            for (final ControllerLane lane : lanes.values()) {
+                lane.close();
+                removedLanesCoalesced += lane.getCoalescedEvents();
+                if (mergedCallback == null) {
+                    lane.getCallback().controllerRemoved();
+                }
+            }
+            if (mergedCallback != null && !lanes.isEmpty()) {
+                mergedCallback.controllerRemoved();
+            }
+
+            lanes.clear();
+            lostControllers.clear();
+            laneArray = NO_LANES;
+
+            // lanes are built again on the next tick
+            appliedSnapshot = null;
             controllersRefresher.refreshNextTime();
         }
     }
+
+    private static class MergedCallbackFactory implements
+            ControllerCallbackFactory {
+        private final IControllerCallback callback;
+
+        MergedCallbackFactory(final IControllerCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public IControllerCallback createCallback(final Controller controller) {
+            return callback;
+        }
+    }
 }
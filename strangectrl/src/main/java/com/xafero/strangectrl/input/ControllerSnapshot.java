@@ -0,0 +1,96 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.games.input.Controller;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable result of one controller discovery. Controllers are keyed by
+ * name, port and ordinal (for identical pads), so a device that is still
+ * attached keeps its key between two enumerations. Some platforms enumerate
+ * every device as a new {@link Controller} object, so the object already
+ * known under a key is kept - its lane and callback live on. Only when the
+ * known object stopped polling (a pad unplugged and plugged in again within
+ * one discovery period) the new object takes its place.
+ */
+public class ControllerSnapshot {
+    public static final ControllerSnapshot EMPTY = new ControllerSnapshot(
+            ImmutableMap.<String, Controller> of());
+
+    private final ImmutableMap<String, Controller> controllers;
+
+    private ControllerSnapshot(final ImmutableMap<String, Controller> controllers) {
+        this.controllers = controllers;
+    }
+
+    public static ControllerSnapshot of(
+            final Collection<? extends Controller> controllers) {
+        checkNotNull(controllers);
+
+        final Map<String, Controller> keyed = new LinkedHashMap<>();
+        final Map<String, Integer> ordinals = new HashMap<>();
+        for (final Controller controller : controllers) {
+            final String baseKey = controller.getName() + "@"
+                    + controller.getPortType() + ":"
+                    + controller.getPortNumber();
+            final Integer ordinal = ordinals.get(baseKey);
+            final int next = ordinal == null ? 0 : ordinal + 1;
+            ordinals.put(baseKey, next);
+
+            keyed.put(baseKey + "#" + next, controller);
+        }
+        return new ControllerSnapshot(ImmutableMap.copyOf(keyed));
+    }
+
+    /**
+     * @param lost
+     *            known controllers whose poll failed
+     * @return {@code previous} when the same devices are attached as before,
+     *         otherwise a snapshot that keeps the known objects of devices
+     *         still attached
+     */
+    ControllerSnapshot mergeWith(final ControllerSnapshot previous,
+            final Set<Controller> lost) {
+        checkNotNull(lost);
+
+        boolean changed = controllers.size() != previous.controllers.size();
+        final ImmutableMap.Builder<String, Controller> merged = ImmutableMap
+                .builder();
+        for (final Map.Entry<String, Controller> entry : controllers
+                .entrySet()) {
+            final Controller known = previous.controllers.get(entry.getKey());
+            if (known != null && !lost.contains(known)) {
+                merged.put(entry.getKey(), known);
+            } else {
+                merged.put(entry);
+                changed |= entry.getValue() != known;
+            }
+        }
+        return changed ? new ControllerSnapshot(merged.build()) : previous;
+    }
+
+    public Collection<Controller> getControllers() {
+        return controllers.values();
+    }
+
+    public boolean contains(final Controller controller) {
+        return controllers.containsValue(controller);
+    }
+
+    public int size() {
+        return controllers.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ControllerSnapshot " + controllers.keySet();
+    }
+}
@@ -1,49 +1,158 @@
 package com.xafero.strangectrl.input;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
-import java.util.Date;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.java.games.input.Controller;
 import net.java.games.input.Controller.Type;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Enumerates controllers on a background thread and publishes the result as
+ * an immutable {@link ControllerSnapshot}. The poll loop only reads the
+ * current snapshot, so device enumeration never delays input handling.
+ * <p>
+ * A device that is enumerated again keeps its {@link Controller} object until
+ * the poller reports it lost, see {@link #controllerLost(Controller)}.
+ */
 public class ControllersRefresher {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
             .getLogger(ControllersRefresher.class);
     private final InputUtils inputUtils;
-    private final AtomicLong timesTried = new AtomicLong(0);
-    private final long maxTimesTried;
-    private long lastCheckTimestamp = 0;
-    private final long timeToWait;
+    private final long periodInMillis;
+    private final AtomicReference<ControllerSnapshot> snapshot = new AtomicReference<>(
+            ControllerSnapshot.EMPTY);
+    private final Set<Controller> lostControllers = Collections
+            .newSetFromMap(new ConcurrentHashMap<Controller, Boolean>());
+    private ScheduledExecutorService scheduler;
+
+    // written only by the discovery thread
+    private volatile long discoveries;
+    private volatile long lastDiscoveryNanos;
+    private volatile long maxDiscoveryNanos;
+    private volatile long totalDiscoveryNanos;
 
     public ControllersRefresher(final InputUtils inputUtils,
-            final long timeInSecs, final long delayInMillis) {
+            final long periodInMillis) {
+        checkArgument(periodInMillis > 0);
         this.inputUtils = checkNotNull(inputUtils);
-        timeToWait = timeInSecs * 1000;
-        maxTimesTried = timeToWait / delayInMillis;
+        this.periodInMillis = periodInMillis;
+    }
+
+    public synchronized void start() {
+        checkState(scheduler == null);
+
+        scheduler = Executors
+                .newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("controller-discovery").setDaemon(true)
+                        .build());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                discover();
+            }
+        }, 0, periodInMillis, TimeUnit.MILLISECONDS);
     }
 
-    public Set<Controller> getController() {
-        final long timeStamp = new Date().getTime();
+    public synchronized void stop() {
+        checkState(scheduler != null);
 
-        if (lastCheckTimestamp + timeToWait < timeStamp
-                || timesTried.incrementAndGet() >= maxTimesTried) {
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Enumerates controllers and publishes a new snapshot if something was
+     * plugged or unplugged.
+     */
+    void discover() {
+        final long start = System.nanoTime();
+        try {
             logger.debug("Getting new controllers from InputUtils");
+            final ControllerSnapshot found = ControllerSnapshot.of(inputUtils
+                    .getControllers(Type.GAMEPAD));
+
+            // only the discovery thread writes
+            final ControllerSnapshot previous = snapshot.get();
+            final ControllerSnapshot next = found.mergeWith(previous,
+                    lostControllers);
+            lostControllers.retainAll(next.getControllers());
+            if (next != previous) {
+                snapshot.set(next);
+                logger.info("Controllers changed: " + next);
+            }
+        } catch (final RuntimeException e) {
 
-            timesTried.set(0);
-            lastCheckTimestamp = timeStamp;
+            // keep the schedule alive, next round may succeed
+            logger.error("Cannot enumerate controllers", e);
+        } finally {
+            recordDuration(System.nanoTime() - start);
+        }
+    }
 
-            return inputUtils.getControllers(Type.GAMEPAD);
-        } else {
-            return new HashSet<>();
+    private void recordDuration(final long nanos) {
+        discoveries++;
+        lastDiscoveryNanos = nanos;
+        totalDiscoveryNanos += nanos;
+        if (nanos > maxDiscoveryNanos) {
+            maxDiscoveryNanos = nanos;
         }
+    }
 
+    public long getDiscoveries() {
+        return discoveries;
     }
 
-    public void refreshNextTime() {
-        lastCheckTimestamp = 0;
+    public long getLastDiscoveryNanos() {
+        return lastDiscoveryNanos;
+    }
+
+    public long getMaxDiscoveryNanos() {
+        return maxDiscoveryNanos;
+    }
+
+    public long getMeanDiscoveryNanos() {
+        final long count = discoveries;
+        return count == 0 ? 0 : totalDiscoveryNanos / count;
+    }
+
+    public ControllerSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Lets the next discovery replace the controller with the object
+     * enumerated under its key, and runs that discovery right away.
+     */
+    public void controllerLost(final Controller controller) {
+        lostControllers.add(checkNotNull(controller));
+        refreshNextTime();
+    }
+
+    /**
+     * Runs discovery as soon as possible instead of waiting for the next
+     * period.
+     */
+    public synchronized void refreshNextTime() {
+        if (scheduler != null) {
+            scheduler.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    discover();
+                }
+            });
+        }
     }
 }
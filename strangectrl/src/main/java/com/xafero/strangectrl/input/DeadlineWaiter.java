@@ -0,0 +1,96 @@
+package com.xafero.strangectrl.input;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for absolute {@link System#nanoTime()} deadlines. The thread is parked
+ * for the bulk of the wait and spins for the last stretch, so wake-ups do not
+ * depend on the granularity of the OS timer. The spin window adapts to the
+ * park overshoot observed on the current machine, but never takes more than
+ * the given share of the wait: with a coarse timer (about 1 ms on Windows)
+ * a short period would be spun away completely, so the wake-up is rather a
+ * bit late.
+ * <p>
+ * One instance per waiting thread - it is not thread safe, except for
+ * {@link #cancel()}.
+ */
+public class DeadlineWaiter {
+    static final long MIN_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    static final long MAX_SPIN_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private long spinNanos = TimeUnit.MICROSECONDS.toNanos(200);
+    private volatile boolean cancelled;
+
+    /**
+     * @return time (from {@link System#nanoTime()}) at which the thread woke
+     *         up, never earlier than {@code deadline} unless the wait was
+     *         cancelled
+     */
+    public long awaitDeadline(final long deadline) {
+        return awaitDeadline(deadline, MAX_SPIN_NANOS);
+    }
+
+    /**
+     * @param maxSpinNanos
+     *            upper bound of the spin, e.g. a fraction of the period
+     *            between two deadlines
+     * @return time (from {@link System#nanoTime()}) at which the thread woke
+     *         up, never earlier than {@code deadline} unless the wait was
+     *         cancelled
+     */
+    public long awaitDeadline(final long deadline, final long maxSpinNanos) {
+        long now = System.nanoTime();
+        long spin = Math.min(spinNanos, maxSpinNanos);
+        boolean interrupted = false;
+        try {
+            while (deadline - now > spin) {
+                if (cancelled) {
+                    cancelled = false;
+                    return now;
+                }
+
+                final long parkUntil = deadline - spin;
+                LockSupport.parkNanos(this, parkUntil - now);
+
+                // park returns right away while the flag is set
+                interrupted |= Thread.interrupted();
+                now = System.nanoTime();
+                adaptSpin(now - parkUntil);
+                spin = Math.min(spinNanos, maxSpinNanos);
+            }
+
+            while (deadline - now > 0 && !cancelled) {
+                now = System.nanoTime();
+            }
+            cancelled = false;
+            return now;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Ends the current (or the next) wait early. The caller still has to
+     * unpark the waiting thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void adaptSpin(final long overshoot) {
+        if (overshoot > spinNanos) {
+            spinNanos = Math.min(MAX_SPIN_NANOS, overshoot);
+        } else {
+
+            // slowly give the CPU back when parking got precise again
+            spinNanos = Math.max(MIN_SPIN_NANOS, spinNanos - (spinNanos >> 6));
+        }
+    }
+
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+}
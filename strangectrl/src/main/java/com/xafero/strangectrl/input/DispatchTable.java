@@ -0,0 +1,137 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.java.games.input.Component;
+import pl.grzeslowski.strangectrl.cmd.CommandFactory;
+
+import com.xafero.strangectrl.cmd.ICommand;
+
+/**
+ * Compiled lookup from a jinput {@link Component} to the slot of its
+ * {@link ICommand}. A component is compiled the first time it sends an event
+ * (name, mappers and POV directions are resolved once), after that a lookup
+ * is an identity hash probe and an array read - nothing is allocated.
+ * <p>
+ * Every distinct command gets one slot, so callers can keep per-command state
+ * in plain arrays indexed by {@link #commandSlot(Component, double)}.
+ * <p>
+ * Not thread safe, SimpleCallback guards it.
+ */
+class DispatchTable {
+    static final int NO_COMMAND = -1;
+    private static final int NOT_RESOLVED = -2;
+    private static final String POV = "pov";
+    private static final int POV_DIRECTIONS = 8;
+
+    private final CommandFactory commandFactory;
+    private final Map<Component, ComponentEntry> components = new IdentityHashMap<>();
+    private final Map<ICommand, Integer> commandSlots = new IdentityHashMap<>();
+    private ICommand[] commands = new ICommand[8];
+
+    DispatchTable(final CommandFactory commandFactory) {
+        this.commandFactory = checkNotNull(commandFactory);
+    }
+
+    /**
+     * @return slot of the command or {@link #NO_COMMAND}
+     */
+    int commandSlot(final Component component, final double value) {
+        ComponentEntry entry = components.get(component);
+        if (entry == null) {
+            entry = compile(component);
+        }
+
+        if (!entry.pov) {
+            return entry.commandSlot;
+        }
+
+        // POV reports one of nine fixed values: 0 (centered) or k/8
+        final double scaled = value * POV_DIRECTIONS;
+        final int direction = (int) scaled;
+        if (direction != scaled || direction < 0
+                || direction > POV_DIRECTIONS) {
+            return slotOf(commandFactory.getCommand(entry.identifier, value));
+        }
+
+        int slot = entry.povSlots[direction];
+        if (slot == NOT_RESOLVED) {
+            slot = slotOf(commandFactory.getCommand(entry.identifier,
+                    (double) direction / POV_DIRECTIONS));
+            entry.povSlots[direction] = slot;
+        }
+        return slot;
+    }
+
+    boolean isPov(final Component component) {
+        final ComponentEntry entry = components.get(component);
+        return entry != null && entry.pov;
+    }
+
+    ICommand getCommand(final int slot) {
+        return commands[slot];
+    }
+
+    /**
+     * @return upper bound (exclusive) of command slots given so far
+     */
+    int size() {
+        return commandSlots.size();
+    }
+
+    private ComponentEntry compile(final Component component) {
+        final String identifier = component.getIdentifier().getName();
+        final ComponentEntry entry;
+        if (POV.equalsIgnoreCase(identifier)) {
+            final int[] povSlots = new int[POV_DIRECTIONS + 1];
+            Arrays.fill(povSlots, NOT_RESOLVED);
+            entry = new ComponentEntry(identifier, true, NO_COMMAND, povSlots);
+        } else {
+
+            // only POV commands depend on the value
+            final int slot = slotOf(commandFactory.getCommand(identifier, 0.0));
+            entry = new ComponentEntry(identifier, false, slot, null);
+        }
+
+        components.put(component, entry);
+        return entry;
+    }
+
+    private int slotOf(final ICommand command) {
+        if (command == null) {
+            return NO_COMMAND;
+        }
+
+        final Integer slot = commandSlots.get(command);
+        if (slot != null) {
+            return slot;
+        }
+
+        final int newSlot = commandSlots.size();
+        if (newSlot == commands.length) {
+            commands = Arrays.copyOf(commands, newSlot * 2);
+        }
+        commands[newSlot] = command;
+        commandSlots.put(command, newSlot);
+        return newSlot;
+    }
+
+    private static class ComponentEntry {
+        private final String identifier;
+        private final boolean pov;
+        private final int commandSlot;
+        private final int[] povSlots;
+
+        ComponentEntry(final String identifier, final boolean pov,
+                final int commandSlot, final int[] povSlots) {
+            this.identifier = identifier;
+            this.pov = pov;
+            this.commandSlot = commandSlot;
+            this.povSlots = povSlots;
+        }
+    }
+}
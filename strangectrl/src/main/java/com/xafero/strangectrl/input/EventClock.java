@@ -0,0 +1,51 @@
+package com.xafero.strangectrl.input;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translates {@link net.java.games.input.Event#getNanos()} into
+ * {@link System#nanoTime()}. The two clocks have an unknown offset, it is
+ * estimated as the smallest observed difference between poll time and event
+ * time - the event closest to its poll was delivered almost immediately.
+ * The estimate is renewed every window so clock drift does not accumulate.
+ * <p>
+ * One instance per controller lane - it is not thread safe.
+ */
+class EventClock {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private boolean estimated;
+    private long offset;
+    private long windowStart;
+    private boolean windowEstimated;
+    private long windowOffset;
+
+    /**
+     * @return when the event happened, never after {@code polledAt}
+     */
+    long toNanoTime(final long eventNanos, final long polledAt) {
+        if (eventNanos == 0) {
+
+            // plugin does not stamp events
+            return polledAt;
+        }
+
+        final long observed = polledAt - eventNanos;
+        if (!estimated || observed < offset) {
+            offset = observed;
+            estimated = true;
+        }
+
+        if (!windowEstimated || observed < windowOffset) {
+            windowOffset = observed;
+            windowEstimated = true;
+        }
+        if (polledAt - windowStart > WINDOW_NANOS) {
+            offset = windowOffset;
+            windowEstimated = false;
+            windowStart = polledAt;
+        }
+
+        return Math.min(eventNanos + offset, polledAt);
+    }
+}
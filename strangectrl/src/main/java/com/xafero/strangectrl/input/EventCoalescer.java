@@ -0,0 +1,116 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+import net.java.games.input.Component;
+import net.java.games.input.Event;
+
+import com.xafero.strangectrl.metrics.EventStamps;
+
+/**
+ * Squashes the analog events of one poll to the last value of every axis
+ * (relative axes are summed up instead). Digital events - buttons and the pov
+ * - are never squashed, neither are axes whose command needs every edge (see
+ * {@link IControllerCallback#isCoalescable(Component)}): before one of them
+ * is dispatched the pending axis values are flushed, so the callback sees the
+ * same order of edges as the controller reported.
+ * <p>
+ * Components get their slot the first time they are seen, after that no
+ * objects are allocated. One instance per controller lane - it is not thread
+ * safe.
+ */
+class EventCoalescer {
+    private final Event event = new Event();
+
+    // per slot
+    private Component[] components = new Component[8];
+    private float[] values = new float[8];
+    private long[] nanos = new long[8];
+    private long[] stamps = new long[8];
+    private boolean[] pending = new boolean[8];
+    private int slots;
+
+    // slots with a pending value, in the order of their first event
+    private int[] order = new int[8];
+    private int pendingCount;
+
+    // written only by the lane thread
+    private volatile long coalesced;
+
+    /**
+     * @return {@code true} if the event was kept for {@link #flush}, otherwise
+     *         the caller has to dispatch it on its own
+     */
+    boolean offer(final Event event, final long stamp,
+            final IControllerCallback callback) {
+        final Component component = event.getComponent();
+        if (component == null || !component.isAnalog()) {
+            return false;
+        }
+
+        final int slot = slotOf(component);
+        if (!pending[slot] && !callback.isCoalescable(component)) {
+            return false;
+        }
+        if (pending[slot]) {
+            coalesced++;
+            values[slot] = component.isRelative() ? values[slot]
+                    + event.getValue() : event.getValue();
+        } else {
+            pending[slot] = true;
+            order[pendingCount++] = slot;
+            values[slot] = event.getValue();
+        }
+        nanos[slot] = event.getNanos();
+        stamps[slot] = stamp;
+        return true;
+    }
+
+    /**
+     * Dispatches pending values in the order of their first event.
+     */
+    void flush(final IControllerCallback callback) {
+        checkNotNull(callback);
+
+        for (int i = 0; i < pendingCount; i++) {
+            final int slot = order[i];
+            pending[slot] = false;
+            event.set(components[slot], values[slot], nanos[slot]);
+            EventStamps.begin(stamps[slot]);
+            callback.onNewEvent(event);
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * @return number of events that were replaced by a later value
+     */
+    long getCoalesced() {
+        return coalesced;
+    }
+
+    private int slotOf(final Component component) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (components[slot] == component) {
+                return slot;
+            }
+        }
+        return addSlot(component);
+    }
+
+    private int addSlot(final Component component) {
+        if (slots == components.length) {
+            final int length = slots * 2;
+            components = Arrays.copyOf(components, length);
+            values = Arrays.copyOf(values, length);
+            nanos = Arrays.copyOf(nanos, length);
+            stamps = Arrays.copyOf(stamps, length);
+            pending = Arrays.copyOf(pending, length);
+            order = Arrays.copyOf(order, length);
+        }
+        components[slots] = component;
+        return slots++;
+    }
+}
@@ -0,0 +1,17 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class FixedTickPeriod implements TickPeriod {
+    private final long periodNanos;
+
+    public FixedTickPeriod(final long periodNanos) {
+        checkArgument(periodNanos > 0);
+        this.periodNanos = periodNanos;
+    }
+
+    @Override
+    public long nextPeriodNanos(final long now) {
+        return periodNanos;
+    }
+}
@@ -1,5 +1,6 @@
 package com.xafero.strangectrl.input;
 
+import net.java.games.input.Component;
 import net.java.games.input.Event;
 
 public interface IControllerCallback {
@@ -8,4 +9,12 @@ public interface IControllerCallback {
     void doPeriodCommands();
 
     void controllerRemoved();
+
+    boolean hasActiveCommands();
+
+    /**
+     * @return {@code true} if only the last value of the component in one
+     *         poll matters, so the values before it can be dropped
+     */
+    boolean isCoalescable(final Component component);
 }
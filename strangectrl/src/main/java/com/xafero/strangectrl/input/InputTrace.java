@@ -0,0 +1,165 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.xafero.strangectrl.input.InputUtils.MouseButton;
+import com.xafero.strangectrl.output.ActionRing;
+import com.xafero.strangectrl.output.ActionRing.ActionHandler;
+
+/**
+ * Debug log of injected actions that keeps string building and console I/O
+ * off the polling threads. Actions are written as fixed size primitive
+ * records (op as in {@link Macro}, two arguments, time) into an
+ * {@link ActionRing}; a background thread drains the ring and logs them.
+ * <p>
+ * Tracing is on when this class' logger has DEBUG enabled, otherwise
+ * {@link #record(int, int, int)} returns right away. Producers have to be
+ * serialized by the caller (InputUtils does that). When the ring is full
+ * records are dropped and counted - the trace never holds back the input.
+ */
+public class InputTrace implements ActionHandler {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(InputTrace.class);
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int DRAIN_BATCH = 256;
+    private static final long DRAIN_PERIOD_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(50);
+    private static final MouseButton[] MOUSE_BUTTONS = MouseButton.values();
+
+    private final boolean enabled;
+    private final ActionRing ring;
+    private volatile boolean run;
+    private volatile Thread drainer;
+
+    // written only by the producer side
+    private volatile long dropped;
+
+    private static final class Holder {
+        private static final InputTrace SHARED = createShared();
+
+        private static InputTrace createShared() {
+            final InputTrace trace = new InputTrace(DEFAULT_CAPACITY,
+                    logger.isDebugEnabled());
+            if (trace.isEnabled()) {
+                trace.start();
+            }
+            return trace;
+        }
+    }
+
+    /**
+     * @return trace drained by its own daemon thread, if enabled
+     */
+    public static InputTrace shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * @param capacity
+     *            has to be a power of two
+     */
+    public InputTrace(final int capacity, final boolean enabled) {
+        this.enabled = enabled;
+        this.ring = new ActionRing(enabled ? capacity : 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(final int op, final int firstArg, final int secondArg) {
+        if (!enabled) {
+            return;
+        }
+        if (!ring.offer(op, firstArg, secondArg, System.nanoTime())) {
+            dropped++;
+        }
+    }
+
+    public synchronized void start() {
+        checkState(enabled, "Trace is disabled");
+        checkState(!run);
+        run = true;
+
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                while (run) {
+                    drain();
+                    LockSupport.parkNanos(InputTrace.this, DRAIN_PERIOD_NANOS);
+                }
+                drain();
+            }
+        }, "input-trace");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the drainer after everything already recorded was logged.
+     */
+    public synchronized void stop() throws InterruptedException {
+        checkState(run);
+        run = false;
+
+        final Thread thread = drainer;
+        LockSupport.unpark(thread);
+        thread.join();
+        drainer = null;
+    }
+
+    /**
+     * Logs recorded actions. Called by the drainer thread, or by the only
+     * consumer when the trace was not started.
+     *
+     * @return number of logged records
+     */
+    public int drain() {
+        int drained = 0;
+        int batch;
+        do {
+            batch = ring.drain(this, DRAIN_BATCH);
+            drained += batch;
+        } while (batch == DRAIN_BATCH);
+        return drained;
+    }
+
+    @Override
+    public void onAction(final int op, final int firstArg,
+            final int secondArg, final long stamp) {
+        logger.debug(String.format("%d %s", stamp,
+                describe(op, firstArg, secondArg)));
+    }
+
+    static String describe(final int op, final int firstArg,
+            final int secondArg) {
+        switch (op) {
+        case Macro.KEY_PRESS:
+            return "Pressed key {" + KeyEvent.getKeyText(firstArg) + "}";
+        case Macro.KEY_RELEASE:
+            return "Released key {" + KeyEvent.getKeyText(firstArg) + "}";
+        case Macro.MOUSE_PRESS:
+            return "Pressed mouse button {" + MOUSE_BUTTONS[firstArg] + "}";
+        case Macro.MOUSE_RELEASE:
+            return "Released mouse button {" + MOUSE_BUTTONS[firstArg] + "}";
+        case Macro.MOUSE_MOVE:
+            return "Moved mouse [" + firstArg + ", " + secondArg + "]";
+        case Macro.MOUSE_WHEEL:
+            return "Moved mouse wheel {" + firstArg + "}";
+        case Macro.MOUSE_MOVE_BY:
+            return "Moved mouse by [" + firstArg + ", " + secondArg + "]";
+        default:
+            return "Unknown action " + op;
+        }
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -1,16 +1,14 @@
 package com.xafero.strangectrl.input;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.awt.Point;
 import java.awt.Robot;
 import java.awt.event.InputEvent;
-import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 
 import net.java.games.input.Controller;
@@ -19,18 +17,25 @@ import net.java.games.input.ControllerEnvironment;
 import net.java.games.input.DirectAndRawInputEnvironmentPlugin;
 import pl.grzeslowski.strangectrl.config.Key;
 
-import com.google.common.base.Joiner;
-import com.xafero.strangectrl.cmd.ConfigUtils;
+import com.xafero.strangectrl.output.OutputBackend;
+import com.xafero.strangectrl.output.OutputPipeline;
 import com.xafero.superloader.NativeLoader;
 
 public class InputUtils {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
             .getLogger(InputUtils.class);
-    private static final String PREFIX = "VK_";
-    private final Robot robot;
-    private final Map<String, Integer> keyMap;
-    private final Map<Key, Boolean> pressedKeys = new HashMap<>();
-    private final Map<MouseButton, Boolean> pressedMouseButtons = new HashMap<>();
+
+    // KeyEvent codes are 16 bit
+    private static final int KEY_CODES = 1 << 16;
+    private final OutputBackend output;
+
+    // pressed keys by KeyEvent code and pressed mouse buttons by mask, guarded
+    // by this
+    private final long[] pressedKeys = new long[KEY_CODES / Long.SIZE];
+    private int pressedKeysCount;
+    private int pressedMouseButtons;
+    private final MacroRecorder macroRecorder = new MacroRecorder();
+    private final InputTrace trace;
 
     static {
         logger.info("NativeLoader starts \"setup native\"");
@@ -54,8 +59,23 @@ public class InputUtils {
     }
 
     public InputUtils(final Robot robot) {
-        this.robot = robot;
-        keyMap = ConfigUtils.buildKeyMap(PREFIX);
+
+        // not started pipeline calls the robot right away
+        this(new OutputPipeline(robot));
+    }
+
+    /**
+     * @param output
+     *            usually an {@link OutputPipeline}, so the caller does not wait
+     *            for the injection
+     */
+    public InputUtils(final OutputBackend output) {
+        this(output, InputTrace.shared());
+    }
+
+    public InputUtils(final OutputBackend output, final InputTrace trace) {
+        this.output = checkNotNull(output);
+        this.trace = checkNotNull(trace);
     }
 
     public Set<Controller> getControllers(final Type... types) {
@@ -79,31 +99,77 @@ public class InputUtils {
     }
 
     public void pressKey(final List<Key> keys) {
-        for (final Key key : keys) {
-            if (!pressedKeys.containsKey(key) || !pressedKeys.get(key)) {
-                robot.keyPress(getCode(key));
-                pressedKeys.put(key, Boolean.TRUE);
+        pressKey(KeyCodes.resolve(keys));
+    }
 
-                logger.debug(String.format("Pressed key {%s}", key));
+    public void pressKey(final Key... keys) {
+        pressKey(Arrays.asList(keys));
+    }
+
+    /**
+     * Presses keys that are not pressed yet.
+     * 
+     * @param keyCodes
+     *            see {@link KeyCodes}
+     */
+    public synchronized void pressKey(final int[] keyCodes) {
+        for (final int code : keyCodes) {
+            if (setPressed(code, true)) {
+                output.keyPress(code);
+                macroRecorder.record(Macro.KEY_PRESS, code);
+                trace.record(Macro.KEY_PRESS, code, 0);
             }
         }
     }
 
-    public void pressKey(final Key... keys) {
-        pressKey(Arrays.asList(keys));
+    /**
+     * @return {@link java.awt.event.KeyEvent} code of the key name used in
+     *         configuration
+     */
+    public int getKeyCode(final String keyName) {
+        return KeyCodes.resolve(keyName);
+    }
+
+    /**
+     * Presses key by its code, without tracking it as pressed.
+     */
+    public synchronized void pressKeyCode(final int keyCode) {
+        output.keyPress(keyCode);
+        macroRecorder.record(Macro.KEY_PRESS, keyCode);
+        trace.record(Macro.KEY_PRESS, keyCode, 0);
     }
 
-    private int getCode(final Key key) {
-        return keyMap.get(key.getKey().toLowerCase(Locale.US));
+    public synchronized void releaseKeyCode(final int keyCode) {
+        output.keyRelease(keyCode);
+        macroRecorder.record(Macro.KEY_RELEASE, keyCode);
+        trace.record(Macro.KEY_RELEASE, keyCode, 0);
     }
 
     public void releaseKey(final List<Key> keys) {
-        for (final Key key : keys) {
-            robot.keyRelease(getCode(key));
-            pressedKeys.put(key, Boolean.FALSE);
+        releaseKey(KeyCodes.resolve(keys));
+    }
+
+    public synchronized void releaseKey(final int[] keyCodes) {
+        for (final int code : keyCodes) {
+            output.keyRelease(code);
+            macroRecorder.record(Macro.KEY_RELEASE, code);
+            trace.record(Macro.KEY_RELEASE, code, 0);
+            setPressed(code, false);
+        }
+    }
 
-            logger.debug(String.format("Released key {%s}", key));
+    /**
+     * @return {@code true} if the state changed
+     */
+    private boolean setPressed(final int code, final boolean pressed) {
+        final int word = code >>> 6;
+        final long bit = 1L << code;
+        if (((pressedKeys[word] & bit) != 0) == pressed) {
+            return false;
         }
+        pressedKeys[word] ^= bit;
+        pressedKeysCount += pressed ? 1 : -1;
+        return true;
     }
 
     public void releaseKey(final Key... keys) {
@@ -111,17 +177,23 @@ public class InputUtils {
     }
 
     public void pressKeyCombo(final List<Key> keys) {
-        final Deque<Key> keyCodes = new ArrayDeque<>();
-        for (final Key key : keys) {
-            robot.keyPress(getCode(key));
-            keyCodes.push(key);
+        pressKeyCombo(KeyCodes.resolve(keys));
+    }
+
+    /**
+     * Presses the keys in order and releases them in reverse order.
+     */
+    public synchronized void pressKeyCombo(final int[] keyCodes) {
+        for (final int code : keyCodes) {
+            output.keyPress(code);
+            macroRecorder.record(Macro.KEY_PRESS, code);
+            trace.record(Macro.KEY_PRESS, code, 0);
         }
-        for (final Key key : keyCodes) {
-            robot.keyRelease(getCode(key));
+        for (int i = keyCodes.length - 1; i >= 0; i--) {
+            output.keyRelease(keyCodes[i]);
+            macroRecorder.record(Macro.KEY_RELEASE, keyCodes[i]);
+            trace.record(Macro.KEY_RELEASE, keyCodes[i], 0);
         }
-
-        logger.debug(String.format("Pressed combo key {%s}", Joiner.on(",")
-                .join(keys)));
     }
 
     public void pressKeyCombo(final Key... keys) {
@@ -129,18 +201,39 @@ public class InputUtils {
     }
 
     public void moveMouse(final Point point) {
-        robot.mouseMove(point.x, point.y);
+        moveMouse(point.x, point.y);
+    }
 
-        logger.debug(String.format("Moved mouse [%s, %s]", point.x, point.y));
+    public synchronized void moveMouse(final int x, final int y) {
+        output.mouseMove(x, y);
+        macroRecorder.record(Macro.MOUSE_MOVE, Macro.packPoint(x, y));
+        trace.record(Macro.MOUSE_MOVE, x, y);
     }
 
-    public void mousePress(final MouseButton button) {
-        if (!pressedMouseButtons.containsKey(button)
-                || !pressedMouseButtons.get(button)) {
-            robot.mousePress(button.buttonMask);
-            pressedMouseButtons.put(button, Boolean.TRUE);
+    /**
+     * Moves the cursor relative to where it is now.
+     */
+    public synchronized void moveMouseBy(final int dx, final int dy) {
+        output.mouseMoveBy(dx, dy);
+        macroRecorder.record(Macro.MOUSE_MOVE_BY, Macro.packPoint(dx, dy));
+        trace.record(Macro.MOUSE_MOVE_BY, dx, dy);
+    }
 
-            logger.debug(String.format("Pressed mouse button {%s}", button));
+    /**
+     * @return true if {@link #moveMouseBy(int, int)} is cheaper than
+     *         {@link #moveMouse(int, int)}, see
+     *         {@link OutputBackend#supportsRelativeMotion()}
+     */
+    public boolean supportsRelativeMotion() {
+        return output.supportsRelativeMotion();
+    }
+
+    public synchronized void mousePress(final MouseButton button) {
+        if ((pressedMouseButtons & button.buttonMask) == 0) {
+            output.mousePress(button.buttonMask);
+            macroRecorder.record(Macro.MOUSE_PRESS, button.ordinal());
+            trace.record(Macro.MOUSE_PRESS, button.ordinal(), 0);
+            pressedMouseButtons |= button.buttonMask;
         }
     }
 
@@ -156,13 +249,12 @@ public class InputUtils {
         mousePress(MouseButton.CENTER);
     }
 
-    public void mouseRelease(final MouseButton button) {
-        if (pressedMouseButtons.containsKey(button)
-                && pressedMouseButtons.get(button)) {
-            robot.mouseRelease(button.buttonMask);
-            pressedMouseButtons.put(button, Boolean.FALSE);
-
-            logger.debug(String.format("Released mouse button {%s}", button));
+    public synchronized void mouseRelease(final MouseButton button) {
+        if ((pressedMouseButtons & button.buttonMask) != 0) {
+            output.mouseRelease(button.buttonMask);
+            macroRecorder.record(Macro.MOUSE_RELEASE, button.ordinal());
+            trace.record(Macro.MOUSE_RELEASE, button.ordinal(), 0);
+            pressedMouseButtons &= ~button.buttonMask;
         }
     }
 
@@ -178,9 +270,51 @@ public class InputUtils {
         mouseRelease(MouseButton.CENTER);
     }
 
-    public void mouseWheel(final int value) {
-        robot.mouseWheel(value);
+    public MacroRecorder getMacroRecorder() {
+        return macroRecorder;
+    }
+
+    public synchronized int getPressedKeysCount() {
+        return pressedKeysCount;
+    }
+
+    public synchronized int getPressedMouseButtonsCount() {
+        return Integer.bitCount(pressedMouseButtons);
+    }
+
+    /**
+     * @return {@code true} if the key was pressed with
+     *         {@link #pressKey(List)} and not released yet
+     */
+    public synchronized boolean isPressed(final int keyCode) {
+        checkArgument(keyCode >= 0 && keyCode < KEY_CODES,
+                "Wrong key code %s", keyCode);
+        return (pressedKeys[keyCode >>> 6] & 1L << keyCode) != 0;
+    }
+
+    public synchronized boolean isPressed(final MouseButton button) {
+        return (pressedMouseButtons & button.buttonMask) != 0;
+    }
+
+    /**
+     * @return codes of pressed keys in ascending order
+     */
+    public synchronized int[] getPressedKeyCodes() {
+        final int[] codes = new int[pressedKeysCount];
+        int i = 0;
+        for (int word = 0; i < codes.length; word++) {
+            long bits = pressedKeys[word];
+            while (bits != 0) {
+                codes[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return codes;
+    }
 
-        logger.debug(String.format("Moved mouse wheel {%s}", value));
+    public synchronized void mouseWheel(final int value) {
+        output.mouseWheel(value);
+        macroRecorder.record(Macro.MOUSE_WHEEL, value);
+        trace.record(Macro.MOUSE_WHEEL, value, 0);
     }
 }
@@ -0,0 +1,55 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import pl.grzeslowski.strangectrl.config.Key;
+
+import com.xafero.strangectrl.cmd.ConfigUtils;
+
+/**
+ * Key names used in the configuration resolved to
+ * {@link java.awt.event.KeyEvent} codes. Names are resolved when commands are
+ * built, so pressing a key is only an array read.
+ */
+public final class KeyCodes {
+    private static final Map<String, Integer> KEY_MAP = ConfigUtils
+            .buildKeyMap("VK_");
+
+    private KeyCodes() {
+        // utility class
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             when there is no key with this name
+     */
+    public static int resolve(final String keyName) {
+        final Integer code = KEY_MAP.get(checkNotNull(keyName).toLowerCase(
+                Locale.US));
+        if (code == null) {
+            throw new IllegalArgumentException("Unknown key \"" + keyName
+                    + "\"");
+        }
+        return code;
+    }
+
+    public static int resolve(final Key key) {
+        return resolve(checkNotNull(key).getKey());
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *             when one of the keys has an unknown name
+     */
+    public static int[] resolve(final List<Key> keys) {
+        final int[] codes = new int[keys.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = resolve(keys.get(i));
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,154 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+import com.xafero.strangectrl.input.InputUtils.MouseButton;
+
+/**
+ * Compiled macro - a flat array of {@code (delay, op, arg)} triples, so
+ * playing it back does not allocate and does not resolve any names. Delay is
+ * in ms and is waited before the step.
+ * <p>
+ * Arguments: key code for key ops, {@link MouseButton} ordinal for mouse
+ * button ops, {@link #packPoint(int, int)} for {@link #MOUSE_MOVE} and
+ * {@link #MOUSE_MOVE_BY} and notches for {@link #MOUSE_WHEEL}.
+ */
+public final class Macro {
+    public static final int KEY_PRESS = 1;
+    public static final int KEY_RELEASE = 2;
+    public static final int MOUSE_PRESS = 3;
+    public static final int MOUSE_RELEASE = 4;
+    public static final int MOUSE_MOVE = 5;
+    public static final int MOUSE_WHEEL = 6;
+    public static final int MOUSE_MOVE_BY = 7;
+    public static final Macro EMPTY = new Macro(new int[0]);
+
+    private static final int STEP_SIZE = 3;
+    private static final MouseButton[] MOUSE_BUTTONS = MouseButton.values();
+
+    private final int[] program;
+
+    /**
+     * @param program
+     *            {@code (delay, op, arg)} triples, copied
+     */
+    public Macro(final int[] program) {
+        checkArgument(checkNotNull(program).length % STEP_SIZE == 0,
+                "Program has to consist of (delay, op, arg) triples");
+        for (int i = 0; i < program.length; i += STEP_SIZE) {
+            checkArgument(program[i] >= 0, "Negative delay in step %s", i
+                    / STEP_SIZE);
+            checkArgument(program[i + 1] >= KEY_PRESS
+                    && program[i + 1] <= MOUSE_MOVE_BY,
+                    "Unknown op %s in step %s", program[i + 1], i / STEP_SIZE);
+            if (program[i + 1] == MOUSE_PRESS
+                    || program[i + 1] == MOUSE_RELEASE) {
+                checkElementIndex(program[i + 2], MOUSE_BUTTONS.length,
+                        "Mouse button");
+            }
+        }
+        this.program = Arrays.copyOf(program, program.length);
+    }
+
+    public static int packPoint(final int x, final int y) {
+        return x << 16 | y & 0xffff;
+    }
+
+    public static int unpackX(final int point) {
+        return point >> 16;
+    }
+
+    public static int unpackY(final int point) {
+        return (short) point;
+    }
+
+    public int size() {
+        return program.length / STEP_SIZE;
+    }
+
+    public boolean isEmpty() {
+        return program.length == 0;
+    }
+
+    public int getDelay(final int step) {
+        return program[step * STEP_SIZE];
+    }
+
+    public int getOp(final int step) {
+        return program[step * STEP_SIZE + 1];
+    }
+
+    public int getArg(final int step) {
+        return program[step * STEP_SIZE + 2];
+    }
+
+    /**
+     * @return sum of all delays in ms
+     */
+    public long getDuration() {
+        long duration = 0;
+        for (int i = 0; i < program.length; i += STEP_SIZE) {
+            duration += program[i];
+        }
+        return duration;
+    }
+
+    public int[] getProgram() {
+        return Arrays.copyOf(program, program.length);
+    }
+
+    /**
+     * Does given step (without waiting for its delay).
+     */
+    public void apply(final int step, final InputUtils inputUtils) {
+        final int arg = getArg(step);
+        switch (getOp(step)) {
+        case KEY_PRESS:
+            inputUtils.pressKeyCode(arg);
+            break;
+        case KEY_RELEASE:
+            inputUtils.releaseKeyCode(arg);
+            break;
+        case MOUSE_PRESS:
+            inputUtils.mousePress(MOUSE_BUTTONS[arg]);
+            break;
+        case MOUSE_RELEASE:
+            inputUtils.mouseRelease(MOUSE_BUTTONS[arg]);
+            break;
+        case MOUSE_MOVE:
+            inputUtils.moveMouse(unpackX(arg), unpackY(arg));
+            break;
+        case MOUSE_WHEEL:
+            inputUtils.mouseWheel(arg);
+            break;
+        case MOUSE_MOVE_BY:
+            inputUtils.moveMouseBy(unpackX(arg), unpackY(arg));
+            break;
+        default:
+            throw new IllegalStateException("Unknown op " + getOp(step));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(program);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Macro) {
+            return Arrays.equals(program, ((Macro) obj).program);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Macro[steps=" + size() + ", duration=" + getDuration() + "ms]";
+    }
+}
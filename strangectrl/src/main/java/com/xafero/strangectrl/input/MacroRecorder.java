@@ -0,0 +1,122 @@
+package com.xafero.strangectrl.input;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Records what {@link InputUtils} sends out while recording is on. The
+ * recording is kept as {@code (delay, op, arg)} triples, see {@link Macro}.
+ * <p>
+ * Mouse moves within one {@link #MERGE_NANOS} window are merged into the step
+ * that started it - absolute moves keep the last point, relative moves are
+ * summed up - so a recording grows with its duration, not with the rate of
+ * the mouse.
+ */
+public class MacroRecorder {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(MacroRecorder.class);
+    static final long MERGE_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    private final Ticker ticker;
+    private volatile boolean recording;
+
+    // guarded by this
+    private int[] program = new int[3 * 64];
+    private int length;
+    private long lastStepNanos;
+    private Macro lastMacro = Macro.EMPTY;
+
+    public MacroRecorder() {
+        this(Ticker.systemTicker());
+    }
+
+    public MacroRecorder(final Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    public synchronized void start() {
+        length = 0;
+        lastStepNanos = ticker.read();
+        recording = true;
+
+        logger.info("Macro recording started");
+    }
+
+    /**
+     * @return recorded macro, it also becomes {@link #getLastMacro()}
+     */
+    public synchronized Macro stop() {
+        if (recording) {
+            recording = false;
+            lastMacro = new Macro(Arrays.copyOf(program, length));
+
+            logger.info("Macro recording stopped, recorded {}", lastMacro);
+        }
+        return lastMacro;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public synchronized Macro getLastMacro() {
+        return lastMacro;
+    }
+
+    void record(final int op, final int arg) {
+        if (!recording) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!recording) {
+                return;
+            }
+
+            final long now = ticker.read();
+            if (merge(op, arg, now)) {
+                return;
+            }
+
+            final long delay = TimeUnit.NANOSECONDS.toMillis(now
+                    - lastStepNanos);
+
+            // keep the remainder, so rounding does not add up
+            lastStepNanos += TimeUnit.MILLISECONDS.toNanos(delay);
+
+            if (length + 3 > program.length) {
+                program = Arrays.copyOf(program, program.length * 2);
+            }
+            program[length++] = (int) Math.min(delay, Integer.MAX_VALUE);
+            program[length++] = op;
+            program[length++] = arg;
+        }
+    }
+
+    private boolean merge(final int op, final int arg, final long now) {
+        if (length == 0 || program[length - 2] != op
+                || now - lastStepNanos >= MERGE_NANOS) {
+            return false;
+        }
+
+        if (op == Macro.MOUSE_MOVE) {
+            program[length - 1] = arg;
+            return true;
+        }
+        if (op == Macro.MOUSE_MOVE_BY) {
+            final int last = program[length - 1];
+            final int x = Macro.unpackX(last) + Macro.unpackX(arg);
+            final int y = Macro.unpackY(last) + Macro.unpackY(arg);
+
+            // the sum has to fit into a packed point
+            if (x != (short) x || y != (short) y) {
+                return false;
+            }
+            program[length - 1] = Macro.packPoint(x, y);
+            return true;
+        }
+        return false;
+    }
+}
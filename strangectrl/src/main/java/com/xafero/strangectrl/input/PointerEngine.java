@@ -0,0 +1,172 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.awt.DesktopUtils;
+import com.xafero.strangectrl.awt.ScreenTopology;
+
+/**
+ * Keeps the cursor position in fractional pixels, so slow stick movement
+ * (less than a pixel per tick) still moves the cursor and fast one is not
+ * rounded on every tick. The real cursor is read from the OS only when the
+ * engine re-syncs: on the first move, on another screen, when the screens
+ * change and once per re-sync period - that is also when a move by the real
+ * mouse is noticed.
+ * <p>
+ * The position is kept in desktop coordinates (those of the screen bounds),
+ * so the cursor moves on to a neighbouring screen instead of stopping at the
+ * edge; it stops only where no screen continues. Bounds come from the cached
+ * {@link ScreenTopology}.
+ * <p>
+ * When the output moves the cursor relatively (a uinput device), only the
+ * sub-pixel remainders are kept and the whole pixels are sent as deltas; the
+ * OS is never asked for the cursor and keeps it on the screens by itself.
+ */
+public class PointerEngine implements ScreenTopology.Listener {
+    public static final long DEFAULT_RESYNC_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(250);
+
+    private final InputUtils inputUtils;
+    private final DesktopUtils desktopUtils;
+    private final Ticker ticker;
+    private final long resyncNanos;
+    private final boolean relative;
+
+    // guarded by this; x and y are only the remainders in relative mode
+    private GraphicsDevice device;
+    private long lastSyncNanos;
+    private double x;
+    private double y;
+    private int sentX;
+    private int sentY;
+    private Rectangle screen;
+    private long resyncs;
+
+    public PointerEngine(final InputUtils inputUtils,
+            final DesktopUtils desktopUtils) {
+        this(inputUtils, desktopUtils, Ticker.systemTicker(),
+                DEFAULT_RESYNC_NANOS);
+    }
+
+    public PointerEngine(final InputUtils inputUtils,
+            final DesktopUtils desktopUtils, final Ticker ticker,
+            final long resyncNanos) {
+        checkArgument(resyncNanos > 0);
+        this.inputUtils = checkNotNull(inputUtils);
+        this.desktopUtils = checkNotNull(desktopUtils);
+        this.ticker = checkNotNull(ticker);
+        this.resyncNanos = resyncNanos;
+        this.relative = inputUtils.supportsRelativeMotion();
+    }
+
+    /**
+     * Moves the cursor by given (fractional) number of pixels, starting on
+     * the screen of {@code graphicsDevice}.
+     */
+    public synchronized void move(final GraphicsDevice graphicsDevice,
+            final double dx, final double dy) {
+        if (relative) {
+            moveBy(dx, dy);
+            return;
+        }
+
+        final long now = ticker.read();
+        if (graphicsDevice != device || now - lastSyncNanos >= resyncNanos) {
+            sync(graphicsDevice, now);
+        }
+
+        x += dx;
+        y += dy;
+        if (screen == null) {
+            x = clamp(x, 0, Integer.MAX_VALUE);
+            y = clamp(y, 0, Integer.MAX_VALUE);
+        } else if (!screen.contains((int) Math.round(x),
+                (int) Math.round(y))) {
+            final GraphicsDevice next = desktopUtils.getDeviceAt(
+                    (int) Math.round(x), (int) Math.round(y));
+            final Rectangle nextScreen = next != null ? desktopUtils
+                    .getBounds(next) : null;
+            if (nextScreen != null) {
+                screen = nextScreen;
+            } else {
+                x = clamp(x, screen.x, screen.x + screen.width - 1);
+                y = clamp(y, screen.y, screen.y + screen.height - 1);
+            }
+        }
+
+        final int newX = (int) Math.round(x);
+        final int newY = (int) Math.round(y);
+        if (newX != sentX || newY != sentY) {
+            inputUtils.moveMouse(newX, newY);
+            sentX = newX;
+            sentY = newY;
+        }
+    }
+
+    private void moveBy(final double dx, final double dy) {
+        x += dx;
+        y += dy;
+        final int stepX = (int) x;
+        final int stepY = (int) y;
+        if (stepX != 0 || stepY != 0) {
+            inputUtils.moveMouseBy(stepX, stepY);
+            x -= stepX;
+            y -= stepY;
+        }
+    }
+
+    private void sync(final GraphicsDevice graphicsDevice, final long now) {
+        final Rectangle bounds = desktopUtils.getBounds(graphicsDevice);
+        final Point position = desktopUtils.getMousePos(graphicsDevice);
+        if (bounds != null) {
+            position.translate(bounds.x, bounds.y);
+        }
+        if (graphicsDevice != device || position.x != sentX
+                || position.y != sentY) {
+
+            // moved by someone else - start from the real cursor
+            x = position.x;
+            y = position.y;
+            sentX = position.x;
+            sentY = position.y;
+        }
+
+        // screens may have changed since the last sync
+        final GraphicsDevice current = desktopUtils.getDeviceAt(sentX, sentY);
+        final Rectangle currentBounds = current != null ? desktopUtils
+                .getBounds(current) : null;
+        screen = currentBounds != null ? currentBounds : bounds;
+        device = graphicsDevice;
+
+        lastSyncNanos = now;
+        resyncs++;
+    }
+
+    private static double clamp(final double value, final int min,
+            final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Next move reads the cursor position from the OS.
+     */
+    public synchronized void invalidate() {
+        device = null;
+    }
+
+    @Override
+    public void screensChanged(final ScreenTopology topology) {
+        invalidate();
+    }
+
+    public synchronized long getResyncs() {
+        return resyncs;
+    }
+}
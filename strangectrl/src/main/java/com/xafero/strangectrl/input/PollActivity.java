@@ -0,0 +1,11 @@
+package com.xafero.strangectrl.input;
+
+public interface PollActivity {
+    boolean hasControllers();
+
+    /**
+     * @return true if the last poll delivered events or some commands are
+     *         still active
+     */
+    boolean isBusy();
+}
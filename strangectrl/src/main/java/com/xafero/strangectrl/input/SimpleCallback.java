@@ -1,37 +1,78 @@
 package com.xafero.strangectrl.input;
 
-import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.awt.GraphicsDevice;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.java.games.input.Component;
 import net.java.games.input.Event;
+import pl.grzeslowski.strangectrl.cmd.AnalogCommand;
 import pl.grzeslowski.strangectrl.cmd.CommandFactory;
 
-import com.google.common.base.Objects;
+import com.xafero.strangectrl.cmd.CancellableCommand;
 import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
 
+/**
+ * Runs the commands of one (possibly merged) controller. The command table
+ * can be replaced while running, see {@link #replaceCommands(CommandFactory)}.
+ */
 public class SimpleCallback implements IControllerCallback {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
             .getLogger(SimpleCallback.class);
 
-    private final CommandFactory commandFactory;
     private final GraphicsDevice graphicsDevice;
-    private final Set<CommandLastValue> periodExecutionCommands = Collections
-            .synchronizedSet(new HashSet<CommandLastValue>());
-    private final Set<CommandLastValue> commandsInExecution = Collections
-            .synchronizedSet(new HashSet<CommandLastValue>());
-    private ICommand lastPovCommand;
+    private final CallbackStats stats;
+
+    // guarded by this
+    private DispatchTable dispatchTable;
+    private TickCommand[] tickCommands;
+
+    // built off the poll thread, taken over between ticks
+    private final AtomicReference<CommandTable> pendingTable = new AtomicReference<>();
+
+    // per command slot, see DispatchTable
+    private boolean[] inExecution = new boolean[8];
+    private boolean[] inPeriodExecution = new boolean[8];
+    private double[] lastValues = new double[8];
+    private volatile int activeCommands;
+    private int lastPovSlot = DispatchTable.NO_COMMAND;
 
     public SimpleCallback(final CommandFactory commandFactory,
             final GraphicsDevice graphicsDevice) {
-        this.commandFactory = checkNotNull(commandFactory);
+        this(commandFactory, graphicsDevice, new CallbackStats());
+    }
+
+    public SimpleCallback(final CommandFactory commandFactory,
+            final GraphicsDevice graphicsDevice, final CallbackStats stats) {
+        final CommandTable table = new CommandTable(commandFactory);
+        this.dispatchTable = table.dispatchTable;
+        this.tickCommands = table.tickCommands;
         this.graphicsDevice = checkNotNull(graphicsDevice);
+        this.stats = checkNotNull(stats);
+    }
+
+    private static final class CommandTable {
+        private final DispatchTable dispatchTable;
+        private final TickCommand[] tickCommands;
+
+        private CommandTable(final CommandFactory commandFactory) {
+            dispatchTable = new DispatchTable(checkNotNull(commandFactory));
+            tickCommands = commandFactory.getTickCommands().toArray(
+                    new TickCommand[0]);
+        }
+    }
+
+    /**
+     * Builds the dispatch table of the new commands on the calling thread and
+     * hands it over to the next {@link #doPeriodCommands()}, which releases
+     * everything the old commands hold and swaps the tables. Neither the poll
+     * thread nor the caller waits for the other.
+     */
+    public void replaceCommands(final CommandFactory commandFactory) {
+        pendingTable.set(new CommandTable(commandFactory));
     }
 
     @Override
@@ -40,159 +81,167 @@ public class SimpleCallback implements IControllerCallback {
 
         final double value = event.getValue();
         final Component component = event.getComponent();
-        final String identifier = component.getIdentifier().getName();
+        stats.eventHandled();
 
-        final ICommand command = commandFactory.getCommand(identifier, value);
-        if (command != null) {
+        final int slot = dispatchTable.commandSlot(component, value);
+        if (slot != DispatchTable.NO_COMMAND) {
+            ensureCapacity(slot);
+            final ICommand command = dispatchTable.getCommand(slot);
             if (!command.isPeriodCommand()) {
-                onNormalCommandEvent(value, command);
+                onNormalCommandEvent(value, command, slot);
             } else {
-                onPeriodCommandEvent(value, command);
+                onPeriodCommandEvent(value, command, slot);
             }
         }
 
-        povSupport(identifier, command);
+        if (dispatchTable.isPov(component)) {
+            povSupport(slot);
+        }
     }
 
-    private void povSupport(final String identifier, final ICommand command) {
+    private void povSupport(final int slot) {
 
         // set last command if pov will be executed
-        if ("pov".equalsIgnoreCase(identifier) && command != null) {
-            lastPovCommand = command;
+        if (slot != DispatchTable.NO_COMMAND) {
+            lastPovSlot = slot;
         }
 
         // remove last command in pov is there is releasing
-        if ("pov".equalsIgnoreCase(identifier) && lastPovCommand != null
-                && command == null) {
+        if (lastPovSlot != DispatchTable.NO_COMMAND
+                && slot == DispatchTable.NO_COMMAND) {
+            final ICommand lastPovCommand = dispatchTable
+                    .getCommand(lastPovSlot);
             if (lastPovCommand.isPeriodCommand()) {
-                removePeriodCommand(lastPovCommand);
+                setActive(inPeriodExecution, lastPovSlot, false);
             } else {
                 turnOffCommand(lastPovCommand);
-                removeCommand(lastPovCommand);
+                setActive(inExecution, lastPovSlot, false);
             }
-            lastPovCommand = null;
+            lastPovSlot = DispatchTable.NO_COMMAND;
         }
     }
 
-    private void onNormalCommandEvent(final double value, final ICommand command) {
-        onCommand(value, command, commandsInExecution, true);
+    private void onNormalCommandEvent(final double value,
+            final ICommand command, final int slot) {
+        command.execute(graphicsDevice, value);
+        updateState(inExecution, slot, value);
     }
 
-    private void onPeriodCommandEvent(final double value, final ICommand command) {
-        onCommand(value, command, periodExecutionCommands, false);
+    private void onPeriodCommandEvent(final double value,
+            final ICommand command, final int slot) {
+        command.executePeriodCommand(graphicsDevice, value);
+        updateState(inPeriodExecution, slot, value);
     }
 
-    private void onCommand(final double value, final ICommand command,
-            final Set<CommandLastValue> set, final boolean normalCommand) {
-
-        // execute command
-        if (normalCommand) {
-            command.execute(graphicsDevice, value);
-        } else {
-            command.executePeriodCommand(graphicsDevice, value);
-        }
-
-        // remove old command
-        synchronized (set) {
-            for (final Iterator<CommandLastValue> it = set.iterator(); it
-                    .hasNext();) {
-                final CommandLastValue next = it.next();
+    private void updateState(final boolean[] active, final int slot,
+            final double value) {
+        lastValues[slot] = value;
+        setActive(active, slot, value != 0.0);
+    }
 
-                if (equal(command, next.command)) {
-                    it.remove();
-                    break;
-                }
+    private void setActive(final boolean[] active, final int slot,
+            final boolean on) {
+        if (active[slot] != on) {
+            active[slot] = on;
+            final int delta = on ? 1 : -1;
+            activeCommands += delta;
+            if (active == inPeriodExecution) {
+                stats.periodCommandsChanged(delta);
             }
         }
-
-        // add command
-        if (value != 0.0) {
-            set.add(new CommandLastValue(value, command));
-        }
     }
 
-    private void removeCommand(final ICommand command) {
-        synchronized (commandsInExecution) {
-            for (final Iterator<CommandLastValue> it = commandsInExecution
-                    .iterator(); it.hasNext();) {
-                final CommandLastValue next = it.next();
-
-                if (equal(command, next.command)) {
-                    it.remove();
-                    break;
-                }
-            }
+    private void ensureCapacity(final int slot) {
+        if (slot >= lastValues.length) {
+            final int length = Math.max(slot + 1, lastValues.length * 2);
+            inExecution = Arrays.copyOf(inExecution, length);
+            inPeriodExecution = Arrays.copyOf(inPeriodExecution, length);
+            lastValues = Arrays.copyOf(lastValues, length);
         }
     }
 
     @Override
     public synchronized void doPeriodCommands() {
-        for (final CommandLastValue commandLastValue : periodExecutionCommands) {
-            commandLastValue.command.executePeriodCommand(graphicsDevice,
-                    commandLastValue.value);
+        if (pendingTable.get() != null) {
+            swapTable(pendingTable.getAndSet(null));
         }
-    }
-
-    @Override
-    public void controllerRemoved() {
-        synchronized (periodExecutionCommands) {
-            for (final CommandLastValue command : periodExecutionCommands) {
-                turnOffCommand(command.command);
-            }
 
-            periodExecutionCommands.clear();
+        if (activeCommands == 0) {
+            return;
         }
 
-        synchronized (commandsInExecution) {
-            for (final CommandLastValue command : commandsInExecution) {
-                turnOffCommand(command.command);
+        final int size = dispatchTable.size();
+        for (int slot = 0; slot < size; slot++) {
+            if (inPeriodExecution[slot]) {
+                dispatchTable.getCommand(slot).executePeriodCommand(
+                        graphicsDevice, lastValues[slot]);
             }
+        }
 
-            commandsInExecution.clear();
+        for (final TickCommand tickCommand : tickCommands) {
+            tickCommand.tick(graphicsDevice);
         }
     }
 
-    private void removePeriodCommand(final ICommand command) {
-        synchronized (periodExecutionCommands) {
-            for (final Iterator<CommandLastValue> it = periodExecutionCommands
-                    .iterator(); it.hasNext();) {
-                final CommandLastValue next = it.next();
+    private void swapTable(final CommandTable table) {
+        turnOffAll();
+        dispatchTable = table.dispatchTable;
+        tickCommands = table.tickCommands;
 
-                if (next.command.equals(command)) {
-                    it.remove();
-                    break;
-                }
-            }
-        }
+        logger.info("Commands replaced");
     }
 
-    private void turnOffCommand(final ICommand command) {
-        command.execute(graphicsDevice, 0.0);
-    }
+    @Override
+    public synchronized void controllerRemoved() {
+        turnOffAll();
 
-    private class CommandLastValue {
-        private final double value;
-        private final ICommand command;
+        logger.debug("All commands turned off");
+    }
 
-        public CommandLastValue(final double value, final ICommand command) {
-            this.value = value;
-            this.command = command;
+    private void turnOffAll() {
+        final int size = dispatchTable.size();
+        for (int slot = 0; slot < size; slot++) {
+            final ICommand command = dispatchTable.getCommand(slot);
+            if (inPeriodExecution[slot] || inExecution[slot]) {
+                turnOffCommand(command);
+            }
+            if (command instanceof CancellableCommand) {
+                ((CancellableCommand) command).cancel();
+            }
+            if (inPeriodExecution[slot]) {
+                stats.periodCommandsChanged(-1);
+            }
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hashCode(value, command);
-        }
+        Arrays.fill(inPeriodExecution, false);
+        Arrays.fill(inExecution, false);
+        activeCommands = 0;
+        lastPovSlot = DispatchTable.NO_COMMAND;
+    }
 
-        @Override
-        public boolean equals(final Object obj) {
-            if (obj instanceof CommandLastValue) {
-                final CommandLastValue tmp = (CommandLastValue) obj;
+    @Override
+    public boolean hasActiveCommands() {
+        return activeCommands > 0;
+    }
 
-                return equal(value, tmp.value) && equal(command, tmp.command);
-            } else {
-                return false;
-            }
+    /**
+     * Only period and analog commands follow the current value, any other
+     * command (e.g. a key bound to a trigger) has to see every edge.
+     */
+    @Override
+    public synchronized boolean isCoalescable(final Component component) {
+        final int slot = dispatchTable.commandSlot(component, 0.0);
+        if (slot == DispatchTable.NO_COMMAND) {
+            return true;
         }
+
+        // the lookup may have given the command its slot just now
+        ensureCapacity(slot);
+        final ICommand command = dispatchTable.getCommand(slot);
+        return command.isPeriodCommand() || command instanceof AnalogCommand;
+    }
+
+    private void turnOffCommand(final ICommand command) {
+        command.execute(graphicsDevice, 0.0);
     }
 }
@@ -0,0 +1,12 @@
+package com.xafero.strangectrl.input;
+
+public interface TickPeriod {
+
+    /**
+     * @param now
+     *            current {@link System#nanoTime()}
+     * @return time in nanoseconds between the tick that just finished and the
+     *         next one
+     */
+    long nextPeriodNanos(final long now);
+}
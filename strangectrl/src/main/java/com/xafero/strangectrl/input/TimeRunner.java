@@ -5,45 +5,157 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Runs a task on absolute {@link System#nanoTime()} deadlines, the distance
+ * between deadlines comes from a {@link TickPeriod}. A tick that
+ * finishes late is followed by catch-up ticks, unless the runner fell more
+ * than {@code maxCatchUpTicks} periods behind - then the missed ticks are
+ * dropped and the original phase is kept.
+ */
 public class TimeRunner {
-    private final long period;
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 2;
+
+    // share of the period the waiter may spin, see DeadlineWaiter
+    private static final int SPIN_PERIOD_DIVISOR = 4;
+
+    private final TickPeriod tickPeriod;
+    private final int maxCatchUpTicks;
     private final TimerTask timerTask;
+    private final DeadlineWaiter waiter = new DeadlineWaiter();
     private volatile boolean run = false;
+    private volatile Thread runnerThread;
+
+    // written only by the runner thread
+    private volatile long periodNanos;
+    private volatile long ticks;
+    private volatile long overruns;
+    private volatile long skippedTicks;
+    private volatile long lastJitterNanos;
+    private volatile long maxJitterNanos;
+    private volatile long totalJitterNanos;
 
     public TimeRunner(final long period, final TimerTask timerTask) {
-        checkArgument(period > 0);
-        this.period = period;
+        this(period, TimeUnit.MILLISECONDS, timerTask);
+    }
+
+    public TimeRunner(final long period, final TimeUnit unit,
+            final TimerTask timerTask) {
+        this(period, unit, DEFAULT_MAX_CATCH_UP_TICKS, timerTask);
+    }
+
+    public TimeRunner(final long period, final TimeUnit unit,
+            final int maxCatchUpTicks, final TimerTask timerTask) {
+        this(new FixedTickPeriod(checkNotNull(unit).toNanos(period)),
+                maxCatchUpTicks, timerTask);
+    }
+
+    public TimeRunner(final TickPeriod tickPeriod, final TimerTask timerTask) {
+        this(tickPeriod, DEFAULT_MAX_CATCH_UP_TICKS, timerTask);
+    }
+
+    public TimeRunner(final TickPeriod tickPeriod, final int maxCatchUpTicks,
+            final TimerTask timerTask) {
+        checkArgument(maxCatchUpTicks >= 0);
+        this.tickPeriod = checkNotNull(tickPeriod);
+        this.maxCatchUpTicks = maxCatchUpTicks;
         this.timerTask = checkNotNull(timerTask);
+        this.periodNanos = tickPeriod.nextPeriodNanos(System.nanoTime());
     }
 
     public void start() {
         checkState(!run);
         run = true;
+        runnerThread = Thread.currentThread();
 
+        long deadline = System.nanoTime();
         while (run) {
-            final long startNano = System.currentTimeMillis();
+            final long wokeAt = waiter.awaitDeadline(deadline, periodNanos
+                    / SPIN_PERIOD_DIVISOR);
+            if (!run) {
+
+                // woken up by stop()
+                break;
+            }
+            recordJitter(wokeAt - deadline);
 
             timerTask.run();
+            ticks++;
+
+            final long now = System.nanoTime();
+            final long period = tickPeriod.nextPeriodNanos(now);
+            periodNanos = period;
+
+            deadline += period;
+            final long lag = now - deadline;
+            if (lag > 0) {
+                overruns++;
 
-            final long endNano = System.currentTimeMillis();
-            final long timeGap = endNano - startNano;
+                if (lag > maxCatchUpTicks * period) {
 
-            // waiting
-            final long timeToSleep = period - timeGap;
-            if (timeToSleep >= 0) {
-                try {
-                    Thread.sleep(timeToSleep);
-                } catch (final InterruptedException e) {
-                    // ignore it
+                    // too far behind - drop missed ticks but keep the phase
+                    final long missed = lag / period + 1;
+                    skippedTicks += missed;
+                    deadline += missed * period;
                 }
             }
         }
+
+        runnerThread = null;
+    }
+
+    private void recordJitter(final long jitter) {
+        lastJitterNanos = jitter;
+        totalJitterNanos += jitter;
+        if (jitter > maxJitterNanos) {
+            maxJitterNanos = jitter;
+        }
     }
 
     public void stop() {
         checkState(run);
 
         run = false;
+        waiter.cancel();
+
+        final Thread thread = runnerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public boolean isRunning() {
+        return run;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public long getLastJitterNanos() {
+        return lastJitterNanos;
+    }
+
+    public long getMaxJitterNanos() {
+        return maxJitterNanos;
+    }
+
+    public long getMeanJitterNanos() {
+        final long count = ticks;
+        return count == 0 ? 0 : totalJitterNanos / count;
     }
 }
@@ -0,0 +1,295 @@
+package com.xafero.strangectrl.input;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Hashed timing wheel for short delayed actions (key releases, sequence
+ * steps). Tasks are intrusive {@link Timeout} nodes, so scheduling allocates
+ * nothing and one node can be scheduled again and again.
+ * <p>
+ * The wheel either runs on its own thread ({@link #start()}) or is advanced
+ * by hand with {@link #advanceTo(long)}, which is what tests do. Tasks due in
+ * the same tick run in the order they were scheduled, earlier ticks first.
+ */
+public class TimingWheel {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(TimingWheel.class);
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(1);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Ticker ticker;
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] heads;
+    private final Timeout[] tails;
+    private final long startNanos;
+
+    // guarded by this
+    private long currentTick;
+    private int pending;
+
+    private volatile boolean run;
+    private volatile Thread worker;
+
+    /**
+     * Base class of everything the wheel can run.
+     */
+    public abstract static class Timeout {
+        private Timeout prev;
+        private Timeout next;
+        private long deadlineTick;
+        private TimingWheel wheel;
+
+        public abstract void run();
+
+        public boolean isScheduled() {
+            final TimingWheel scheduledOn = wheel;
+            if (scheduledOn == null) {
+                return false;
+            }
+            synchronized (scheduledOn) {
+                return wheel != null;
+            }
+        }
+    }
+
+    private static final class Holder {
+        private static final TimingWheel SHARED = createShared();
+
+        private static TimingWheel createShared() {
+            final TimingWheel wheel = new TimingWheel();
+            wheel.start();
+            return wheel;
+        }
+    }
+
+    /**
+     * @return wheel started on first use and shared by all commands
+     */
+    public static TimingWheel shared() {
+        return Holder.SHARED;
+    }
+
+    public TimingWheel() {
+        this(Ticker.systemTicker(), DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param wheelSize
+     *            has to be a power of two
+     */
+    public TimingWheel(final Ticker ticker, final long tickNanos,
+            final int wheelSize) {
+        checkArgument(tickNanos > 0);
+        checkArgument(wheelSize > 0 && Integer.bitCount(wheelSize) == 1,
+                "Wheel size has to be a power of two, was %s", wheelSize);
+        this.ticker = checkNotNull(ticker);
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.heads = new Timeout[wheelSize];
+        this.tails = new Timeout[wheelSize];
+        this.startNanos = ticker.read();
+    }
+
+    public void schedule(final Timeout timeout, final long delay,
+            final TimeUnit unit) {
+        checkArgument(delay >= 0);
+
+        final long now = ticker.read();
+        scheduleAt(timeout, now + unit.toNanos(delay), now);
+    }
+
+    /**
+     * Schedules on absolute time, so periodic tasks can keep their phase
+     * instead of drifting by the time their own run took.
+     * 
+     * @param deadline
+     *            time read from the ticker, see {@link #now()}
+     */
+    public void scheduleAt(final Timeout timeout, final long deadline) {
+        scheduleAt(timeout, deadline, ticker.read());
+    }
+
+    public long now() {
+        return ticker.read();
+    }
+
+    private void scheduleAt(final Timeout timeout, final long deadline,
+            final long now) {
+        checkNotNull(timeout);
+
+        final long nowNanos = now - startNanos;
+        final long dueNanos = Math.max(nowNanos, deadline - startNanos);
+        final Thread toWake;
+        synchronized (this) {
+            checkState(timeout.wheel == null, "Timeout is already scheduled");
+            if (pending == 0) {
+
+                // idle wheel, nothing to walk through up to now
+                currentTick = Math.max(currentTick, nowNanos / tickNanos - 1);
+            }
+
+            // round up, a task never runs before it is due
+            final long tick = Math.max(currentTick + 1,
+                    (dueNanos + tickNanos - 1) / tickNanos);
+            append(timeout, tick);
+            toWake = pending == 1 ? worker : null;
+        }
+
+        if (toWake != null) {
+            LockSupport.unpark(toWake);
+        }
+    }
+
+    public synchronized boolean cancel(final Timeout timeout) {
+        if (timeout.wheel != this) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Runs every task due until {@code nanoTime} (read from the ticker) on
+     * the calling thread. Ticks are processed one by one, so a task scheduled
+     * by another task still runs in the same call when it is due by then.
+     */
+    public void advanceTo(final long nanoTime) {
+        final long targetTick = (nanoTime - startNanos) / tickNanos;
+        while (true) {
+            final Timeout expired;
+            synchronized (this) {
+                if (currentTick >= targetTick) {
+                    return;
+                }
+                if (pending == 0) {
+                    currentTick = targetTick;
+                    return;
+                }
+                currentTick++;
+                expired = collectExpired(currentTick);
+            }
+            runAll(expired);
+        }
+    }
+
+    private void runAll(final Timeout expired) {
+        Timeout timeout = expired;
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            timeout.next = null;
+            try {
+                timeout.run();
+            } catch (final RuntimeException e) {
+                logger.error("Timeout failed", e);
+            }
+            timeout = next;
+        }
+    }
+
+    private Timeout collectExpired(final long tick) {
+        Timeout first = null;
+        Timeout last = null;
+        Timeout timeout = heads[(int) tick & mask];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            if (timeout.deadlineTick <= tick) {
+                unlink(timeout);
+                if (last == null) {
+                    first = timeout;
+                } else {
+                    last.next = timeout;
+                }
+                last = timeout;
+            }
+            timeout = next;
+        }
+        return first;
+    }
+
+    private void append(final Timeout timeout, final long tick) {
+        final int bucket = (int) tick & mask;
+        timeout.deadlineTick = tick;
+        timeout.wheel = this;
+        timeout.next = null;
+        timeout.prev = tails[bucket];
+        if (tails[bucket] == null) {
+            heads[bucket] = timeout;
+        } else {
+            tails[bucket].next = timeout;
+        }
+        tails[bucket] = timeout;
+        pending++;
+    }
+
+    private void unlink(final Timeout timeout) {
+        final int bucket = (int) timeout.deadlineTick & mask;
+        if (timeout.prev == null) {
+            heads[bucket] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next == null) {
+            tails[bucket] = timeout.prev;
+        } else {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.wheel = null;
+        pending--;
+    }
+
+    public synchronized int getPending() {
+        return pending;
+    }
+
+    public synchronized void start() {
+        checkState(!run);
+        run = true;
+
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                work();
+            }
+        }, "timing-wheel");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        checkState(run);
+        run = false;
+        LockSupport.unpark(worker);
+        worker = null;
+    }
+
+    private void work() {
+        while (run) {
+            final boolean idle;
+            synchronized (this) {
+                idle = pending == 0;
+            }
+
+            if (idle) {
+
+                // schedule() wakes us up
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, tickNanos);
+            }
+            advanceTo(ticker.read());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.xafero.strangectrl.mbean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.input.CallbackStats;
+import com.xafero.strangectrl.input.InputUtils;
+
+public class CommandEngine implements CommandEngineMXBean {
+    private static final long MIN_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final CallbackStats callbackStats;
+    private final InputUtils inputUtils;
+    private final Ticker ticker;
+
+    // rate between two samples, the monitoring tool drives the sampling
+    private long sampleNanos;
+    private long sampleEvents;
+    private double eventsPerSecond;
+
+    public CommandEngine(final CallbackStats callbackStats,
+            final InputUtils inputUtils) {
+        this(callbackStats, inputUtils, Ticker.systemTicker());
+    }
+
+    CommandEngine(final CallbackStats callbackStats,
+            final InputUtils inputUtils, final Ticker ticker) {
+        this.callbackStats = checkNotNull(callbackStats);
+        this.inputUtils = checkNotNull(inputUtils);
+        this.ticker = checkNotNull(ticker);
+        sampleNanos = ticker.read();
+        sampleEvents = callbackStats.getEventsHandled();
+    }
+
+    @Override
+    public long getEventsHandled() {
+        return callbackStats.getEventsHandled();
+    }
+
+    @Override
+    public synchronized double getEventsPerSecond() {
+        final long now = ticker.read();
+        final long elapsed = now - sampleNanos;
+        if (elapsed >= MIN_SAMPLE_NANOS) {
+            final long events = callbackStats.getEventsHandled();
+            eventsPerSecond = (events - sampleEvents)
+                    * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            sampleNanos = now;
+            sampleEvents = events;
+        }
+        return eventsPerSecond;
+    }
+
+    @Override
+    public int getActivePeriodCommands() {
+        return callbackStats.getActivePeriodCommands();
+    }
+
+    @Override
+    public int getPressedKeys() {
+        return inputUtils.getPressedKeysCount();
+    }
+
+    @Override
+    public int getPressedMouseButtons() {
+        return inputUtils.getPressedMouseButtonsCount();
+    }
+}
@@ -0,0 +1,13 @@
+package com.xafero.strangectrl.mbean;
+
+public interface CommandEngineMXBean {
+    long getEventsHandled();
+
+    double getEventsPerSecond();
+
+    int getActivePeriodCommands();
+
+    int getPressedKeys();
+
+    int getPressedMouseButtons();
+}
@@ -0,0 +1,48 @@
+package com.xafero.strangectrl.mbean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers the monitoring beans under {@value #DOMAIN}. Failures are only
+ * logged - the application works without JMX.
+ */
+public class MBeans {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(MBeans.class);
+    public static final String DOMAIN = "com.xafero.strangectrl";
+
+    private final MBeanServer server;
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    public MBeans(final MBeanServer server) {
+        this.server = checkNotNull(server);
+    }
+
+    public synchronized void register(final String type, final Object bean) {
+        try {
+            final ObjectName name = new ObjectName(DOMAIN + ":type=" + type);
+            server.registerMBean(bean, name);
+            registered.add(name);
+        } catch (final JMException e) {
+            logger.error("Cannot register MBean " + type, e);
+        }
+    }
+
+    public synchronized void unregisterAll() {
+        for (final ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (final JMException e) {
+                logger.warn("Cannot unregister MBean " + name, e);
+            }
+        }
+        registered.clear();
+    }
+}
@@ -0,0 +1,89 @@
+package com.xafero.strangectrl.mbean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.xafero.strangectrl.metrics.LatencyHistogram;
+import com.xafero.strangectrl.output.OutputFrame;
+import com.xafero.strangectrl.output.OutputPipeline;
+
+public class Output implements OutputMXBean {
+    private final OutputPipeline outputPipeline;
+    private final OutputFrame outputFrame;
+
+    public Output(final OutputPipeline outputPipeline,
+            final OutputFrame outputFrame) {
+        this.outputPipeline = checkNotNull(outputPipeline);
+        this.outputFrame = checkNotNull(outputFrame);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return outputPipeline.getQueueDepth();
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return outputPipeline.getMaxQueueDepth();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return outputPipeline.getCapacity();
+    }
+
+    @Override
+    public long getInjectedActions() {
+        return outputPipeline.getInjected();
+    }
+
+    @Override
+    public long getBackpressureWaits() {
+        return outputPipeline.getBackpressureWaits();
+    }
+
+    @Override
+    public long getCollapsedActions() {
+        return outputFrame.getCollapsed();
+    }
+
+    @Override
+    public long getOutputFrames() {
+        return outputFrame.getFlushes();
+    }
+
+    @Override
+    public long getInputLatencyP50Micros() {
+        return percentileMicros(50);
+    }
+
+    @Override
+    public long getInputLatencyP99Micros() {
+        return percentileMicros(99);
+    }
+
+    @Override
+    public long getInputLatencyP999Micros() {
+        return percentileMicros(99.9);
+    }
+
+    @Override
+    public long getInputLatencyMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latency().getMaxNanos());
+    }
+
+    @Override
+    public void resetInputLatency() {
+        latency().reset();
+    }
+
+    private long percentileMicros(final double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(latency().getValueAtPercentile(
+                percentile));
+    }
+
+    private LatencyHistogram latency() {
+        return outputPipeline.getInputLatency();
+    }
+}
@@ -0,0 +1,27 @@
+package com.xafero.strangectrl.mbean;
+
+public interface OutputMXBean {
+    int getQueueDepth();
+
+    int getMaxQueueDepth();
+
+    int getQueueCapacity();
+
+    long getInjectedActions();
+
+    long getBackpressureWaits();
+
+    long getCollapsedActions();
+
+    long getOutputFrames();
+
+    long getInputLatencyP50Micros();
+
+    long getInputLatencyP99Micros();
+
+    long getInputLatencyP999Micros();
+
+    long getInputLatencyMaxMicros();
+
+    void resetInputLatency();
+}
@@ -0,0 +1,86 @@
+package com.xafero.strangectrl.mbean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.xafero.strangectrl.input.ControllerPoller;
+import com.xafero.strangectrl.input.ControllersRefresher;
+import com.xafero.strangectrl.input.TimeRunner;
+
+public class PollLoop implements PollLoopMXBean {
+    private final TimeRunner timeRunner;
+    private final ControllerPoller controllerPoller;
+    private final ControllersRefresher controllersRefresher;
+
+    public PollLoop(final TimeRunner timeRunner,
+            final ControllerPoller controllerPoller,
+            final ControllersRefresher controllersRefresher) {
+        this.timeRunner = checkNotNull(timeRunner);
+        this.controllerPoller = checkNotNull(controllerPoller);
+        this.controllersRefresher = checkNotNull(controllersRefresher);
+    }
+
+    @Override
+    public long getTicks() {
+        return timeRunner.getTicks();
+    }
+
+    @Override
+    public long getOverruns() {
+        return timeRunner.getOverruns();
+    }
+
+    @Override
+    public long getSkippedTicks() {
+        return timeRunner.getSkippedTicks();
+    }
+
+    @Override
+    public long getPeriodMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(timeRunner.getPeriodNanos());
+    }
+
+    @Override
+    public long getMeanJitterMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(timeRunner.getMeanJitterNanos());
+    }
+
+    @Override
+    public long getMaxJitterMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(timeRunner.getMaxJitterNanos());
+    }
+
+    @Override
+    public int getControllers() {
+        return controllerPoller.getControllerCount();
+    }
+
+    @Override
+    public long getCoalescedEvents() {
+        return controllerPoller.getCoalescedEvents();
+    }
+
+    @Override
+    public long getControllerDiscoveries() {
+        return controllersRefresher.getDiscoveries();
+    }
+
+    @Override
+    public long getLastDiscoveryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(controllersRefresher
+                .getLastDiscoveryNanos());
+    }
+
+    @Override
+    public long getMeanDiscoveryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(controllersRefresher
+                .getMeanDiscoveryNanos());
+    }
+
+    @Override
+    public long getMaxDiscoveryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(controllersRefresher
+                .getMaxDiscoveryNanos());
+    }
+}
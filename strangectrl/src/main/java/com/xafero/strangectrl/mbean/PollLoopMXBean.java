@@ -0,0 +1,27 @@
+package com.xafero.strangectrl.mbean;
+
+public interface PollLoopMXBean {
+    long getTicks();
+
+    long getOverruns();
+
+    long getSkippedTicks();
+
+    long getPeriodMicros();
+
+    long getMeanJitterMicros();
+
+    long getMaxJitterMicros();
+
+    int getControllers();
+
+    long getCoalescedEvents();
+
+    long getControllerDiscoveries();
+
+    long getLastDiscoveryMillis();
+
+    long getMeanDiscoveryMillis();
+
+    long getMaxDiscoveryMillis();
+}
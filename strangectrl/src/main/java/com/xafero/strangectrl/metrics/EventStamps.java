@@ -0,0 +1,37 @@
+package com.xafero.strangectrl.metrics;
+
+/**
+ * Remembers, per thread, when the controller event that is being handled
+ * happened (in {@link System#nanoTime()} terms). Output code reads it to
+ * measure the latency from the pad to the injected action.
+ */
+public final class EventStamps {
+    public static final long NO_STAMP = Long.MIN_VALUE;
+
+    private static final ThreadLocal<long[]> STAMP = new ThreadLocal<long[]>() {
+
+        @Override
+        protected long[] initialValue() {
+            return new long[] { NO_STAMP };
+        }
+    };
+
+    private EventStamps() {
+        // utility class
+    }
+
+    public static void begin(final long eventNanos) {
+        STAMP.get()[0] = eventNanos;
+    }
+
+    public static void end() {
+        STAMP.get()[0] = NO_STAMP;
+    }
+
+    /**
+     * @return stamp of the event handled by this thread or {@link #NO_STAMP}
+     */
+    public static long current() {
+        return STAMP.get()[0];
+    }
+}
@@ -0,0 +1,140 @@
+package com.xafero.strangectrl.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory log-linear histogram of nanosecond latencies. Every power of
+ * two is split into {@value #HALF_SUB_BUCKETS} linear buckets, so a reported
+ * value is at most ~3% above the recorded one. Values above
+ * {@link #MAX_TRACKABLE_NANOS} are counted in the last bucket.
+ * <p>
+ * Recording is lock free and does not allocate, so it can be called from the
+ * polling and injector threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int MAX_VALUE_BITS = 40;
+    public static final long MAX_TRACKABLE_NANOS = (1L << MAX_VALUE_BITS) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(
+            indexOf(MAX_TRACKABLE_NANOS) + 1);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(final long nanos) {
+        final long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = msb - SUB_BUCKET_BITS + 1;
+        final int subBucket = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS
+                + (subBucket - HALF_SUB_BUCKETS);
+    }
+
+    /**
+     * @return the highest value that falls into the bucket
+     */
+    static long highestValueAt(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int offset = index - SUB_BUCKETS;
+        final int shift = offset / HALF_SUB_BUCKETS + 1;
+        final long subBucket = offset % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @param percentile
+     *            from 0 to 100
+     */
+    public long getValueAtPercentile(final double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100);
+
+        final long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1,
+                (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxNanos.set(0);
+    }
+
+    public String summary() {
+        return String.format("count %s, p50 %s us, p99 %s us, p99.9 %s us, "
+                + "max %s us", getCount(), micros(getValueAtPercentile(50)),
+                micros(getValueAtPercentile(99)),
+                micros(getValueAtPercentile(99.9)), micros(getMaxNanos()));
+    }
+
+    /**
+     * Writes the summary and every non empty bucket (upper bound in
+     * microseconds and count).
+     */
+    public void writeReport(final Writer writer) throws IOException {
+        writer.write(summary());
+        writer.write(System.lineSeparator());
+        writer.write("upper_bound_us\tcount");
+        writer.write(System.lineSeparator());
+
+        for (int i = 0; i < counts.length(); i++) {
+            final long count = counts.get(i);
+            if (count > 0) {
+                writer.write(micros(highestValueAt(i)) + "\t" + count);
+                writer.write(System.lineSeparator());
+            }
+        }
+        writer.flush();
+    }
+
+    private static String micros(final long nanos) {
+        return String.format("%.1f", nanos / (double) TimeUnit.MICROSECONDS
+                .toNanos(1));
+    }
+}
@@ -0,0 +1,109 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded single-producer/single-consumer queue of primitive action records
+ * (operation, two arguments and enqueue time). Records live in preallocated
+ * parallel arrays, so neither side allocates.
+ * <p>
+ * Only one thread may call {@link #offer(int, int, int, long)} and only one
+ * (other) thread may call {@link #drain(ActionHandler, int)}.
+ */
+public class ActionRing {
+    private final int mask;
+    private final int[] ops;
+    private final int[] firstArgs;
+    private final int[] secondArgs;
+    private final long[] stamps;
+
+    // next slot to read, written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+
+    // next slot to write, written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    // producer's cached view of head, saves reading the consumer's line
+    private long headCache;
+
+    public interface ActionHandler {
+        void onAction(int op, int firstArg, int secondArg, long stamp);
+    }
+
+    /**
+     * @param capacity
+     *            has to be a power of two
+     */
+    public ActionRing(final int capacity) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1,
+                "Capacity has to be a power of two, was %s", capacity);
+        mask = capacity - 1;
+        ops = new int[capacity];
+        firstArgs = new int[capacity];
+        secondArgs = new int[capacity];
+        stamps = new long[capacity];
+    }
+
+    /**
+     * @return false when the ring is full, nothing is written then
+     */
+    public boolean offer(final int op, final int firstArg,
+            final int secondArg, final long stamp) {
+        final long t = tail.get();
+        if (t - headCache > mask) {
+            headCache = head.get();
+            if (t - headCache > mask) {
+                return false;
+            }
+        }
+
+        final int slot = (int) t & mask;
+        ops[slot] = op;
+        firstArgs[slot] = firstArg;
+        secondArgs[slot] = secondArg;
+        stamps[slot] = stamp;
+
+        // publishes the slot to the consumer; a full volatile write, so a
+        // parked consumer's flag read by the producer afterwards is not
+        // reordered before it
+        tail.set(t + 1);
+        return true;
+    }
+
+    /**
+     * @return number of handled records
+     */
+    public int drain(final ActionHandler handler, final int max) {
+        checkNotNull(handler);
+        final long h = head.get();
+        final long available = tail.get() - h;
+        final int count = (int) Math.min(available, max);
+
+        for (int i = 0; i < count; i++) {
+            final int slot = (int) (h + i) & mask;
+            handler.onAction(ops[slot], firstArgs[slot], secondArgs[slot],
+                    stamps[slot]);
+
+            // free the slot right away, so the producer is not held back by
+            // a slow handler
+            head.lazySet(h + i + 1);
+        }
+        return count;
+    }
+
+    public int size() {
+        final long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,87 @@
+package com.xafero.strangectrl.output;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * {@link KeyEvent} codes translated to the key codes of
+ * {@code linux/input-event-codes.h}.
+ */
+final class LinuxKeyCodes {
+    private static final String LETTERS = "QWERTYUIOPASDFGHJKLZXCVBNM";
+    private static final int[] LETTER_CODES = { 16, 17, 18, 19, 20, 21, 22,
+            23, 24, 25, 30, 31, 32, 33, 34, 35, 36, 37, 38, 44, 45, 46, 47, 48,
+            49, 50 };
+    private static final int[] NUMPAD_CODES = { 82, 79, 80, 81, 75, 76, 77, 71,
+            72, 73 };
+
+    private LinuxKeyCodes() {
+        // utility class
+    }
+
+    /**
+     * @return table indexed by {@link KeyEvent} code, 0 for keys without a
+     *         linux code
+     */
+    static int[] build() {
+        final int[] codes = new int[KeyEvent.VK_CONTEXT_MENU + 1];
+
+        for (int i = 0; i < LETTERS.length(); i++) {
+            codes[LETTERS.charAt(i)] = LETTER_CODES[i];
+        }
+        for (int digit = 1; digit <= 9; digit++) {
+            codes[KeyEvent.VK_0 + digit] = 1 + digit;
+        }
+        codes[KeyEvent.VK_0] = 11;
+        for (int digit = 0; digit <= 9; digit++) {
+            codes[KeyEvent.VK_NUMPAD0 + digit] = NUMPAD_CODES[digit];
+        }
+        for (int f = 0; f < 10; f++) {
+            codes[KeyEvent.VK_F1 + f] = 59 + f;
+        }
+        codes[KeyEvent.VK_F11] = 87;
+        codes[KeyEvent.VK_F12] = 88;
+
+        codes[KeyEvent.VK_ESCAPE] = 1;
+        codes[KeyEvent.VK_MINUS] = 12;
+        codes[KeyEvent.VK_EQUALS] = 13;
+        codes[KeyEvent.VK_BACK_SPACE] = 14;
+        codes[KeyEvent.VK_TAB] = 15;
+        codes[KeyEvent.VK_OPEN_BRACKET] = 26;
+        codes[KeyEvent.VK_CLOSE_BRACKET] = 27;
+        codes[KeyEvent.VK_ENTER] = 28;
+        codes[KeyEvent.VK_CONTROL] = 29;
+        codes[KeyEvent.VK_SEMICOLON] = 39;
+        codes[KeyEvent.VK_QUOTE] = 40;
+        codes[KeyEvent.VK_BACK_QUOTE] = 41;
+        codes[KeyEvent.VK_SHIFT] = 42;
+        codes[KeyEvent.VK_BACK_SLASH] = 43;
+        codes[KeyEvent.VK_COMMA] = 51;
+        codes[KeyEvent.VK_PERIOD] = 52;
+        codes[KeyEvent.VK_SLASH] = 53;
+        codes[KeyEvent.VK_MULTIPLY] = 55;
+        codes[KeyEvent.VK_ALT] = 56;
+        codes[KeyEvent.VK_SPACE] = 57;
+        codes[KeyEvent.VK_CAPS_LOCK] = 58;
+        codes[KeyEvent.VK_NUM_LOCK] = 69;
+        codes[KeyEvent.VK_SCROLL_LOCK] = 70;
+        codes[KeyEvent.VK_SUBTRACT] = 74;
+        codes[KeyEvent.VK_ADD] = 78;
+        codes[KeyEvent.VK_DECIMAL] = 83;
+        codes[KeyEvent.VK_DIVIDE] = 98;
+        codes[KeyEvent.VK_PRINTSCREEN] = 99;
+        codes[KeyEvent.VK_HOME] = 102;
+        codes[KeyEvent.VK_UP] = 103;
+        codes[KeyEvent.VK_PAGE_UP] = 104;
+        codes[KeyEvent.VK_LEFT] = 105;
+        codes[KeyEvent.VK_RIGHT] = 106;
+        codes[KeyEvent.VK_END] = 107;
+        codes[KeyEvent.VK_DOWN] = 108;
+        codes[KeyEvent.VK_PAGE_DOWN] = 109;
+        codes[KeyEvent.VK_INSERT] = 110;
+        codes[KeyEvent.VK_DELETE] = 111;
+        codes[KeyEvent.VK_PAUSE] = 119;
+        codes[KeyEvent.VK_WINDOWS] = 125;
+        codes[KeyEvent.VK_CONTEXT_MENU] = 127;
+        return codes;
+    }
+}
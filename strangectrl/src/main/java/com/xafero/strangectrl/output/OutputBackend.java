@@ -0,0 +1,35 @@
+package com.xafero.strangectrl.output;
+
+/**
+ * Device that injects the actions - the robot in production, a
+ * {@link RecordingBackend} in benchmarks and tests. Arguments are the same as
+ * the ones of {@link java.awt.Robot}: {@link java.awt.event.KeyEvent} codes,
+ * {@link java.awt.event.InputEvent} button masks and screen coordinates.
+ */
+public interface OutputBackend {
+    void keyPress(int keyCode);
+
+    void keyRelease(int keyCode);
+
+    void mousePress(int buttons);
+
+    void mouseRelease(int buttons);
+
+    /**
+     * Moves the cursor to the absolute screen position.
+     */
+    void mouseMove(int x, int y);
+
+    /**
+     * Moves the cursor relative to where it is now.
+     */
+    void mouseMoveBy(int dx, int dy);
+
+    /**
+     * @return true if {@link #mouseMoveBy(int, int)} moves the cursor without
+     *         reading where it is first
+     */
+    boolean supportsRelativeMotion();
+
+    void mouseWheel(int wheelAmount);
+}
@@ -0,0 +1,195 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Gathers the actions of one tick and passes them on in one batch. Between
+ * {@link #begin()} and the matching {@link #end()} actions are only written
+ * into preallocated arrays and redundant ones collapse:
+ * <ul>
+ * <li>a press of a key or mouse button that the frame already pressed (and
+ * did not release) is dropped, the same for a repeated release; a press
+ * followed by a release stays as it is</li>
+ * <li>absolute moves replace the previous move of the frame, relative moves
+ * are summed - unless a mouse button or wheel action came after it, because
+ * those happen at the pointer position</li>
+ * <li>wheel actions right after each other are summed</li>
+ * </ul>
+ * Frames nest (several controller lanes may be in a tick at once), the
+ * actions are passed on when the outermost frame ends. Outside of a frame
+ * actions go through right away.
+ */
+public class OutputFrame implements OutputBackend {
+    public static final int DEFAULT_CAPACITY = 64;
+    private static final int NONE = -1;
+
+    private final OutputBackend backend;
+    private final int[] ops;
+    private final int[] firstArgs;
+    private final int[] secondArgs;
+
+    // guarded by this
+    private int size;
+    private int depth;
+    private int lastMove = NONE;
+    private int lastMoveBy = NONE;
+    private int lastPointerAction = NONE;
+
+    // written under this, read by the mbean
+    private volatile long collapsed;
+    private volatile long flushes;
+
+    public OutputFrame(final OutputBackend backend) {
+        this(backend, DEFAULT_CAPACITY);
+    }
+
+    public OutputFrame(final OutputBackend backend, final int capacity) {
+        checkArgument(capacity > 0, "Capacity has to be positive, was %s",
+                capacity);
+        this.backend = checkNotNull(backend);
+        ops = new int[capacity];
+        firstArgs = new int[capacity];
+        secondArgs = new int[capacity];
+    }
+
+    public synchronized void begin() {
+        depth++;
+    }
+
+    public synchronized void end() {
+        checkState(depth > 0, "There is no frame to end");
+        if (--depth == 0) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void keyPress(final int keyCode) {
+        toggle(OutputPipeline.KEY_PRESS, OutputPipeline.KEY_RELEASE, keyCode);
+    }
+
+    @Override
+    public synchronized void keyRelease(final int keyCode) {
+        toggle(OutputPipeline.KEY_RELEASE, OutputPipeline.KEY_PRESS, keyCode);
+    }
+
+    @Override
+    public synchronized void mousePress(final int buttons) {
+        toggle(OutputPipeline.MOUSE_PRESS, OutputPipeline.MOUSE_RELEASE,
+                buttons);
+        lastPointerAction = size - 1;
+    }
+
+    @Override
+    public synchronized void mouseRelease(final int buttons) {
+        toggle(OutputPipeline.MOUSE_RELEASE, OutputPipeline.MOUSE_PRESS,
+                buttons);
+        lastPointerAction = size - 1;
+    }
+
+    @Override
+    public synchronized void mouseMove(final int x, final int y) {
+        if (depth > 0 && lastMove > lastPointerAction
+                && lastMove > lastMoveBy) {
+            firstArgs[lastMove] = x;
+            secondArgs[lastMove] = y;
+            collapsed++;
+        } else {
+            add(OutputPipeline.MOUSE_MOVE, x, y);
+            lastMove = size - 1;
+        }
+    }
+
+    @Override
+    public synchronized void mouseMoveBy(final int dx, final int dy) {
+        if (depth > 0 && lastMoveBy > lastPointerAction
+                && lastMoveBy > lastMove) {
+            firstArgs[lastMoveBy] += dx;
+            secondArgs[lastMoveBy] += dy;
+            collapsed++;
+        } else {
+            add(OutputPipeline.MOUSE_MOVE_BY, dx, dy);
+            lastMoveBy = size - 1;
+        }
+    }
+
+    @Override
+    public boolean supportsRelativeMotion() {
+        return backend.supportsRelativeMotion();
+    }
+
+    @Override
+    public synchronized void mouseWheel(final int wheelAmount) {
+        if (depth > 0 && size > 0
+                && ops[size - 1] == OutputPipeline.MOUSE_WHEEL) {
+            firstArgs[size - 1] += wheelAmount;
+            collapsed++;
+        } else {
+            add(OutputPipeline.MOUSE_WHEEL, wheelAmount, 0);
+            lastPointerAction = size - 1;
+        }
+    }
+
+    /**
+     * Adds the action unless the frame already did the same to this key or
+     * button.
+     */
+    private void toggle(final int op, final int oppositeOp, final int arg) {
+        if (depth > 0) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (firstArgs[i] == arg
+                        && (ops[i] == op || ops[i] == oppositeOp)) {
+                    if (ops[i] == op) {
+                        collapsed++;
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+        add(op, arg, 0);
+    }
+
+    private void add(final int op, final int firstArg, final int secondArg) {
+        if (depth == 0) {
+            OutputPipeline.apply(backend, op, firstArg, secondArg);
+            return;
+        }
+
+        if (size == ops.length) {
+
+            // too busy tick - pass on what is there and start over
+            flush();
+        }
+        ops[size] = op;
+        firstArgs[size] = firstArg;
+        secondArgs[size] = secondArg;
+        size++;
+    }
+
+    private void flush() {
+        for (int i = 0; i < size; i++) {
+            OutputPipeline.apply(backend, ops[i], firstArgs[i], secondArgs[i]);
+        }
+        if (size > 0) {
+            flushes++;
+        }
+        size = 0;
+        lastMove = NONE;
+        lastMoveBy = NONE;
+        lastPointerAction = NONE;
+    }
+
+    /**
+     * @return actions that were dropped or merged into another one
+     */
+    public long getCollapsed() {
+        return collapsed;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+}
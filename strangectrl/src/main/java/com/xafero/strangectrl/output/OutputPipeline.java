@@ -0,0 +1,329 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.awt.Robot;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.xafero.strangectrl.metrics.EventStamps;
+import com.xafero.strangectrl.metrics.LatencyHistogram;
+import com.xafero.strangectrl.output.ActionRing.ActionHandler;
+
+/**
+ * Moves {@link OutputBackend} calls off the polling threads. Producers enqueue
+ * primitive action records into an {@link ActionRing} and a dedicated
+ * injector thread replays them on the backend in the same order. The pipeline
+ * is a backend itself, wrapping the one that really injects the actions.
+ * <p>
+ * The ring has a single producer side, so all producers have to be
+ * serialized by the caller (InputUtils does that). When the ring is full the
+ * producer waits for the injector - actions are never dropped, otherwise a
+ * lost key release would leave the key pressed. For the same reason
+ * {@link #stop()} waits for a producer that still saw the pipeline running,
+ * and producers that see it stopped inject only after the ring was replayed.
+ * <p>
+ * Actions caused by a controller event carry the event's stamp (see
+ * {@link EventStamps}); the time from the event to the backend call is recorded
+ * in the input latency histogram.
+ */
+public class OutputPipeline implements OutputBackend, ActionHandler {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(OutputPipeline.class);
+    public static final int DEFAULT_CAPACITY = 1024;
+    static final int KEY_PRESS = 1;
+    static final int KEY_RELEASE = 2;
+    static final int MOUSE_MOVE = 3;
+    static final int MOUSE_PRESS = 4;
+    static final int MOUSE_RELEASE = 5;
+    static final int MOUSE_WHEEL = 6;
+    static final int MOUSE_MOVE_BY = 7;
+
+    // set on actions caused by a controller event, see EventStamps
+    private static final int FROM_EVENT = 0x100;
+    private static final int OP_MASK = 0xff;
+    private static final int DRAIN_BATCH = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(10);
+
+    private final OutputBackend backend;
+    private final ActionRing ring;
+    private final LatencyHistogram inputLatency;
+    private volatile boolean run;
+    private volatile boolean producing;
+    private volatile boolean injectorParked;
+    private volatile Thread injector;
+
+    // written only by the producer side
+    private volatile long enqueued;
+    private volatile long backpressureWaits;
+    private volatile int maxQueueDepth;
+
+    // written only by the injector thread
+    private volatile long injected;
+    private volatile long maxQueueLatencyNanos;
+
+    public OutputPipeline(final Robot robot) {
+        this(new RobotBackend(robot));
+    }
+
+    public OutputPipeline(final Robot robot, final int capacity) {
+        this(new RobotBackend(robot), capacity);
+    }
+
+    public OutputPipeline(final OutputBackend backend) {
+        this(backend, DEFAULT_CAPACITY, new LatencyHistogram());
+    }
+
+    public OutputPipeline(final OutputBackend backend, final int capacity) {
+        this(backend, capacity, new LatencyHistogram());
+    }
+
+    public OutputPipeline(final OutputBackend backend, final int capacity,
+            final LatencyHistogram inputLatency) {
+        this.backend = checkNotNull(backend);
+        this.ring = new ActionRing(capacity);
+        this.inputLatency = checkNotNull(inputLatency);
+    }
+
+    public synchronized void start() {
+        checkState(!run);
+        run = true;
+
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                inject();
+            }
+        }, "output-injector");
+        thread.setDaemon(true);
+        injector = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the injector after everything already enqueued was replayed.
+     */
+    public synchronized void stop() throws InterruptedException {
+        checkState(run);
+        run = false;
+
+        final Thread thread = injector;
+        LockSupport.unpark(thread);
+        thread.join();
+        injector = null;
+
+        // a producer that still saw the pipeline running, see submit
+        while (producing) {
+            Thread.yield();
+        }
+        while (!ring.isEmpty()) {
+            ring.drain(this, DRAIN_BATCH);
+        }
+    }
+
+    public boolean isRunning() {
+        return run;
+    }
+
+    @Override
+    public void keyPress(final int keyCode) {
+        submit(KEY_PRESS, keyCode, 0);
+    }
+
+    @Override
+    public void keyRelease(final int keyCode) {
+        submit(KEY_RELEASE, keyCode, 0);
+    }
+
+    @Override
+    public void mouseMove(final int x, final int y) {
+        submit(MOUSE_MOVE, x, y);
+    }
+
+    @Override
+    public void mouseMoveBy(final int dx, final int dy) {
+        submit(MOUSE_MOVE_BY, dx, dy);
+    }
+
+    @Override
+    public boolean supportsRelativeMotion() {
+        return backend.supportsRelativeMotion();
+    }
+
+    @Override
+    public void mousePress(final int buttons) {
+        submit(MOUSE_PRESS, buttons, 0);
+    }
+
+    @Override
+    public void mouseRelease(final int buttons) {
+        submit(MOUSE_RELEASE, buttons, 0);
+    }
+
+    @Override
+    public void mouseWheel(final int wheelAmount) {
+        submit(MOUSE_WHEEL, wheelAmount, 0);
+    }
+
+    private void submit(final int action, final int firstArg,
+            final int secondArg) {
+        final long eventStamp = EventStamps.current();
+        final int op;
+        final long stamp;
+        if (eventStamp != EventStamps.NO_STAMP) {
+            op = action | FROM_EVENT;
+            stamp = eventStamp;
+        } else {
+            op = action;
+            stamp = System.nanoTime();
+        }
+
+        // written before run is read, stop() writes run before it reads this
+        producing = true;
+        if (!run) {
+            producing = false;
+
+            // nobody would replay it - wait for stop() to replay the ring
+            synchronized (this) {
+                onAction(op, firstArg, secondArg, stamp);
+            }
+            return;
+        }
+
+        try {
+            enqueue(op, firstArg, secondArg, stamp);
+        } finally {
+            producing = false;
+        }
+    }
+
+    private void enqueue(final int op, final int firstArg,
+            final int secondArg, final long stamp) {
+        if (!ring.offer(op, firstArg, secondArg, stamp)) {
+            backpressureWaits++;
+            do {
+                LockSupport.unpark(injector);
+                Thread.yield();
+            } while (!ring.offer(op, firstArg, secondArg, stamp));
+        }
+        enqueued++;
+
+        final int depth = ring.size();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+        if (injectorParked) {
+            LockSupport.unpark(injector);
+        }
+    }
+
+    private void inject() {
+        while (run || !ring.isEmpty()) {
+            if (ring.drain(this, DRAIN_BATCH) == 0) {
+                injectorParked = true;
+
+                // re-check, the producer could have missed the flag
+                if (ring.isEmpty() && run) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                injectorParked = false;
+            }
+        }
+        logger.debug("Output injector stopped");
+    }
+
+    @Override
+    public void onAction(final int op, final int firstArg,
+            final int secondArg, final long stamp) {
+        try {
+            apply(backend, op & OP_MASK, firstArg, secondArg);
+        } catch (final RuntimeException e) {
+
+            // one bad action must not kill the injector
+            logger.error("Cannot inject action " + op, e);
+        }
+
+        final long latency = System.nanoTime() - stamp;
+        if ((op & FROM_EVENT) != 0) {
+            inputLatency.record(latency);
+        } else if (latency > maxQueueLatencyNanos) {
+            maxQueueLatencyNanos = latency;
+        }
+        injected++;
+    }
+
+    static void apply(final OutputBackend backend, final int op,
+            final int firstArg, final int secondArg) {
+        switch (op) {
+        case KEY_PRESS:
+            backend.keyPress(firstArg);
+            break;
+        case KEY_RELEASE:
+            backend.keyRelease(firstArg);
+            break;
+        case MOUSE_MOVE:
+            backend.mouseMove(firstArg, secondArg);
+            break;
+        case MOUSE_PRESS:
+            backend.mousePress(firstArg);
+            break;
+        case MOUSE_RELEASE:
+            backend.mouseRelease(firstArg);
+            break;
+        case MOUSE_WHEEL:
+            backend.mouseWheel(firstArg);
+            break;
+        case MOUSE_MOVE_BY:
+            backend.mouseMoveBy(firstArg, secondArg);
+            break;
+        default:
+            throw new IllegalStateException("Unknown action " + op);
+        }
+    }
+
+    public OutputBackend getBackend() {
+        return backend;
+    }
+
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public int getCapacity() {
+        return ring.capacity();
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getInjected() {
+        return injected;
+    }
+
+    public long getBackpressureWaits() {
+        return backpressureWaits;
+    }
+
+    /**
+     * Latency from controller events to injected actions.
+     */
+    public LatencyHistogram getInputLatency() {
+        return inputLatency;
+    }
+
+    /**
+     * @return max time an action not caused by an event (period commands)
+     *         spent in the queue
+     */
+    public long getMaxQueueLatencyNanos() {
+        return maxQueueLatencyNanos;
+    }
+}
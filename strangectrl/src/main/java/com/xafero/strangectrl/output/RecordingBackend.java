@@ -0,0 +1,174 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes actions into a preallocated buffer instead of injecting them, for
+ * benchmarks without a display and for checking the exact output of a run.
+ * Records are primitive (operation, two arguments, {@link System#nanoTime()})
+ * and nothing is allocated while recording.
+ * <p>
+ * Recording is lock free and any number of threads may record at once: a
+ * writer claims a slot with one atomic increment and publishes it by writing
+ * its operation last. When the buffer is full further actions are only
+ * counted as dropped.
+ */
+public class RecordingBackend implements OutputBackend {
+    public static final int KEY_PRESS = OutputPipeline.KEY_PRESS;
+    public static final int KEY_RELEASE = OutputPipeline.KEY_RELEASE;
+    public static final int MOUSE_MOVE = OutputPipeline.MOUSE_MOVE;
+    public static final int MOUSE_PRESS = OutputPipeline.MOUSE_PRESS;
+    public static final int MOUSE_RELEASE = OutputPipeline.MOUSE_RELEASE;
+    public static final int MOUSE_WHEEL = OutputPipeline.MOUSE_WHEEL;
+    public static final int MOUSE_MOVE_BY = OutputPipeline.MOUSE_MOVE_BY;
+
+    // op of a slot that was claimed but is not written yet
+    private static final int NOT_PUBLISHED = 0;
+
+    private final AtomicIntegerArray ops;
+    private final int[] firstArgs;
+    private final int[] secondArgs;
+    private final long[] stamps;
+    private final AtomicInteger claimed = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public RecordingBackend(final int capacity) {
+        checkArgument(capacity > 0, "Capacity has to be positive, was %s",
+                capacity);
+        ops = new AtomicIntegerArray(capacity);
+        firstArgs = new int[capacity];
+        secondArgs = new int[capacity];
+        stamps = new long[capacity];
+    }
+
+    @Override
+    public void keyPress(final int keyCode) {
+        record(KEY_PRESS, keyCode, 0);
+    }
+
+    @Override
+    public void keyRelease(final int keyCode) {
+        record(KEY_RELEASE, keyCode, 0);
+    }
+
+    @Override
+    public void mousePress(final int buttons) {
+        record(MOUSE_PRESS, buttons, 0);
+    }
+
+    @Override
+    public void mouseRelease(final int buttons) {
+        record(MOUSE_RELEASE, buttons, 0);
+    }
+
+    @Override
+    public void mouseMove(final int x, final int y) {
+        record(MOUSE_MOVE, x, y);
+    }
+
+    @Override
+    public void mouseMoveBy(final int dx, final int dy) {
+        record(MOUSE_MOVE_BY, dx, dy);
+    }
+
+    @Override
+    public boolean supportsRelativeMotion() {
+        return false;
+    }
+
+    @Override
+    public void mouseWheel(final int wheelAmount) {
+        record(MOUSE_WHEEL, wheelAmount, 0);
+    }
+
+    private void record(final int op, final int firstArg, final int secondArg) {
+        final int slot = claimed.getAndIncrement();
+        if (slot >= firstArgs.length || slot < 0) {
+
+            // keeps the counter from wrapping around into the buffer again
+            claimed.set(firstArgs.length);
+            dropped.incrementAndGet();
+            return;
+        }
+
+        firstArgs[slot] = firstArg;
+        secondArgs[slot] = secondArg;
+        stamps[slot] = System.nanoTime();
+        ops.lazySet(slot, op);
+    }
+
+    /**
+     * @return number of records, some of the last ones may be still being
+     *         written by other threads - their op is 0 then
+     */
+    public int size() {
+        return Math.min(claimed.get(), firstArgs.length);
+    }
+
+    public int capacity() {
+        return firstArgs.length;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getOp(final int index) {
+        checkElementIndex(index, size());
+        return ops.get(index);
+    }
+
+    public int getFirstArg(final int index) {
+        checkElementIndex(index, size());
+        ops.get(index);
+        return firstArgs[index];
+    }
+
+    public int getSecondArg(final int index) {
+        checkElementIndex(index, size());
+        ops.get(index);
+        return secondArgs[index];
+    }
+
+    public long getStamp(final int index) {
+        checkElementIndex(index, size());
+        ops.get(index);
+        return stamps[index];
+    }
+
+    /**
+     * Sends the published records to {@code backend} in recorded order.
+     * 
+     * @return number of replayed records
+     */
+    public int replayTo(final OutputBackend backend) {
+        checkNotNull(backend);
+        final int size = size();
+        for (int i = 0; i < size; i++) {
+            final int op = ops.get(i);
+            if (op == NOT_PUBLISHED) {
+                return i;
+            }
+            OutputPipeline.apply(backend, op, firstArgs[i], secondArgs[i]);
+        }
+        return size;
+    }
+
+    /**
+     * Empties the buffer. Must not be called while other threads record.
+     */
+    public void clear() {
+        final int size = size();
+        for (int i = 0; i < size; i++) {
+            ops.set(i, NOT_PUBLISHED);
+        }
+        dropped.set(0);
+        claimed.set(0);
+    }
+}
@@ -0,0 +1,169 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+import java.awt.MouseInfo;
+import java.awt.Point;
+import java.awt.PointerInfo;
+import java.awt.Rectangle;
+import java.awt.Robot;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.google.common.base.Function;
+import com.xafero.strangectrl.awt.ScreenTopology;
+
+/**
+ * Injects actions with {@link Robot}. With a {@link ScreenTopology} there is
+ * a robot per screen: absolute moves go to the robot of the screen that
+ * contains the target point, so the cursor can be driven on every monitor.
+ * Robots are created on the first move to their screen and dropped when the
+ * screens change. Like the other backends it is called from the injector
+ * thread only, a change of the screens is taken over on the next move.
+ */
+public class RobotBackend implements OutputBackend, ScreenTopology.Listener {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(RobotBackend.class);
+
+    private final ScreenTopology screenTopology;
+    private final Function<GraphicsDevice, Robot> robotFactory;
+    private final Map<GraphicsDevice, Robot> robots = new IdentityHashMap<>();
+    private GraphicsDevice device;
+    private Robot robot;
+
+    // set by the topology thread
+    private volatile boolean screensChanged;
+
+    public RobotBackend(final Robot robot) {
+        this.robot = checkNotNull(robot);
+        this.screenTopology = null;
+        this.robotFactory = null;
+    }
+
+    /**
+     * @param robot
+     *            robot of {@code device}, used until the cursor goes to
+     *            another screen
+     */
+    public RobotBackend(final Robot robot, final GraphicsDevice device,
+            final ScreenTopology screenTopology,
+            final Function<GraphicsDevice, Robot> robotFactory) {
+        this.robot = checkNotNull(robot);
+        this.device = checkNotNull(device);
+        this.screenTopology = checkNotNull(screenTopology);
+        this.robotFactory = checkNotNull(robotFactory);
+        robots.put(device, robot);
+    }
+
+    @Override
+    public void keyPress(final int keyCode) {
+        robot.keyPress(keyCode);
+    }
+
+    @Override
+    public void keyRelease(final int keyCode) {
+        robot.keyRelease(keyCode);
+    }
+
+    @Override
+    public void mousePress(final int buttons) {
+        robot.mousePress(buttons);
+    }
+
+    @Override
+    public void mouseRelease(final int buttons) {
+        robot.mouseRelease(buttons);
+    }
+
+    @Override
+    public void mouseMove(final int x, final int y) {
+        selectScreen(x, y);
+        robot.mouseMove(x, y);
+    }
+
+    @Override
+    public void mouseMoveBy(final int dx, final int dy) {
+        final PointerInfo pointerInfo = MouseInfo.getPointerInfo();
+        if (pointerInfo == null) {
+            return;
+        }
+
+        // robot knows only absolute moves - the location is in coordinates
+        // of the pointer's screen, so move with the robot of that screen
+        final Point location = pointerInfo.getLocation();
+        if (screenTopology != null) {
+            dropRobotsIfScreensChanged();
+            selectDevice(pointerInfo.getDevice());
+        }
+        robot.mouseMove(location.x + dx, location.y + dy);
+    }
+
+    @Override
+    public boolean supportsRelativeMotion() {
+        return false;
+    }
+
+    @Override
+    public void mouseWheel(final int wheelAmount) {
+        robot.mouseWheel(wheelAmount);
+    }
+
+    @Override
+    public void screensChanged(final ScreenTopology topology) {
+        screensChanged = true;
+    }
+
+    private void selectScreen(final int x, final int y) {
+        if (screenTopology == null) {
+            return;
+        }
+        dropRobotsIfScreensChanged();
+
+        // screens of separate X displays share coordinates - stay if we can
+        final Rectangle bounds = screenTopology.getBounds(device);
+        if (bounds != null && bounds.contains(x, y)) {
+            return;
+        }
+        final GraphicsDevice target = screenTopology.getDeviceAt(x, y);
+        if (target != null) {
+            selectDevice(target);
+        }
+    }
+
+    private void dropRobotsIfScreensChanged() {
+        if (!screensChanged) {
+            return;
+        }
+        screensChanged = false;
+
+        // the current robot keeps typing until the next move picks a screen
+        robots.clear();
+        device = null;
+        logger.info("Screens changed, robots are created again");
+    }
+
+    private void selectDevice(final GraphicsDevice target) {
+        if (target == device) {
+            return;
+        }
+
+        Robot targetRobot = robots.get(target);
+        if (targetRobot == null) {
+            try {
+                targetRobot = robotFactory.apply(target);
+            } catch (final RuntimeException e) {
+                logger.error("Cannot create robot for screen "
+                        + target.getIDstring() + ", using the current one", e);
+                targetRobot = robot;
+            }
+            robots.put(target, targetRobot);
+        }
+        device = target;
+        robot = targetRobot;
+    }
+
+    public Robot getRobot() {
+        return robot;
+    }
+}
@@ -0,0 +1,294 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.primitives.Ints;
+import com.xafero.strangectrl.awt.ScreenTopology;
+
+/**
+ * Writes Linux {@code input_event} records to a virtual keyboard and mouse,
+ * so nothing goes through XTest and the AWT toolkit thread. Unlike the robot
+ * it moves the mouse relatively and scrolls in high resolution (120 units per
+ * notch).
+ * <p>
+ * {@link #create(Path, Rectangle)} makes the device through
+ * {@code /dev/uinput}, see {@link UinputDevice}: keys, buttons,
+ * {@code REL_X/Y}, {@code REL_WHEEL(_HI_RES)} and {@code ABS_X/Y} in screen
+ * coordinates for absolute moves. Such a device listens to the
+ * {@link ScreenTopology}: the range of absolute moves cannot change once the
+ * device exists, so the next absolute move after a change of the screens
+ * creates the device again. Any other channel works as well, a regular file
+ * or a pipe is how it is tested.
+ * <p>
+ * Events of one action are collected in a preallocated buffer and written at
+ * once, closed by a {@code SYN_REPORT}. The backend is not thread safe - the
+ * {@link OutputPipeline} calls it from the injector thread only.
+ */
+public class UinputBackend implements OutputBackend, Closeable,
+        ScreenTopology.Listener {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(UinputBackend.class);
+
+    // linux/input-event-codes.h
+    static final int EV_SYN = 0x00;
+    static final int EV_KEY = 0x01;
+    static final int EV_REL = 0x02;
+    static final int EV_ABS = 0x03;
+    static final int SYN_REPORT = 0;
+    static final int REL_X = 0x00;
+    static final int REL_Y = 0x01;
+    static final int REL_WHEEL = 0x08;
+    static final int REL_WHEEL_HI_RES = 0x0b;
+    static final int ABS_X = 0x00;
+    static final int ABS_Y = 0x01;
+    static final int BTN_LEFT = 0x110;
+    static final int BTN_RIGHT = 0x111;
+    static final int BTN_MIDDLE = 0x112;
+    static final int KEY_RELEASED = 0;
+    static final int KEY_PRESSED = 1;
+    public static final int WHEEL_UNITS_PER_NOTCH = 120;
+
+    private static final int LEFT_BUTTON = InputEvent.BUTTON1_MASK
+            | InputEvent.BUTTON1_DOWN_MASK;
+    private static final int MIDDLE_BUTTON = InputEvent.BUTTON2_MASK
+            | InputEvent.BUTTON2_DOWN_MASK;
+    private static final int RIGHT_BUTTON = InputEvent.BUTTON3_MASK
+            | InputEvent.BUTTON3_DOWN_MASK;
+    private static final int MAX_EVENTS = 16;
+    private static final int[] KEY_CODES = LinuxKeyCodes.build();
+    private static final int[] RELATIVE_AXES = { REL_X, REL_Y, REL_WHEEL,
+            REL_WHEEL_HI_RES };
+
+    // null unless the device was created by this class
+    private final Path uinput;
+    private volatile WritableByteChannel channel;
+    private final int timevalBytes;
+    private final ByteBuffer buffer;
+
+    // hi-res wheel units not sent as a whole notch yet
+    private int wheelRemainder;
+
+    // set by the topology thread, taken by the injector thread
+    private final AtomicReference<Rectangle> newDesktopBounds = new AtomicReference<>();
+
+    /**
+     * @param timevalBytes
+     *            size of {@code struct timeval}: 16 on 64 bit kernels, 8 on
+     *            32 bit ones
+     */
+    public UinputBackend(final WritableByteChannel channel,
+            final int timevalBytes) {
+        this(channel, timevalBytes, null);
+    }
+
+    private UinputBackend(final WritableByteChannel channel,
+            final int timevalBytes, final Path uinput) {
+        checkArgument(timevalBytes == 8 || timevalBytes == 16,
+                "Struct timeval has 8 or 16 bytes, was %s", timevalBytes);
+        this.channel = checkNotNull(channel);
+        this.uinput = uinput;
+        this.timevalBytes = timevalBytes;
+        this.buffer = ByteBuffer.allocateDirect(
+                MAX_EVENTS * getEventBytes(timevalBytes)).order(
+                ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @param desktopBounds
+     *            bounds of all screens, the range of absolute moves
+     */
+    public static UinputBackend create(final Path uinput,
+            final Rectangle desktopBounds) throws IOException {
+        final UinputDevice device = UinputDevice.create(uinput, getKeys(),
+                RELATIVE_AXES, desktopBounds);
+        return new UinputBackend(device, nativeTimevalBytes(), uinput);
+    }
+
+    private static int[] getKeys() {
+        final Set<Integer> keys = new TreeSet<>();
+        for (final int code : KEY_CODES) {
+            if (code != 0) {
+                keys.add(code);
+            }
+        }
+        keys.add(BTN_LEFT);
+        keys.add(BTN_RIGHT);
+        keys.add(BTN_MIDDLE);
+        return Ints.toArray(keys);
+    }
+
+    static int nativeTimevalBytes() {
+        return "64".equals(System.getProperty("sun.arch.data.model")) ? 16 : 8;
+    }
+
+    static int getEventBytes(final int timevalBytes) {
+        return timevalBytes + 8;
+    }
+
+    @Override
+    public void keyPress(final int keyCode) {
+        key(keyCode, KEY_PRESSED);
+    }
+
+    @Override
+    public void keyRelease(final int keyCode) {
+        key(keyCode, KEY_RELEASED);
+    }
+
+    private void key(final int keyCode, final int value) {
+        final int code = keyCode >= 0 && keyCode < KEY_CODES.length
+                ? KEY_CODES[keyCode] : 0;
+        if (code == 0) {
+            logger.warn("There is no input event code for key "
+                    + KeyEvent.getKeyText(keyCode));
+            return;
+        }
+        event(EV_KEY, code, value);
+        report();
+    }
+
+    @Override
+    public void mousePress(final int buttons) {
+        buttons(buttons, KEY_PRESSED);
+    }
+
+    @Override
+    public void mouseRelease(final int buttons) {
+        buttons(buttons, KEY_RELEASED);
+    }
+
+    private void buttons(final int buttons, final int value) {
+        if ((buttons & LEFT_BUTTON) != 0) {
+            event(EV_KEY, BTN_LEFT, value);
+        }
+        if ((buttons & MIDDLE_BUTTON) != 0) {
+            event(EV_KEY, BTN_MIDDLE, value);
+        }
+        if ((buttons & RIGHT_BUTTON) != 0) {
+            event(EV_KEY, BTN_RIGHT, value);
+        }
+        report();
+    }
+
+    @Override
+    public void screensChanged(final ScreenTopology topology) {
+        if (uinput != null) {
+            newDesktopBounds.set(topology.getDesktopBounds());
+        }
+    }
+
+    private void recreateIfScreensChanged() {
+        final Rectangle desktopBounds = newDesktopBounds.getAndSet(null);
+        if (desktopBounds == null) {
+            return;
+        }
+
+        try {
+            final UinputDevice device = UinputDevice.create(uinput,
+                    getKeys(), RELATIVE_AXES, desktopBounds);
+            channel.close();
+            channel = device;
+        } catch (final IOException e) {
+            logger.error("Cannot create input device for screens "
+                    + desktopBounds + ", keeping the old one", e);
+        }
+    }
+
+    @Override
+    public void mouseMove(final int x, final int y) {
+        recreateIfScreensChanged();
+        event(EV_ABS, ABS_X, x);
+        event(EV_ABS, ABS_Y, y);
+        report();
+    }
+
+    @Override
+    public boolean supportsRelativeMotion() {
+        return true;
+    }
+
+    @Override
+    public void mouseMoveBy(final int dx, final int dy) {
+        if (dx != 0) {
+            event(EV_REL, REL_X, dx);
+        }
+        if (dy != 0) {
+            event(EV_REL, REL_Y, dy);
+        }
+        report();
+    }
+
+    /**
+     * @param wheelAmount
+     *            notches, positive scrolls down like {@link java.awt.Robot}
+     */
+    @Override
+    public void mouseWheel(final int wheelAmount) {
+        mouseWheelHiRes(wheelAmount * WHEEL_UNITS_PER_NOTCH);
+    }
+
+    /**
+     * @param units
+     *            {@value #WHEEL_UNITS_PER_NOTCH} per notch, positive scrolls
+     *            down
+     */
+    public void mouseWheelHiRes(final int units) {
+        if (units == 0) {
+            return;
+        }
+
+        // input events scroll up with positive values
+        event(EV_REL, REL_WHEEL_HI_RES, -units);
+        wheelRemainder -= units;
+        final int notches = wheelRemainder / WHEEL_UNITS_PER_NOTCH;
+        if (notches != 0) {
+            wheelRemainder -= notches * WHEEL_UNITS_PER_NOTCH;
+            event(EV_REL, REL_WHEEL, notches);
+        }
+        report();
+    }
+
+    private void event(final int type, final int code, final int value) {
+        for (int i = 0; i < timevalBytes; i++) {
+
+            // the kernel stamps the event on its own
+            buffer.put((byte) 0);
+        }
+        buffer.putShort((short) type);
+        buffer.putShort((short) code);
+        buffer.putInt(value);
+    }
+
+    private void report() {
+        event(EV_SYN, SYN_REPORT, 0);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Cannot write input events", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
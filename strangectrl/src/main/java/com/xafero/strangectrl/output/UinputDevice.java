@@ -0,0 +1,244 @@
+package com.xafero.strangectrl.output;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+
+/**
+ * Virtual keyboard and mouse created through {@code /dev/uinput}. The device
+ * is set up with the uinput ioctls ({@code UI_SET_*BIT}, {@code UI_DEV_SETUP},
+ * {@code UI_ABS_SETUP}, {@code UI_DEV_CREATE}), called through JNA; after
+ * that it is a channel for the {@code input_event} records written by
+ * {@link UinputBackend}. Closing it destroys the device.
+ * <p>
+ * Request numbers are encoded like on x86 and ARM, which covers the machines
+ * this runs on.
+ */
+public class UinputDevice implements WritableByteChannel {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(UinputDevice.class);
+
+    static final String NAME = "strangectrl";
+
+    // sizes of struct uinput_setup and struct uinput_abs_setup
+    static final int SETUP_BYTES = 92;
+    static final int ABS_SETUP_BYTES = 28;
+    private static final int NAME_BYTES = 80;
+
+    // linux/uinput.h
+    static final int UI_DEV_CREATE = io(1);
+    static final int UI_DEV_DESTROY = io(2);
+    static final int UI_DEV_SETUP = iow(3, SETUP_BYTES);
+    static final int UI_ABS_SETUP = iow(4, ABS_SETUP_BYTES);
+    static final int UI_SET_EVBIT = iow(100, 4);
+    static final int UI_SET_KEYBIT = iow(101, 4);
+    static final int UI_SET_RELBIT = iow(102, 4);
+    static final int UI_SET_ABSBIT = iow(103, 4);
+    private static final int BUS_VIRTUAL = 0x06;
+
+    // fcntl.h
+    private static final int O_WRONLY = 01;
+    private static final int O_NONBLOCK = 04000;
+
+    private final int fd;
+    private boolean open = true;
+
+    interface LibC extends Library {
+        int open(String path, int flags) throws LastErrorException;
+
+        int ioctl(int fd, NativeLong request, int value)
+                throws LastErrorException;
+
+        int ioctl(int fd, NativeLong request, Pointer argument)
+                throws LastErrorException;
+
+        NativeLong write(int fd, Pointer buffer, NativeLong count)
+                throws LastErrorException;
+
+        int close(int fd) throws LastErrorException;
+    }
+
+    private static final class Holder {
+        private static final LibC LIBC = (LibC) Native.loadLibrary("c",
+                LibC.class);
+    }
+
+    private UinputDevice(final int fd) {
+        this.fd = fd;
+    }
+
+    /**
+     * @param keys
+     *            key and button codes the device sends
+     * @param relativeAxes
+     *            relative axes the device sends
+     * @param absoluteBounds
+     *            range of {@code ABS_X/Y}, or null for a device without
+     *            absolute axes
+     */
+    public static UinputDevice create(final Path uinput, final int[] keys,
+            final int[] relativeAxes, final Rectangle absoluteBounds)
+            throws IOException {
+        final LibC libC;
+        final int fd;
+        try {
+            libC = Holder.LIBC;
+            fd = libC.open(checkNotNull(uinput).toString(), O_WRONLY
+                    | O_NONBLOCK);
+        } catch (final LastErrorException | LinkageError e) {
+            throw new IOException("Cannot open " + uinput, e);
+        }
+
+        try {
+            setBits(libC, fd, UI_SET_EVBIT, UinputBackend.EV_SYN);
+            setBits(libC, fd, UI_SET_EVBIT, UinputBackend.EV_KEY);
+            setBits(libC, fd, UI_SET_KEYBIT, keys);
+            setBits(libC, fd, UI_SET_EVBIT, UinputBackend.EV_REL);
+            setBits(libC, fd, UI_SET_RELBIT, relativeAxes);
+            if (absoluteBounds != null) {
+                setBits(libC, fd, UI_SET_EVBIT, UinputBackend.EV_ABS);
+                setBits(libC, fd, UI_SET_ABSBIT, UinputBackend.ABS_X,
+                        UinputBackend.ABS_Y);
+                ioctl(libC, fd, UI_ABS_SETUP, absSetup(UinputBackend.ABS_X,
+                        absoluteBounds.x, absoluteBounds.x
+                                + absoluteBounds.width - 1));
+                ioctl(libC, fd, UI_ABS_SETUP, absSetup(UinputBackend.ABS_Y,
+                        absoluteBounds.y, absoluteBounds.y
+                                + absoluteBounds.height - 1));
+            }
+            ioctl(libC, fd, UI_DEV_SETUP, setup(NAME));
+            libC.ioctl(fd, new NativeLong(UI_DEV_CREATE), 0);
+        } catch (final LastErrorException e) {
+            closeQuietly(libC, fd);
+            throw new IOException("Cannot create input device with "
+                    + uinput, e);
+        }
+
+        logger.info("Created input device " + NAME + " with " + uinput);
+        return new UinputDevice(fd);
+    }
+
+    private static void setBits(final LibC libC, final int fd,
+            final int request, final int... bits) {
+        for (final int bit : bits) {
+            libC.ioctl(fd, new NativeLong(request), bit);
+        }
+    }
+
+    private static void ioctl(final LibC libC, final int fd,
+            final int request, final ByteBuffer argument) {
+        libC.ioctl(fd, new NativeLong(request),
+                Native.getDirectBufferPointer(argument));
+    }
+
+    private static void closeQuietly(final LibC libC, final int fd) {
+        try {
+            libC.close(fd);
+        } catch (final LastErrorException e) {
+            logger.warn("Cannot close uinput", e);
+        }
+    }
+
+    /**
+     * @return {@code struct uinput_setup} of a virtual device
+     */
+    static ByteBuffer setup(final String name) {
+        final ByteBuffer setup = ByteBuffer.allocateDirect(SETUP_BYTES).order(
+                ByteOrder.nativeOrder());
+        setup.putShort((short) BUS_VIRTUAL);
+        setup.putShort((short) 0);
+        setup.putShort((short) 0);
+        setup.putShort((short) 1);
+        final byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        setup.put(bytes, 0, Math.min(bytes.length, NAME_BYTES - 1));
+        setup.position(8 + NAME_BYTES);
+        setup.putInt(0);
+        setup.clear();
+        return setup;
+    }
+
+    /**
+     * @return {@code struct uinput_abs_setup} of given axis
+     */
+    static ByteBuffer absSetup(final int code, final int minimum,
+            final int maximum) {
+        final ByteBuffer setup = ByteBuffer.allocateDirect(ABS_SETUP_BYTES)
+                .order(ByteOrder.nativeOrder());
+        setup.putShort((short) code);
+        setup.putShort((short) 0);
+        setup.putInt(minimum);
+        setup.putInt(minimum);
+        setup.putInt(maximum);
+        setup.putInt(0);
+        setup.putInt(0);
+        setup.putInt(0);
+        setup.clear();
+        return setup;
+    }
+
+    private static int io(final int number) {
+        return 'U' << 8 | number;
+    }
+
+    private static int iow(final int number, final int size) {
+        return 1 << 30 | size << 16 | io(number);
+    }
+
+    @Override
+    public synchronized int write(final ByteBuffer src) throws IOException {
+        checkArgument(src.isDirect(), "Only direct buffers can be written");
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+
+        final int position = src.position();
+        final int written;
+        try {
+            written = Holder.LIBC.write(fd,
+                    Native.getDirectBufferPointer(src).share(position),
+                    new NativeLong(src.remaining())).intValue();
+        } catch (final LastErrorException e) {
+            throw new IOException("Cannot write input events", e);
+        }
+        src.position(position + written);
+        return written;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+
+        try {
+            Holder.LIBC.ioctl(fd, new NativeLong(UI_DEV_DESTROY), 0);
+        } catch (final LastErrorException e) {
+            logger.warn("Cannot destroy input device", e);
+        }
+        try {
+            Holder.LIBC.close(fd);
+        } catch (final LastErrorException e) {
+            throw new IOException("Cannot close uinput", e);
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package pl.grzeslowski.strangectrl.cmd;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.util.Objects;
 
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+
 import com.xafero.strangectrl.input.InputUtils;
 
 public abstract class AnalogCommand {
     private final InputUtils inputUtils;
     private final int maxMove;
     private final double delta;
-    private double lastvalue;
+    private final AnalogChain chain;
 
     public AnalogCommand(final InputUtils inputUtils, final int maxMove) {
         this(inputUtils, maxMove, 0.0f);
@@ -16,18 +20,30 @@ public abstract class AnalogCommand {
 
     public AnalogCommand(final InputUtils inputUtils, final int maxMove,
             final double delta) {
+        this(inputUtils, maxMove, delta, AnalogChain.empty());
+    }
+
+    /**
+     * @param chain
+     *            applied to every value before it is compared with
+     *            {@code delta}
+     */
+    public AnalogCommand(final InputUtils inputUtils, final int maxMove,
+            final double delta, final AnalogChain chain) {
         this.inputUtils = inputUtils;
         this.maxMove = maxMove;
         this.delta = delta;
+        this.chain = checkNotNull(chain);
     }
 
-    protected boolean canExecute(final double value) {
-        final double abs = Math.abs(value);
-
-        final boolean can = abs >= lastvalue;
-        lastvalue = abs;
-
-        return can;
+    protected double process(final double value) {
+        if (chain.isEmpty()) {
+            return value;
+        }
+        if (value == 0.0) {
+            chain.reset();
+        }
+        return chain.process(value, System.nanoTime());
     }
 
     protected InputUtils getInputUtils() {
@@ -44,7 +60,7 @@ public abstract class AnalogCommand {
 
     @Override
     public int hashCode() {
-        return Objects.hash(maxMove, delta);
+        return Objects.hash(maxMove, delta, chain);
     }
 
     @Override
@@ -53,7 +69,8 @@ public abstract class AnalogCommand {
             final AnalogCommand analogCommand = (AnalogCommand) obj;
 
             return maxMove == analogCommand.maxMove
-                    && delta == analogCommand.delta;
+                    && delta == analogCommand.delta
+                    && chain.equals(analogCommand.chain);
         } else {
             return false;
         }
@@ -20,9 +20,9 @@ public class ComboKeyCommand extends KeyCommand {
     @Override
     public void execute(final GraphicsDevice dev, final double value) {
         if (value >= 0.5f) {
-            inputUtils.pressKey(keys);
+            inputUtils.pressKey(keyCodes);
         } else {
-            inputUtils.releaseKey(keys);
+            inputUtils.releaseKey(keyCodes);
         }
     }
 }
@@ -2,26 +2,44 @@ package pl.grzeslowski.strangectrl.cmd;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogStage;
+import pl.grzeslowski.strangectrl.cmd.analog.AntiDeadZoneStage;
+import pl.grzeslowski.strangectrl.cmd.analog.CurveStage;
+import pl.grzeslowski.strangectrl.cmd.analog.DeadZoneStage;
+import pl.grzeslowski.strangectrl.cmd.analog.EmaStage;
+import pl.grzeslowski.strangectrl.cmd.analog.OneEuroStage;
+import pl.grzeslowski.strangectrl.cmd.analog.RateLimitStage;
 import pl.grzeslowski.strangectrl.cmd.mappers.CommandNameMapper;
 import pl.grzeslowski.strangectrl.cmd.mappers.PovNameMapper;
 import pl.grzeslowski.strangectrl.cmd.mappers.XboxNameMapper;
+import pl.grzeslowski.strangectrl.config.Analog;
 import pl.grzeslowski.strangectrl.config.Button;
 import pl.grzeslowski.strangectrl.config.Configuration;
 import pl.grzeslowski.strangectrl.config.Key;
 import pl.grzeslowski.strangectrl.config.Pov;
 import pl.grzeslowski.strangectrl.config.Setup;
+import pl.grzeslowski.strangectrl.config.Stage;
+import pl.grzeslowski.strangectrl.config.Step;
 
 import com.google.common.collect.Sets;
 import com.xafero.strangectrl.awt.DesktopUtils;
 import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
 import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.KeyCodes;
 import com.xafero.strangectrl.input.InputUtils.MouseButton;
+import com.xafero.strangectrl.input.Macro;
+import com.xafero.strangectrl.input.PointerEngine;
 
 public class CommandFactory {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
@@ -30,19 +48,38 @@ public class CommandFactory {
     // TODO: move it to setup!!!
     public final static double DELTA_FOR_MOUSE_MOVE = 0.2;
     public static final double DELTA_FOR_SCROLL = 0.4;
+    private static final Set<String> ANALOG_AXES = Sets.newHashSet("x", "y",
+            "ry");
 
     private final InputUtils inputUtils;
+    private final PointerEngine pointerEngine;
     private final Map<String, ICommand> commands = new HashMap<>();
     private final Set<CommandNameMapper> mappers;
+    private final List<TickCommand> tickCommands = new ArrayList<>();
 
     public CommandFactory(final InputUtils inputUtils,
             final Configuration configuration,
             final Set<? extends CommandNameMapper> mappers) {
+        this(inputUtils, configuration, new PointerEngine(inputUtils,
+                new DesktopUtils()), mappers);
+    }
+
+    /**
+     * @param pointerEngine
+     *            cursor position shared with the other factories, so every
+     *            controller moves the same cursor
+     */
+    public CommandFactory(final InputUtils inputUtils,
+            final Configuration configuration,
+            final PointerEngine pointerEngine,
+            final Set<? extends CommandNameMapper> mappers) {
         this.inputUtils = checkNotNull(inputUtils);
+        this.pointerEngine = checkNotNull(pointerEngine);
         this.mappers = new HashSet<CommandNameMapper>(checkNotNull(mappers));
 
         loadCommands(checkNotNull(configuration));
-        loadAnalogCommands(configuration.getSetup());
+        loadAnalogCommands(configuration.getSetup(),
+                configuration.getAnalogs());
     }
 
     public CommandFactory(final InputUtils inputUtils,
@@ -51,6 +88,14 @@ public class CommandFactory {
                 new PovNameMapper());
     }
 
+    public CommandFactory(final InputUtils inputUtils,
+            final Configuration configuration,
+            final PointerEngine pointerEngine) {
+        this(inputUtils, configuration, pointerEngine, Sets
+                .<CommandNameMapper> newHashSet(new XboxNameMapper(),
+                        new PovNameMapper()));
+    }
+
     public CommandFactory(final InputUtils mock,
             final Configuration configuration, final CommandNameMapper mapper) {
         this(mock, configuration, Sets.newHashSet(mapper));
@@ -95,26 +140,141 @@ public class CommandFactory {
         }
     }
 
-    private void loadAnalogCommands(final Setup setup) {
+    private void loadAnalogCommands(final Setup setup,
+            final List<Analog> analogs) {
+        final Map<String, List<Stage>> stages = new HashMap<>();
+        for (final Analog analog : analogs) {
+            final String axis = analog.getValue().toLowerCase(Locale.US);
+            if (!ANALOG_AXES.contains(axis)) {
+                logger.warn("There is no analog command for axis {}", axis);
+            }
+            stages.put(axis, analog.getStages());
+        }
 
         // moving mouse
-        final DesktopUtils desktopUtils = new DesktopUtils();
-        final MouseMoveCommand mouseMoveXCommand = new MouseMoveXCommand(
-                inputUtils, setup.getMaxMouseMove(), DELTA_FOR_MOUSE_MOVE,
-                desktopUtils);
-        final MouseMoveCommand mouseMoveYCommand = new MouseMoveYCommand(
-                inputUtils, setup.getMaxMouseMove(), DELTA_FOR_MOUSE_MOVE,
-                desktopUtils);
-        commands.put("x", mouseMoveXCommand);
-        commands.put("y", mouseMoveYCommand);
+        final List<Stage> xStages = getStages(stages, "x");
+        final List<Stage> yStages = getStages(stages, "y");
+        final double radialDeadZone = getRadialDeadZone(xStages, yStages);
+        final StickCommand stickCommand = new StickCommand(
+                setup.getMaxMouseMove(), radialDeadZone,
+                CurveTable.compile(setup.getMouseCurve()),
+                compileChain(xStages, true), compileChain(yStages, true),
+                pointerEngine);
+        commands.put("x", stickCommand.getAxisCommand(StickCommand.Axis.X));
+        commands.put("y", stickCommand.getAxisCommand(StickCommand.Axis.Y));
+        tickCommands.add(stickCommand);
 
         // mouse wheel
-        final MouseWheelCommand mouseWheelCommand = new MouseWheelCommand(
-                inputUtils, setup.getScrollLines(), DELTA_FOR_SCROLL);
-        commands.put("ry", mouseWheelCommand);
+        final AnalogChain wheelChain = compileChain(getStages(stages, "ry"),
+                false);
+        if (setup.isContinuousScroll()) {
+            final ScrollCommand scrollCommand = new ScrollCommand(inputUtils,
+                    setup.getScrollSpeed(), DELTA_FOR_SCROLL, wheelChain);
+            commands.put("ry", scrollCommand);
+            tickCommands.add(scrollCommand);
+        } else {
+            commands.put("ry", new MouseWheelCommand(inputUtils,
+                    setup.getScrollLines(), DELTA_FOR_SCROLL, wheelChain));
+        }
+    }
+
+    private static List<Stage> getStages(final Map<String, List<Stage>> stages,
+            final String axis) {
+        final List<Stage> axisStages = stages.get(axis);
+        return axisStages != null ? axisStages : Collections.<Stage> emptyList();
+    }
+
+    /**
+     * Radial dead zone may be set on either stick axis (or both), but it is
+     * one value for the whole stick.
+     */
+    private static double getRadialDeadZone(final List<Stage> xStages,
+            final List<Stage> yStages) {
+        final double deadZone = findRadialDeadZone(yStages,
+                findRadialDeadZone(xStages, Double.NaN));
+        return Double.isNaN(deadZone) ? DELTA_FOR_MOUSE_MOVE : deadZone;
+    }
+
+    private static double findRadialDeadZone(final List<Stage> stages,
+            final double found) {
+        double deadZone = found;
+        for (final Stage stage : stages) {
+            if (Stage.RADIAL_DEAD_ZONE.equalsIgnoreCase(stage.getType())) {
+                if (!Double.isNaN(deadZone) && deadZone != stage.getValue()) {
+                    final String msg = String.format(
+                            "Conflicting radial dead zones %s and %s",
+                            deadZone, stage.getValue());
+
+                    logger.error(msg);
+                    throw new RuntimeException(msg);
+                }
+                deadZone = stage.getValue();
+            }
+        }
+        return deadZone;
+    }
+
+    private AnalogChain compileChain(final List<Stage> stages,
+            final boolean stickAxis) {
+        final List<AnalogStage> chain = new ArrayList<>();
+        for (final Stage stage : stages) {
+            final String type = stage.getType().toUpperCase(Locale.US);
+            try {
+                switch (type) {
+                case Stage.DEAD_ZONE:
+                    chain.add(new DeadZoneStage(stage.getValue()));
+                    break;
+                case Stage.RADIAL_DEAD_ZONE:
+                    if (!stickAxis) {
+                        throw new IllegalArgumentException(
+                                "Radial dead zone needs both stick axes");
+                    }
+
+                    // applied by the stick command to the whole vector
+                    break;
+                case Stage.ANTI_DEAD_ZONE:
+                    chain.add(new AntiDeadZoneStage(stage.getValue()));
+                    break;
+                case Stage.CURVE:
+                    chain.add(new CurveStage(CurveTable.compile(checkNotNull(
+                            stage.getCurve(), "Curve stage needs a curve"))));
+                    break;
+                case Stage.EMA:
+                    chain.add(new EmaStage(stage.getValue()));
+                    break;
+                case Stage.ONE_EURO:
+                    chain.add(new OneEuroStage(stage.getValue(), stage
+                            .getParam()));
+                    break;
+                case Stage.RATE_LIMIT:
+                    chain.add(new RateLimitStage(stage.getValue()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown stage type");
+                }
+            } catch (final IllegalArgumentException | NullPointerException e) {
+                final String msg = "Wrong analog stage " + stage;
+
+                logger.error(msg, e);
+                throw new RuntimeException(msg, e);
+            }
+        }
+        return new AnalogChain(chain);
     }
 
     private ICommand createCommand(final Button button) {
+        try {
+            return createButtonCommand(button);
+        } catch (final IllegalArgumentException e) {
+            final String msg = "Wrong button " + button.getValue() + ": "
+                    + e.getMessage();
+
+            logger.error(msg, e);
+            throw new RuntimeException(msg, e);
+        }
+    }
+
+    private ICommand createButtonCommand(final Button button) {
         final List<Key> keys = button.getKeys();
 
         if (Button.COMBO_TYPE.equalsIgnoreCase(button.getPressType())) {
@@ -134,6 +294,24 @@ public class CommandFactory {
             } else {
                 return mouseCommand;
             }
+        } else if (Button.MACRO_TYPE.equalsIgnoreCase(button.getPressType())) {
+            final List<Step> steps = button.getSteps();
+
+            if (steps.isEmpty()) {
+                return new MacroCommand(inputUtils.getMacroRecorder(),
+                        inputUtils);
+            } else {
+                return new MacroCommand(compileMacro(steps), inputUtils);
+            }
+        } else if (Button.TURBO_TYPE.equalsIgnoreCase(button.getPressType())) {
+            final MouseCommand mouseCommand = getMouseCommand(keys);
+            final ICommand pulsed = mouseCommand == null ? new ComboKeyCommand(
+                    keys, inputUtils) : mouseCommand;
+
+            return new TurboCommand(pulsed, button.getRate(),
+                    button.getDutyCycle());
+        } else if (Button.RECORD_TYPE.equalsIgnoreCase(button.getPressType())) {
+            return new RecordMacroCommand(inputUtils.getMacroRecorder());
         } else {
             final String msg = "Don't know this press type ("
                     + button.getPressType() + ")";
@@ -143,6 +321,69 @@ public class CommandFactory {
         }
     }
 
+    private Macro compileMacro(final List<Step> steps) {
+        final int[] program = new int[steps.size() * 3];
+        int i = 0;
+        for (final Step step : steps) {
+            program[i++] = step.getDelay();
+            program[i++] = getMacroOp(step);
+            program[i++] = getMacroArg(step);
+        }
+        return new Macro(program);
+    }
+
+    private int getMacroOp(final Step step) {
+        switch (step.getAction().toUpperCase(Locale.US)) {
+        case Step.KEY_PRESS:
+            return Macro.KEY_PRESS;
+        case Step.KEY_RELEASE:
+            return Macro.KEY_RELEASE;
+        case Step.MOUSE_PRESS:
+            return Macro.MOUSE_PRESS;
+        case Step.MOUSE_RELEASE:
+            return Macro.MOUSE_RELEASE;
+        case Step.MOUSE_MOVE:
+            return Macro.MOUSE_MOVE;
+        case Step.MOUSE_WHEEL:
+            return Macro.MOUSE_WHEEL;
+        default:
+            final String msg = "Don't know this macro action ("
+                    + step.getAction() + ")";
+
+            logger.error(msg);
+            throw new RuntimeException(msg);
+        }
+    }
+
+    private int getMacroArg(final Step step) {
+        final String value = step.getValue().trim();
+        try {
+            switch (getMacroOp(step)) {
+            case Macro.KEY_PRESS:
+            case Macro.KEY_RELEASE:
+                return KeyCodes.resolve(value);
+            case Macro.MOUSE_PRESS:
+            case Macro.MOUSE_RELEASE:
+                return MouseButton.valueOf(value.toUpperCase(Locale.US))
+                        .ordinal();
+            case Macro.MOUSE_MOVE:
+                final String[] point = value.split(",");
+                if (point.length != 2) {
+                    throw new IllegalArgumentException("Expected \"x,y\"");
+                }
+                return Macro.packPoint(Integer.parseInt(point[0].trim()),
+                        Integer.parseInt(point[1].trim()));
+            default:
+                return Integer.parseInt(value);
+            }
+        } catch (final IllegalArgumentException e) {
+            final String msg = "Wrong value of macro step " + step;
+
+            logger.error(msg, e);
+            throw new RuntimeException(msg, e);
+        }
+    }
+
     private ICommand createPovCommand(final ICommand keyCommand) {
         return new PovKeyCommand(keyCommand);
     }
@@ -173,6 +414,13 @@ public class CommandFactory {
         }
     }
 
+    /**
+     * @return commands to call once per tick, after the period commands
+     */
+    public List<TickCommand> getTickCommands() {
+        return Collections.unmodifiableList(tickCommands);
+    }
+
     public ICommand getCommand(final String identifier, final double value) {
         final ICommand iCommand = commands.get(identifier);
         if (iCommand != null) {
@@ -0,0 +1,79 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+
+import pl.grzeslowski.strangectrl.config.ResponseCurve;
+
+/**
+ * {@link ResponseCurve} sampled into a float table when the configuration is
+ * loaded. Mapping a value is two array reads and a linear interpolation.
+ */
+public final class CurveTable {
+    public static final int DEFAULT_SIZE = 256;
+    public static final CurveTable LINEAR = compile(ResponseCurve
+            .getLinearCurve());
+
+    private final float[] table;
+    private final int segments;
+
+    private CurveTable(final float[] table) {
+        this.table = table;
+        this.segments = table.length - 1;
+    }
+
+    public static CurveTable compile(final ResponseCurve curve) {
+        return compile(curve, DEFAULT_SIZE);
+    }
+
+    /**
+     * @param segments
+     *            number of linear segments the curve is cut into
+     */
+    public static CurveTable compile(final ResponseCurve curve,
+            final int segments) {
+        checkNotNull(curve);
+        checkArgument(segments > 0);
+
+        final float[] table = new float[segments + 1];
+        for (int i = 0; i <= segments; i++) {
+            final double out = curve.evaluate((double) i / segments);
+            table[i] = (float) Math.max(0.0, Math.min(1.0, out));
+        }
+        return new CurveTable(table);
+    }
+
+    /**
+     * @param value
+     *            from [0, 1], values outside are clamped
+     */
+    public double map(final double value) {
+        if (!(value > 0.0)) {
+            return table[0];
+        }
+
+        final double position = value * segments;
+        final int index = (int) position;
+        if (index >= segments) {
+            return table[segments];
+        }
+        final float low = table[index];
+        return low + (table[index + 1] - low) * (position - index);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(table);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof CurveTable) {
+            return Arrays.equals(table, ((CurveTable) obj).table);
+        } else {
+            return false;
+        }
+    }
+}
@@ -13,9 +13,15 @@ import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 import com.xafero.strangectrl.cmd.ICommand;
 import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.KeyCodes;
 
+/**
+ * Key names are resolved to key codes when the command is created, so an
+ * unknown key fails the configuration instead of a key press.
+ */
 public abstract class KeyCommand implements ICommand {
     final List<Key> keys;
+    final int[] keyCodes;
     final InputUtils inputUtils;
 
     public KeyCommand(final Key key, final InputUtils inputUtils) {
@@ -24,11 +30,13 @@ public abstract class KeyCommand implements ICommand {
 
     public KeyCommand(final List<Key> keys, final InputUtils inputUtils) {
         this.keys = new ArrayList<>(keys);
+        this.keyCodes = KeyCodes.resolve(this.keys);
         this.inputUtils = checkNotNull(inputUtils);
     }
 
     public KeyCommand(final KeyCommand keyCommand) {
         keys = new ArrayList<>(keyCommand.keys);
+        keyCodes = keyCommand.keyCodes;
         inputUtils = keyCommand.inputUtils;
     }
 
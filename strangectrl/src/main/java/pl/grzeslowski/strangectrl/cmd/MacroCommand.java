@@ -0,0 +1,177 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Objects;
+import com.xafero.strangectrl.cmd.CancellableCommand;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.Macro;
+import com.xafero.strangectrl.input.MacroRecorder;
+import com.xafero.strangectrl.input.TimingWheel;
+
+/**
+ * Plays a {@link Macro} when the button gets pressed. Delays between steps
+ * are waited on a {@link TimingWheel}, so a long macro does not hold up the
+ * polling thread. Pressing the button while the macro plays does nothing.
+ * <p>
+ * Without a macro of its own the command plays the last macro recorded by
+ * the {@link MacroRecorder}.
+ */
+public class MacroCommand implements ICommand, CancellableCommand {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(MacroCommand.class);
+
+    private final Macro macro;
+    private final MacroRecorder recorder;
+    private final InputUtils inputUtils;
+    private final TimingWheel timingWheel;
+    private final Playback playback = new Playback();
+    private boolean pressed;
+
+    public MacroCommand(final Macro macro, final InputUtils inputUtils) {
+        this(macro, inputUtils, TimingWheel.shared());
+    }
+
+    public MacroCommand(final Macro macro, final InputUtils inputUtils,
+            final TimingWheel timingWheel) {
+        this(checkNotNull(macro), null, inputUtils, timingWheel);
+    }
+
+    public MacroCommand(final MacroRecorder recorder,
+            final InputUtils inputUtils) {
+        this(recorder, inputUtils, TimingWheel.shared());
+    }
+
+    public MacroCommand(final MacroRecorder recorder,
+            final InputUtils inputUtils, final TimingWheel timingWheel) {
+        this(null, checkNotNull(recorder), inputUtils, timingWheel);
+    }
+
+    private MacroCommand(final Macro macro, final MacroRecorder recorder,
+            final InputUtils inputUtils, final TimingWheel timingWheel) {
+        this.macro = macro;
+        this.recorder = recorder;
+        this.inputUtils = checkNotNull(inputUtils);
+        this.timingWheel = checkNotNull(timingWheel);
+    }
+
+    @Override
+    public synchronized void execute(final GraphicsDevice graphicsDevice,
+            final double value) {
+        final boolean press = value >= 0.5;
+        if (press && !pressed) {
+            playback.play(macro != null ? macro : recorder.getLastMacro());
+        }
+        pressed = press;
+    }
+
+    @Override
+    public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+            final double value) {
+        execute(graphicsDevice, 1.0);
+        execute(graphicsDevice, 0.0);
+    }
+
+    @Override
+    public boolean isPeriodCommand() {
+        return false;
+    }
+
+    public boolean isPlaying() {
+        return playback.isPlaying();
+    }
+
+    @Override
+    public void cancel() {
+        playback.cancel();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(macro, recorder);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof MacroCommand) {
+            final MacroCommand command = (MacroCommand) obj;
+
+            return Objects.equal(macro, command.macro)
+                    && Objects.equal(recorder, command.recorder);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MacroCommand[" + (macro != null ? macro : "recorded") + "]";
+    }
+
+    private class Playback extends TimingWheel.Timeout {
+
+        // guarded by this
+        private Macro playing;
+        private int step;
+
+        synchronized void play(final Macro toPlay) {
+            if (playing != null) {
+                logger.debug("Macro is still playing, ignoring press");
+            } else if (!toPlay.isEmpty()) {
+                playing = toPlay;
+                step = 0;
+                advance(false);
+            }
+        }
+
+        synchronized boolean isPlaying() {
+            return playing != null;
+        }
+
+        synchronized void cancel() {
+            if (playing == null) {
+                return;
+            }
+            timingWheel.cancel(this);
+
+            // releases still to come, so no key stays held down
+            for (; step < playing.size(); step++) {
+                final int op = playing.getOp(step);
+                if (op == Macro.KEY_RELEASE || op == Macro.MOUSE_RELEASE) {
+                    playing.apply(step, inputUtils);
+                }
+            }
+            playing = null;
+        }
+
+        @Override
+        public synchronized void run() {
+
+            // expired just before a cancel
+            if (playing == null) {
+                return;
+            }
+            advance(true);
+        }
+
+        private void advance(final boolean waited) {
+            boolean delayDone = waited;
+            while (step < playing.size()) {
+                final int delay = playing.getDelay(step);
+                if (delay > 0 && !delayDone) {
+                    timingWheel.schedule(this, delay, TimeUnit.MILLISECONDS);
+                    return;
+                }
+
+                playing.apply(step, inputUtils);
+                step++;
+                delayDone = false;
+            }
+            playing = null;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package pl.grzeslowski.strangectrl.cmd;
 
 import java.awt.GraphicsDevice;
 
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+
 import com.xafero.strangectrl.cmd.ICommand;
 import com.xafero.strangectrl.input.InputUtils;
 
@@ -14,6 +16,11 @@ public class MouseWheelCommand extends AnalogCommand implements ICommand {
         super(inputUtils, maxMove, delta);
     }
 
+    public MouseWheelCommand(final InputUtils inputUtils, final int maxMove,
+            final double delta, final AnalogChain chain) {
+        super(inputUtils, maxMove, delta, chain);
+    }
+
     public MouseWheelCommand(final InputUtils inputUtils, final int maxMove) {
         super(inputUtils, maxMove);
     }
@@ -21,12 +28,14 @@ public class MouseWheelCommand extends AnalogCommand implements ICommand {
     @Override
     public synchronized void execute(final GraphicsDevice graphicsDevice,
             final double value) {
-        if (getDelta() < Math.abs(value) && canExecute(value) && !pressed) {
+        final double processed = process(value);
+        if (getDelta() < Math.abs(processed) && !pressed) {
             pressed = true;
-            getInputUtils().mouseWheel((int) Math.signum(value) * getMaxMove());
+            getInputUtils().mouseWheel(
+                    (int) Math.signum(processed) * getMaxMove());
         }
 
-        if (getDelta() >= Math.abs(value)) {
+        if (getDelta() >= Math.abs(processed)) {
             pressed = false;
         }
     }
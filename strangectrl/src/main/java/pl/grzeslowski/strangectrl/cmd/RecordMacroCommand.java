@@ -0,0 +1,62 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+
+import com.google.common.base.Objects;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.input.MacroRecorder;
+
+/**
+ * First press starts recording a macro, next one stops it. The recording is
+ * played by {@link MacroCommand} buttons that have no steps of their own.
+ */
+public class RecordMacroCommand implements ICommand {
+    private final MacroRecorder recorder;
+    private boolean pressed;
+
+    public RecordMacroCommand(final MacroRecorder recorder) {
+        this.recorder = checkNotNull(recorder);
+    }
+
+    @Override
+    public synchronized void execute(final GraphicsDevice graphicsDevice,
+            final double value) {
+        final boolean press = value >= 0.5;
+        if (press && !pressed) {
+            if (recorder.isRecording()) {
+                recorder.stop();
+            } else {
+                recorder.start();
+            }
+        }
+        pressed = press;
+    }
+
+    @Override
+    public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+            final double value) {
+        execute(graphicsDevice, 1.0);
+        execute(graphicsDevice, 0.0);
+    }
+
+    @Override
+    public boolean isPeriodCommand() {
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(recorder);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof RecordMacroCommand) {
+            return recorder.equals(((RecordMacroCommand) obj).recorder);
+        } else {
+            return false;
+        }
+    }
+}
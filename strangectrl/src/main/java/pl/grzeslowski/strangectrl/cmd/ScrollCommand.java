@@ -0,0 +1,101 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
+import com.xafero.strangectrl.input.InputUtils;
+
+/**
+ * Scrolls continuously while the stick is out of the dead zone. The
+ * deflection (rescaled from the edge of the dead zone) sets the speed, up to
+ * {@code maxMove} notches per second. Fractions of a notch are summed up every
+ * tick and whole notches are sent as soon as they are there, so slow scrolling
+ * sends a notch every few ticks and fast scrolling a few notches per tick.
+ */
+public class ScrollCommand extends AnalogCommand implements ICommand,
+        TickCommand {
+    private static final long MAX_TICK_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(100);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Ticker ticker;
+
+    // guarded by this
+    private double value;
+    private double notches;
+    private long lastTick;
+    private boolean scrolling;
+
+    public ScrollCommand(final InputUtils inputUtils, final int maxMove,
+            final double delta) {
+        this(inputUtils, maxMove, delta, AnalogChain.empty());
+    }
+
+    public ScrollCommand(final InputUtils inputUtils, final int maxMove,
+            final double delta, final AnalogChain chain) {
+        this(inputUtils, maxMove, delta, chain, Ticker.systemTicker());
+    }
+
+    public ScrollCommand(final InputUtils inputUtils, final int maxMove,
+            final double delta, final AnalogChain chain, final Ticker ticker) {
+        super(inputUtils, maxMove, delta, chain);
+        this.ticker = ticker;
+    }
+
+    @Override
+    public synchronized void execute(final GraphicsDevice graphicsDevice,
+            final double value) {
+        this.value = process(value);
+    }
+
+    @Override
+    public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+            final double value) {
+        execute(graphicsDevice, value);
+    }
+
+    @Override
+    public boolean isPeriodCommand() {
+        return false;
+    }
+
+    @Override
+    public void tick(final GraphicsDevice graphicsDevice) {
+        final int wheel;
+        synchronized (this) {
+            final long now = ticker.read();
+            final double magnitude = Math.abs(value);
+            if (magnitude <= getDelta()) {
+                scrolling = false;
+                notches = 0;
+                return;
+            }
+
+            if (!scrolling) {
+
+                // first notch right away, so short flicks still scroll
+                scrolling = true;
+                notches = Math.signum(value);
+            } else {
+                final long elapsed = Math.min(now - lastTick, MAX_TICK_NANOS);
+                final double speed = getMaxMove() * (magnitude - getDelta())
+                        / (1.0 - getDelta());
+                notches += Math.signum(value) * speed * elapsed
+                        / NANOS_PER_SECOND;
+            }
+            lastTick = now;
+
+            wheel = (int) notches;
+            notches -= wheel;
+        }
+
+        if (wheel != 0) {
+            getInputUtils().mouseWheel(wheel);
+        }
+    }
+}
@@ -1,42 +1,131 @@
 package pl.grzeslowski.strangectrl.cmd;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.awt.GraphicsDevice;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import pl.grzeslowski.strangectrl.config.Key;
 
+import com.xafero.strangectrl.cmd.CancellableCommand;
 import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.TimingWheel;
 
-public class SequentialKeyCommand extends KeyCommand {
+/**
+ * Presses the keys one after another, each held for {@value #WAIT} ms. The
+ * steps are played by a {@link TimingWheel}, so the polling thread is not
+ * blocked while a sequence plays out. Pressing the button again during the
+ * playback queues another playback.
+ */
+public class SequentialKeyCommand extends KeyCommand implements
+        CancellableCommand {
 
     private static final long WAIT = 20;
 
+    private final TimingWheel timingWheel;
+    private final Playback playback = new Playback();
+
+    // one array per key, for the int[] methods of InputUtils
+    private final int[][] steps;
+
     public SequentialKeyCommand(final Key key, final InputUtils inputUtils) {
-        super(key, inputUtils);
+        this(key, inputUtils, TimingWheel.shared());
     }
 
     public SequentialKeyCommand(final List<Key> keys,
             final InputUtils inputUtils) {
+        this(keys, inputUtils, TimingWheel.shared());
+    }
+
+    public SequentialKeyCommand(final Key key, final InputUtils inputUtils,
+            final TimingWheel timingWheel) {
+        super(key, inputUtils);
+        this.timingWheel = checkNotNull(timingWheel);
+        this.steps = toSteps(keyCodes);
+    }
+
+    public SequentialKeyCommand(final List<Key> keys,
+            final InputUtils inputUtils, final TimingWheel timingWheel) {
         super(keys, inputUtils);
+        this.timingWheel = checkNotNull(timingWheel);
+        this.steps = toSteps(keyCodes);
+    }
+
+    private static int[][] toSteps(final int[] keyCodes) {
+        final int[][] steps = new int[keyCodes.length][];
+        for (int i = 0; i < keyCodes.length; i++) {
+            steps[i] = new int[] { keyCodes[i] };
+        }
+        return steps;
     }
 
     @Override
     public void execute(final GraphicsDevice graphicsDevice, final double value) {
-        if (value >= 0.5) {
-            for (final Key key : keys) {
-                inputUtils.pressKey(key);
-                sleep();
-                inputUtils.releaseKey(key);
-            }
+        if (value >= 0.5 && steps.length > 0) {
+            playback.play();
         }
     }
 
-    private void sleep() {
-        try {
-            Thread.sleep(WAIT);
-        } catch (final InterruptedException e) {
-            // not need to handle
-        }
+    @Override
+    public void cancel() {
+        playback.cancel();
     }
 
+    /**
+     * Single reusable timeout: releases the current key and presses the next
+     * one.
+     */
+    private class Playback extends TimingWheel.Timeout {
+
+        // guarded by this
+        private boolean playing;
+        private int queued;
+        private int index;
+
+        synchronized void play() {
+            if (playing) {
+                queued++;
+            } else {
+                playing = true;
+                pressFirst();
+            }
+        }
+
+        private void pressFirst() {
+            index = 0;
+            inputUtils.pressKey(steps[index]);
+            timingWheel.schedule(this, WAIT, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void cancel() {
+            if (playing) {
+                timingWheel.cancel(this);
+                inputUtils.releaseKey(steps[index]);
+                playing = false;
+                queued = 0;
+            }
+        }
+
+        @Override
+        public synchronized void run() {
+
+            // expired just before a cancel
+            if (!playing) {
+                return;
+            }
+            inputUtils.releaseKey(steps[index]);
+
+            index++;
+            if (index < steps.length) {
+                inputUtils.pressKey(steps[index]);
+                timingWheel.schedule(this, WAIT, TimeUnit.MILLISECONDS);
+            } else if (queued > 0) {
+                queued--;
+                pressFirst();
+            } else {
+                playing = false;
+            }
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
+import com.xafero.strangectrl.input.PointerEngine;
+
+/**
+ * Moves the mouse with both axes of a stick. The axis commands only remember
+ * the latest value, the move itself is done once per tick for the whole
+ * vector, so diagonals are one move instead of two stairs. The move is
+ * scaled by the time since the previous tick, so the speed does not depend on
+ * the polling rate; the first tick out of the dead zone only starts the clock.
+ * <p>
+ * The dead zone is radial: vectors shorter than {@code deadZone} do nothing
+ * and the rest is rescaled, so the speed grows from zero right at the edge of
+ * the dead zone up to {@code maxMove} pixels per 10 ms (the period of the old
+ * fixed timer). The rescaled length goes through a {@link CurveTable} on the
+ * way. Each axis value first goes through the {@link AnalogChain} of its axis,
+ * stamped by the same {@link Ticker} as the ticks.
+ */
+public class StickCommand implements TickCommand {
+    public static enum Axis {
+        X, Y
+    }
+
+    static final long REFERENCE_TICK_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(10);
+    private static final long MAX_TICK_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(100);
+
+    private final int maxMove;
+    private final double deadZone;
+    private final CurveTable curve;
+    private final AnalogChain xChain;
+    private final AnalogChain yChain;
+    private final PointerEngine pointerEngine;
+    private final Ticker ticker;
+    private final AxisCommand xCommand = new AxisCommand(Axis.X);
+    private final AxisCommand yCommand = new AxisCommand(Axis.Y);
+
+    // guarded by this
+    private double x;
+    private double y;
+    private long lastTick;
+    private boolean moving;
+
+    public StickCommand(final int maxMove, final double deadZone,
+            final PointerEngine pointerEngine) {
+        this(maxMove, deadZone, CurveTable.LINEAR, pointerEngine);
+    }
+
+    public StickCommand(final int maxMove, final double deadZone,
+            final CurveTable curve, final PointerEngine pointerEngine) {
+        this(maxMove, deadZone, curve, AnalogChain.empty(), AnalogChain
+                .empty(), pointerEngine);
+    }
+
+    public StickCommand(final int maxMove, final double deadZone,
+            final CurveTable curve, final AnalogChain xChain,
+            final AnalogChain yChain, final PointerEngine pointerEngine) {
+        this(maxMove, deadZone, curve, xChain, yChain, pointerEngine, Ticker
+                .systemTicker());
+    }
+
+    public StickCommand(final int maxMove, final double deadZone,
+            final CurveTable curve, final AnalogChain xChain,
+            final AnalogChain yChain, final PointerEngine pointerEngine,
+            final Ticker ticker) {
+        checkArgument(deadZone >= 0 && deadZone < 1,
+                "Dead zone has to be in [0, 1), was %s", deadZone);
+        this.maxMove = maxMove;
+        this.deadZone = deadZone;
+        this.curve = checkNotNull(curve);
+        this.xChain = checkNotNull(xChain);
+        this.yChain = checkNotNull(yChain);
+        this.pointerEngine = checkNotNull(pointerEngine);
+        this.ticker = checkNotNull(ticker);
+    }
+
+    public ICommand getAxisCommand(final Axis axis) {
+        return axis == Axis.X ? xCommand : yCommand;
+    }
+
+    private synchronized void setValue(final Axis axis, final double value) {
+        if (axis == Axis.X) {
+            x = process(xChain, value);
+        } else {
+            y = process(yChain, value);
+        }
+    }
+
+    private double process(final AnalogChain chain, final double value) {
+        if (chain.isEmpty()) {
+            return value;
+        }
+        if (value == 0.0) {
+            chain.reset();
+        }
+        return chain.process(value, ticker.read());
+    }
+
+    @Override
+    public void tick(final GraphicsDevice graphicsDevice) {
+        final double dx;
+        final double dy;
+        synchronized (this) {
+            final long now = ticker.read();
+            final double length = Math.sqrt(x * x + y * y);
+            if (length <= deadZone) {
+                moving = false;
+                return;
+            }
+
+            final long elapsed = moving ? Math.min(now - lastTick,
+                    MAX_TICK_NANOS) : 0;
+            moving = true;
+            lastTick = now;
+            if (elapsed <= 0) {
+                return;
+            }
+
+            final double scaled = curve.map((length - deadZone)
+                    / (1.0 - deadZone));
+            final double speed = maxMove * scaled / length * elapsed
+                    / REFERENCE_TICK_NANOS;
+            dx = x * speed;
+            dy = y * speed;
+        }
+
+        pointerEngine.move(graphicsDevice, dx, dy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(maxMove, deadZone, curve, xChain, yChain);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof StickCommand) {
+            final StickCommand stick = (StickCommand) obj;
+
+            return maxMove == stick.maxMove && deadZone == stick.deadZone
+                    && curve.equals(stick.curve) && xChain.equals(stick.xChain)
+                    && yChain.equals(stick.yChain);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StickCommand[maxMove = %s, deadZone = %s]",
+                maxMove, deadZone);
+    }
+
+    private class AxisCommand implements ICommand {
+        private final Axis axis;
+
+        AxisCommand(final Axis axis) {
+            this.axis = axis;
+        }
+
+        @Override
+        public void execute(final GraphicsDevice graphicsDevice,
+                final double value) {
+            setValue(axis, value);
+        }
+
+        @Override
+        public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+                final double value) {
+            setValue(axis, value);
+        }
+
+        @Override
+        public boolean isPeriodCommand() {
+            return true;
+        }
+
+        private StickCommand getStick() {
+            return StickCommand.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(axis, getStick());
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof AxisCommand) {
+                final AxisCommand axisCommand = (AxisCommand) obj;
+
+                return axis == axisCommand.axis
+                        && getStick().equals(axisCommand.getStick());
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return axis + " of " + getStick();
+        }
+    }
+}
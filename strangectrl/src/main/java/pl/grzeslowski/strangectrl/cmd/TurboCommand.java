@@ -0,0 +1,151 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Objects;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.input.TimingWheel;
+
+/**
+ * Autofire - while the button is held the wrapped command is pressed and
+ * released {@code rate} times per second. Pulse edges are scheduled on
+ * absolute deadlines of the {@link TimingWheel}, so the rate does not drift
+ * with the load of the polling thread and no pulse allocates anything. When
+ * the wheel falls behind by whole pulses they are skipped, the phase is kept.
+ */
+public class TurboCommand implements ICommand {
+    private final ICommand command;
+    private final double rate;
+    private final double dutyCycle;
+    private final long periodNanos;
+    private final long pressNanos;
+    private final TimingWheel timingWheel;
+    private final Pulse pulse = new Pulse();
+
+    // guarded by this
+    private boolean held;
+    private boolean down;
+    private long cycleStart;
+    private GraphicsDevice graphicsDevice;
+
+    public TurboCommand(final ICommand command, final double rate,
+            final double dutyCycle) {
+        this(command, rate, dutyCycle, TimingWheel.shared());
+    }
+
+    public TurboCommand(final ICommand command, final double rate,
+            final double dutyCycle, final TimingWheel timingWheel) {
+        checkArgument(rate > 0, "Rate has to be positive, was %s", rate);
+        checkArgument(dutyCycle > 0 && dutyCycle < 1,
+                "Duty cycle has to be in (0, 1), was %s", dutyCycle);
+        this.command = checkNotNull(command);
+        this.rate = rate;
+        this.dutyCycle = dutyCycle;
+        this.periodNanos = Math.round(TimeUnit.SECONDS.toNanos(1) / rate);
+        this.pressNanos = Math.max(1, Math.round(periodNanos * dutyCycle));
+        this.timingWheel = checkNotNull(timingWheel);
+    }
+
+    @Override
+    public synchronized void execute(final GraphicsDevice graphicsDevice,
+            final double value) {
+        final boolean press = value >= 0.5;
+        if (press && !held) {
+            held = true;
+            this.graphicsDevice = graphicsDevice;
+            cycleStart = timingWheel.now();
+            pressDown();
+        } else if (!press && held) {
+            held = false;
+            timingWheel.cancel(pulse);
+            if (down) {
+                releaseUp();
+            }
+        }
+    }
+
+    private void pressDown() {
+        command.execute(graphicsDevice, 1.0);
+        down = true;
+        timingWheel.scheduleAt(pulse, cycleStart + pressNanos);
+    }
+
+    private void releaseUp() {
+        command.execute(graphicsDevice, 0.0);
+        down = false;
+    }
+
+    private synchronized void onEdge() {
+        if (!held) {
+            return;
+        }
+
+        if (down) {
+            releaseUp();
+            timingWheel.scheduleAt(pulse, cycleStart + periodNanos);
+        } else {
+            cycleStart += periodNanos;
+            final long lag = timingWheel.now() - cycleStart;
+            if (lag >= periodNanos) {
+
+                // too late for these pulses, keep the phase
+                cycleStart += lag / periodNanos * periodNanos;
+            }
+            pressDown();
+        }
+    }
+
+    @Override
+    public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+            final double value) {
+        execute(graphicsDevice, 1.0);
+        execute(graphicsDevice, 0.0);
+    }
+
+    @Override
+    public boolean isPeriodCommand() {
+        return false;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public double getDutyCycle() {
+        return dutyCycle;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(command, rate, dutyCycle);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof TurboCommand) {
+            final TurboCommand turbo = (TurboCommand) obj;
+
+            return Objects.equal(command, turbo.command) && rate == turbo.rate
+                    && dutyCycle == turbo.dutyCycle;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TurboCommand[" + command + " at " + rate + "Hz]";
+    }
+
+    private class Pulse extends TimingWheel.Timeout {
+
+        @Override
+        public void run() {
+            onEdge();
+        }
+    }
+}
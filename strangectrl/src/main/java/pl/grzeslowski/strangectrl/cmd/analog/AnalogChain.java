@@ -0,0 +1,72 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stages of one axis, built once when the configuration is loaded.
+ */
+public final class AnalogChain {
+    private static final AnalogStage[] NO_STAGES = new AnalogStage[0];
+
+    private final AnalogStage[] stages;
+
+    public AnalogChain(final List<? extends AnalogStage> stages) {
+        this.stages = checkNotNull(stages).toArray(NO_STAGES);
+    }
+
+    public AnalogChain(final AnalogStage... stages) {
+        this(Arrays.asList(stages));
+    }
+
+    /**
+     * @return chain without stages, every value passes as it is
+     */
+    public static AnalogChain empty() {
+        return new AnalogChain(NO_STAGES);
+    }
+
+    public double process(final double value, final long nanoTime) {
+        double result = value;
+        for (final AnalogStage stage : stages) {
+            result = stage.process(result, nanoTime);
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (final AnalogStage stage : stages) {
+            stage.reset();
+        }
+    }
+
+    public boolean isEmpty() {
+        return stages.length == 0;
+    }
+
+    public int size() {
+        return stages.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(stages);
+    }
+
+    /**
+     * Chains are equal when their stages are configured the same, the state
+     * of the stages does not count.
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof AnalogChain
+                && Arrays.equals(stages, ((AnalogChain) obj).stages);
+    }
+
+    @Override
+    public String toString() {
+        return "AnalogChain" + Arrays.toString(stages);
+    }
+}
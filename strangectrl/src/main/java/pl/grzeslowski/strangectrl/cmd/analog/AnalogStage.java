@@ -0,0 +1,20 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+/**
+ * One step of an {@link AnalogChain}. Values are axis positions in [-1, 1].
+ * Stateful stages keep their state in fields, so processing does not
+ * allocate.
+ */
+public interface AnalogStage {
+
+    /**
+     * @param nanoTime
+     *            time of the value, from {@link System#nanoTime()}
+     */
+    double process(final double value, final long nanoTime);
+
+    /**
+     * Forgets the state, called when the axis gets back to rest.
+     */
+    void reset();
+}
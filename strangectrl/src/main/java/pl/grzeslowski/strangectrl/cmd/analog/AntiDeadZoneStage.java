@@ -0,0 +1,56 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+
+/**
+ * Counterpart of a dead zone built into the target: any non zero value is
+ * moved to at least {@code antiDeadZone}, the rest of the range is squeezed
+ * above it.
+ */
+public class AntiDeadZoneStage implements AnalogStage {
+    private final double antiDeadZone;
+
+    public AntiDeadZoneStage(final double antiDeadZone) {
+        checkArgument(antiDeadZone >= 0 && antiDeadZone < 1,
+                "Anti dead zone has to be in [0, 1), was %s", antiDeadZone);
+        this.antiDeadZone = antiDeadZone;
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        if (value == 0.0) {
+            return 0.0;
+        }
+        return Math.signum(value)
+                * (antiDeadZone + (1.0 - antiDeadZone)
+                        * Math.min(1.0, Math.abs(value)));
+    }
+
+    @Override
+    public void reset() {
+        // stateless
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(antiDeadZone);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof AntiDeadZoneStage) {
+            final AntiDeadZoneStage other = (AntiDeadZoneStage) obj;
+
+            return antiDeadZone == other.antiDeadZone;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AntiDeadZone[" + antiDeadZone + "]";
+    }
+}
@@ -0,0 +1,49 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Objects;
+
+import pl.grzeslowski.strangectrl.cmd.CurveTable;
+
+/**
+ * Applies a response curve to the distance from zero, keeping the sign.
+ */
+public class CurveStage implements AnalogStage {
+    private final CurveTable curve;
+
+    public CurveStage(final CurveTable curve) {
+        this.curve = checkNotNull(curve);
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        return value < 0 ? -curve.map(-value) : curve.map(value);
+    }
+
+    @Override
+    public void reset() {
+        // stateless
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(curve);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof CurveStage) {
+            final CurveStage other = (CurveStage) obj;
+
+            return curve.equals(other.curve);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Curve";
+    }
+}
@@ -0,0 +1,56 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+
+/**
+ * Axial dead zone: values not further from zero than {@code deadZone} become
+ * zero, the rest is rescaled so the output starts at zero on the edge of the
+ * dead zone.
+ */
+public class DeadZoneStage implements AnalogStage {
+    private final double deadZone;
+
+    public DeadZoneStage(final double deadZone) {
+        checkArgument(deadZone >= 0 && deadZone < 1,
+                "Dead zone has to be in [0, 1), was %s", deadZone);
+        this.deadZone = deadZone;
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        final double abs = Math.abs(value);
+        if (abs <= deadZone) {
+            return 0.0;
+        }
+        return Math.signum(value) * Math.min(1.0, (abs - deadZone)
+                / (1.0 - deadZone));
+    }
+
+    @Override
+    public void reset() {
+        // stateless
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(deadZone);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof DeadZoneStage) {
+            final DeadZoneStage other = (DeadZoneStage) obj;
+
+            return deadZone == other.deadZone;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeadZone[" + deadZone + "]";
+    }
+}
@@ -0,0 +1,73 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exponential moving average, {@code alpha} is the weight of the new value
+ * per 10 ms (the period of the old fixed timer). The weight is scaled by the
+ * time since the previous value, so the response is the same whether the
+ * value comes every tick of a fast poll, every tick of a slow one, or with
+ * the events in between.
+ */
+public class EmaStage implements AnalogStage {
+    private static final double REFERENCE_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(10);
+
+    private final double alpha;
+    private boolean initialized;
+    private long lastNanos;
+    private double average;
+
+    public EmaStage(final double alpha) {
+        checkArgument(alpha > 0 && alpha <= 1,
+                "Alpha has to be in (0, 1], was %s", alpha);
+        this.alpha = alpha;
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        if (initialized) {
+            final long elapsed = nanoTime - lastNanos;
+            if (elapsed <= 0) {
+                return average;
+            }
+            final double weight = alpha == 1.0 ? 1.0 : 1.0 - Math.pow(
+                    1.0 - alpha, elapsed / REFERENCE_NANOS);
+            average += weight * (value - average);
+        } else {
+            average = value;
+            initialized = true;
+        }
+        lastNanos = nanoTime;
+        return average;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(alpha);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof EmaStage) {
+            final EmaStage other = (EmaStage) obj;
+
+            return alpha == other.alpha;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Ema[" + alpha + "]";
+    }
+}
@@ -0,0 +1,92 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+
+/**
+ * One Euro filter (Casiez, Roussel, Vogel, 2012): low pass filter whose
+ * cutoff grows with the speed of the signal - steady when the stick is held
+ * still, little lag when it moves fast.
+ */
+public class OneEuroStage implements AnalogStage {
+    private static final double DERIVATIVE_CUTOFF = 1.0;
+    private static final double NANOS_IN_SECOND = 1e9;
+
+    private final double minCutoff;
+    private final double beta;
+    private boolean initialized;
+    private long lastNanos;
+    private double lastValue;
+    private double lastDerivative;
+
+    /**
+     * @param minCutoff
+     *            cutoff in Hz when the signal stands still
+     * @param beta
+     *            how fast the cutoff grows with the speed
+     */
+    public OneEuroStage(final double minCutoff, final double beta) {
+        checkArgument(minCutoff > 0, "Min cutoff has to be positive, was %s",
+                minCutoff);
+        checkArgument(beta >= 0, "Beta can not be negative, was %s", beta);
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        if (!initialized) {
+            initialized = true;
+            lastNanos = nanoTime;
+            lastValue = value;
+            lastDerivative = 0.0;
+            return value;
+        }
+
+        final double dt = (nanoTime - lastNanos) / NANOS_IN_SECOND;
+        if (dt <= 0) {
+            return lastValue;
+        }
+        lastNanos = nanoTime;
+
+        final double derivative = (value - lastValue) / dt;
+        lastDerivative += alpha(dt, DERIVATIVE_CUTOFF)
+                * (derivative - lastDerivative);
+
+        final double cutoff = minCutoff + beta * Math.abs(lastDerivative);
+        lastValue += alpha(dt, cutoff) * (value - lastValue);
+        return lastValue;
+    }
+
+    private static double alpha(final double dt, final double cutoff) {
+        final double tau = 1.0 / (2 * Math.PI * cutoff);
+        return 1.0 / (1.0 + tau / dt);
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minCutoff, beta);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof OneEuroStage) {
+            final OneEuroStage other = (OneEuroStage) obj;
+
+            return minCutoff == other.minCutoff && beta == other.beta;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OneEuro[minCutoff=" + minCutoff + ", beta=" + beta + "]";
+    }
+}
@@ -0,0 +1,73 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+
+/**
+ * Limits how fast the value may change, in units per second. Going back to
+ * zero is not limited, so releasing the stick stops at once.
+ */
+public class RateLimitStage implements AnalogStage {
+    private static final double NANOS_IN_SECOND = 1e9;
+
+    private final double maxRate;
+    private boolean initialized;
+    private long lastNanos;
+    private double lastValue;
+
+    public RateLimitStage(final double maxRate) {
+        checkArgument(maxRate > 0, "Max rate has to be positive, was %s",
+                maxRate);
+        this.maxRate = maxRate;
+    }
+
+    @Override
+    public double process(final double value, final long nanoTime) {
+        if (value == 0.0 || !initialized) {
+
+            // ramp starts from the rest position
+            initialized = true;
+            lastNanos = nanoTime;
+            lastValue = 0.0;
+            if (value == 0.0) {
+                return 0.0;
+            }
+        }
+
+        final double maxStep = maxRate * (nanoTime - lastNanos)
+                / NANOS_IN_SECOND;
+        lastNanos = nanoTime;
+        final double step = Math.max(-maxStep, Math.min(maxStep, value
+                - lastValue));
+        lastValue += step;
+        return lastValue;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+        lastValue = 0.0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxRate);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof RateLimitStage) {
+            final RateLimitStage other = (RateLimitStage) obj;
+
+            return maxRate == other.maxRate;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimit[" + maxRate + "/s]";
+    }
+}
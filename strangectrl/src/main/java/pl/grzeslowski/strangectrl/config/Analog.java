@@ -0,0 +1,66 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Objects.equal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+
+/**
+ * Processing of one analog axis, {@code value} is the axis name like "x" or
+ * "ry". Stages are applied in the order they are written.
+ */
+public class Analog {
+    private String value;
+    private final List<Stage> stages = new ArrayList<>();
+
+    private Analog() {
+        // for XStreamLoader
+    }
+
+    public Analog(final String value, final Stage... stages) {
+        this(value, Arrays.asList(stages));
+    }
+
+    public Analog(final String value, final List<Stage> stages) {
+        this.value = value;
+        this.stages.addAll(stages);
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public List<Stage> getStages() {
+
+        // XStream leaves the field empty when there is no stage in the XML
+        return stages == null ? Collections.<Stage> emptyList() : stages;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value, getStages());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Analog) {
+            final Analog analog = (Analog) obj;
+
+            return equal(value, analog.value)
+                    && equal(getStages(), analog.getStages());
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Analog [value=" + value + ", stages="
+                + Joiner.on(",").join(getStages()) + "]";
+    }
+}
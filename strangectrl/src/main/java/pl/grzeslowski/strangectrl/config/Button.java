@@ -1,9 +1,11 @@
 package pl.grzeslowski.strangectrl.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Joiner;
@@ -12,10 +14,18 @@ import com.google.common.base.Objects;
 public class Button {
     public static String SEQUENTIAL_TYPE = "SEQUENTIAL";
     public static String COMBO_TYPE = "COMBO";
+    public static String MACRO_TYPE = "MACRO";
+    public static String RECORD_TYPE = "RECORD";
+    public static String TURBO_TYPE = "TURBO";
+    public static final double DEFAULT_RATE = 10.0;
+    public static final double DEFAULT_DUTY_CYCLE = 0.5;
 
     private String value;
     private final List<Key> keys = new ArrayList<>();
+    private final List<Step> steps = new ArrayList<>();
     private String pressType = SEQUENTIAL_TYPE;
+    private double rate = DEFAULT_RATE;
+    private double dutyCycle = DEFAULT_DUTY_CYCLE;
 
     Button() {
         // for XStreamLoader
@@ -31,6 +41,33 @@ public class Button {
         }
     }
 
+    public Button(final String value, final String pressType,
+            final List<Key> keys, final List<Step> steps) {
+        this(value, pressType, keys);
+
+        for (final Step step : steps) {
+            this.steps.add(step);
+        }
+    }
+
+    /**
+     * Creates {@link #TURBO_TYPE} button.
+     * 
+     * @param rate
+     *            pulses per second
+     * @param dutyCycle
+     *            part of every pulse when the keys are held down
+     */
+    public Button(final String value, final List<Key> keys, final double rate,
+            final double dutyCycle) {
+        this(value, TURBO_TYPE, keys);
+        checkArgument(rate > 0, "Rate has to be positive, was %s", rate);
+        checkArgument(dutyCycle > 0 && dutyCycle < 1,
+                "Duty cycle has to be in (0, 1), was %s", dutyCycle);
+        this.rate = rate;
+        this.dutyCycle = dutyCycle;
+    }
+
     public Button(final String value, final String pressType, final Key... keys) {
         this(value, pressType, Arrays.asList(keys));
     }
@@ -55,13 +92,33 @@ public class Button {
         return keys;
     }
 
+    /**
+     * @return steps of a {@link #MACRO_TYPE} button
+     */
+    public List<Step> getSteps() {
+
+        // XStream leaves the field empty when there is no step in the XML
+        return steps == null ? Collections.<Step> emptyList() : steps;
+    }
+
     public String getPressType() {
         return pressType;
     }
 
+    /**
+     * @return pulses per second of a {@link #TURBO_TYPE} button
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public double getDutyCycle() {
+        return dutyCycle;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(value, keys);
+        return Objects.hashCode(value, keys, getSteps());
     }
 
     @Override
@@ -71,6 +128,8 @@ public class Button {
 
             return Objects.equal(value, button.value)
                     && Objects.equal(keys, button.keys)
+                    && Objects.equal(getSteps(), button.getSteps())
+                    && rate == button.rate && dutyCycle == button.dutyCycle
                     && pressType.equalsIgnoreCase(button.pressType);
         } else {
             return false;
@@ -80,7 +139,8 @@ public class Button {
     @Override
     public String toString() {
         return "Button [value=" + value + ", pressType=" + pressType
-                + ", keys=" + Joiner.on(",").join(keys) + "]";
+                + ", keys=" + Joiner.on(",").join(keys) + ", steps="
+                + Joiner.on(",").join(getSteps()) + "]";
     }
 
 }
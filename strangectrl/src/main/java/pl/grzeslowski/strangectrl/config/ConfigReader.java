@@ -19,10 +19,7 @@ public class ConfigReader {
 
     public Configuration loadConfiguration() {
         try {
-            final String parentPath = new File(getClass().getProtectionDomain()
-                    .getCodeSource().getLocation().toURI()).getParent();
-
-            final File file = new File(parentPath + CFG_FILE);
+            final File file = getExternalConfigFile();
 
             final InputStream configStream;
             if (file.isFile()) {
@@ -38,17 +35,41 @@ public class ConfigReader {
                 logger.info("Loading conf from jar");
             }
 
-            final String readedFile = readConfigFile(configStream);
-            configStream.close();
+            return loadConfiguration(configStream);
+        } catch (final IOException e) {
+            logger.error("Cannot load configuration!", e);
+            throw new RuntimeException(e);
+        }
+    }
 
-            return configLoader.loadXml(readedFile);
+    /**
+     * Loads the external configuration only, used when it changes.
+     */
+    public Configuration loadConfiguration(final File file) throws IOException {
+        logger.info("Loading conf from file " + file.getAbsolutePath());
+        return loadConfiguration(new FileInputStream(file));
+    }
 
-        } catch (final IOException e) {
+    private Configuration loadConfiguration(final InputStream configStream)
+            throws IOException {
+        final String readedFile = readConfigFile(configStream);
+        configStream.close();
+
+        return configLoader.loadXml(readedFile);
+    }
+
+    /**
+     * @return config file next to the jar, it does not have to exist
+     */
+    public File getExternalConfigFile() {
+        try {
+            final String parentPath = new File(getClass().getProtectionDomain()
+                    .getCodeSource().getLocation().toURI()).getParent();
+
+            return new File(parentPath + CFG_FILE);
+        } catch (final URISyntaxException e) {
             logger.error("Cannot load configuration!", e);
             throw new RuntimeException(e);
-        } catch (final URISyntaxException e1) {
-            logger.error("Cannot load configuration!", e1);
-            throw new RuntimeException(e1);
         }
     }
 
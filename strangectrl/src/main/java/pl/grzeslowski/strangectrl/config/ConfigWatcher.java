@@ -0,0 +1,169 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the external config file and loads it again when it is written.
+ * Everything happens on the watcher's own thread: the listener gets an
+ * already parsed {@link Configuration}. A file that cannot be loaded is
+ * logged and skipped, the previous configuration stays in use.
+ */
+public class ConfigWatcher {
+    private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory
+            .getLogger(ConfigWatcher.class);
+    public static final long DEFAULT_SETTLE_MILLIS = 200;
+
+    private final File file;
+    private final ConfigReader configReader;
+    private final Listener listener;
+    private final long settleMillis;
+    private WatchService watchService;
+    private Thread watcher;
+
+    // written only by the watcher thread
+    private volatile long reloads;
+    private volatile long failedReloads;
+
+    public interface Listener {
+        void configurationChanged(Configuration configuration);
+    }
+
+    public ConfigWatcher(final File file, final ConfigReader configReader,
+            final Listener listener) {
+        this(file, configReader, listener, DEFAULT_SETTLE_MILLIS);
+    }
+
+    /**
+     * @param settleMillis
+     *            time to wait for further writes, editors often save a file
+     *            in several steps
+     */
+    public ConfigWatcher(final File file, final ConfigReader configReader,
+            final Listener listener, final long settleMillis) {
+        checkArgument(settleMillis >= 0);
+        this.file = checkNotNull(file).getAbsoluteFile();
+        this.configReader = checkNotNull(configReader);
+        this.listener = checkNotNull(listener);
+        this.settleMillis = settleMillis;
+    }
+
+    public synchronized void start() throws IOException {
+        checkState(watchService == null);
+
+        final Path directory = file.getParentFile().toPath();
+        final WatchService service = directory.getFileSystem()
+                .newWatchService();
+        try {
+            directory.register(service, ENTRY_CREATE, ENTRY_MODIFY);
+        } catch (final IOException e) {
+            service.close();
+            throw e;
+        }
+        watchService = service;
+
+        watcher = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                watch(service);
+            }
+        }, "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching " + file);
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        checkState(watchService != null);
+
+        try {
+            watchService.close();
+        } catch (final IOException e) {
+            logger.warn("Cannot close watch service", e);
+        }
+        watcher.join();
+        watchService = null;
+        watcher = null;
+    }
+
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                if (changed(service.take())) {
+
+                    // let the writer finish, one reload for a burst of writes
+                    TimeUnit.MILLISECONDS.sleep(settleMillis);
+                    WatchKey key;
+                    while ((key = service.poll()) != null) {
+                        changed(key);
+                    }
+                    reload();
+                }
+            }
+        } catch (final ClosedWatchServiceException e) {
+            logger.debug("Stopped watching " + file);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean changed(final WatchKey key) {
+        boolean changed = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            final Object context = event.context();
+            if (context instanceof Path
+                    && file.getName().equals(context.toString())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Loads the file and passes it to the listener.
+     *
+     * @return true if the file was loaded
+     */
+    boolean reload() {
+        final Configuration configuration;
+        try {
+            configuration = configReader.loadConfiguration(file);
+        } catch (final IOException | RuntimeException e) {
+            failedReloads++;
+            logger.error("Cannot reload configuration, keeping the old one", e);
+            return false;
+        }
+
+        try {
+            listener.configurationChanged(configuration);
+        } catch (final RuntimeException e) {
+            failedReloads++;
+            logger.error("Cannot apply configuration, keeping the old one", e);
+            return false;
+        }
+        reloads++;
+        return true;
+    }
+
+    public long getReloads() {
+        return reloads;
+    }
+
+    public long getFailedReloads() {
+        return failedReloads;
+    }
+}
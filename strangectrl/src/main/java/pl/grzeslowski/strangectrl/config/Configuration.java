@@ -5,6 +5,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Joiner;
@@ -12,6 +13,7 @@ import com.google.common.base.Objects;
 
 public class Configuration {
     private final List<Button> buttons = new ArrayList<>();
+    private final List<Analog> analogs = new ArrayList<>();
     private Pov pov;
     private Setup setup = Setup.getDefaultSetup();
 
@@ -37,6 +39,12 @@ public class Configuration {
 
     }
 
+    public Configuration(final List<Button> buttons, final Pov pov,
+            final List<Analog> analogs) {
+        this(buttons, pov);
+        this.analogs.addAll(checkNotNull(analogs));
+    }
+
     public Pov getPov() {
         return pov;
     }
@@ -45,13 +53,19 @@ public class Configuration {
         return buttons;
     }
 
+    public List<Analog> getAnalogs() {
+
+        // XStream leaves the field empty when there is no analog in the XML
+        return analogs == null ? Collections.<Analog> emptyList() : analogs;
+    }
+
     public Setup getSetup() {
         return setup;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(buttons, pov, setup);
+        return Objects.hashCode(buttons, pov, setup, getAnalogs());
     }
 
     @Override
@@ -61,7 +75,8 @@ public class Configuration {
 
             return Objects.equal(buttons, configuration.buttons)
                     && Objects.equal(pov, configuration.pov)
-                    && equal(setup, configuration.setup);
+                    && equal(setup, configuration.setup)
+                    && equal(getAnalogs(), configuration.getAnalogs());
         } else {
             return false;
         }
@@ -0,0 +1,55 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Objects;
+
+/**
+ * Point of a {@link ResponseCurve#POINTS} curve, both coordinates in [0, 1].
+ */
+public class CurvePoint {
+    private double in;
+    private double out;
+
+    private CurvePoint() {
+        // for XStreamLoader
+    }
+
+    public CurvePoint(final double in, final double out) {
+        checkArgument(in >= 0 && in <= 1, "In has to be in [0, 1], was %s",
+                in);
+        checkArgument(out >= 0 && out <= 1,
+                "Out has to be in [0, 1], was %s", out);
+        this.in = in;
+        this.out = out;
+    }
+
+    public double getIn() {
+        return in;
+    }
+
+    public double getOut() {
+        return out;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(in, out);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof CurvePoint) {
+            final CurvePoint point = (CurvePoint) obj;
+
+            return in == point.in && out == point.out;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "(" + in + ", " + out + ")";
+    }
+}
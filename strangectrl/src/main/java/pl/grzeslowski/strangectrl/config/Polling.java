@@ -0,0 +1,109 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Objects.equal;
+
+import com.google.common.base.Objects;
+
+public class Polling {
+    private static final boolean ADAPTIVE = true;
+    private static final int FAST_PERIOD_MICROS = 1000;
+    private static final int IDLE_PERIOD_MILLIS = 10;
+    private static final int SLEEP_PERIOD_MILLIS = 50;
+    private static final int IDLE_AFTER_MILLIS = 1000;
+    private static final int SLEEP_AFTER_MILLIS = 60000;
+    private static final boolean MERGE_CONTROLLERS = false;
+    private static final Polling DEFAULT = new Polling(ADAPTIVE,
+            FAST_PERIOD_MICROS, IDLE_PERIOD_MILLIS, SLEEP_PERIOD_MILLIS,
+            IDLE_AFTER_MILLIS, SLEEP_AFTER_MILLIS, MERGE_CONTROLLERS);
+
+    private boolean adaptive = ADAPTIVE;
+    private int fastPeriodMicros = FAST_PERIOD_MICROS;
+    private int idlePeriodMillis = IDLE_PERIOD_MILLIS;
+    private int sleepPeriodMillis = SLEEP_PERIOD_MILLIS;
+    private int idleAfterMillis = IDLE_AFTER_MILLIS;
+    private int sleepAfterMillis = SLEEP_AFTER_MILLIS;
+    private boolean mergeControllers = MERGE_CONTROLLERS;
+
+    public static Polling getDefaultPolling() {
+        return DEFAULT;
+    }
+
+    private Polling() {
+        // for XStreamConfigLoader
+    }
+
+    public Polling(final boolean adaptive, final int fastPeriodMicros,
+            final int idlePeriodMillis, final int sleepPeriodMillis,
+            final int idleAfterMillis, final int sleepAfterMillis,
+            final boolean mergeControllers) {
+        this.adaptive = adaptive;
+        this.fastPeriodMicros = fastPeriodMicros;
+        this.idlePeriodMillis = idlePeriodMillis;
+        this.sleepPeriodMillis = sleepPeriodMillis;
+        this.idleAfterMillis = idleAfterMillis;
+        this.sleepAfterMillis = sleepAfterMillis;
+        this.mergeControllers = mergeControllers;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public int getFastPeriodMicros() {
+        return fastPeriodMicros;
+    }
+
+    public int getIdlePeriodMillis() {
+        return idlePeriodMillis;
+    }
+
+    public int getSleepPeriodMillis() {
+        return sleepPeriodMillis;
+    }
+
+    public int getIdleAfterMillis() {
+        return idleAfterMillis;
+    }
+
+    public int getSleepAfterMillis() {
+        return sleepAfterMillis;
+    }
+
+    public boolean isMergeControllers() {
+        return mergeControllers;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(adaptive, fastPeriodMicros, idlePeriodMillis,
+                sleepPeriodMillis, idleAfterMillis, sleepAfterMillis,
+                mergeControllers);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Polling) {
+            final Polling polling = (Polling) obj;
+
+            return equal(adaptive, polling.adaptive)
+                    && equal(fastPeriodMicros, polling.fastPeriodMicros)
+                    && equal(idlePeriodMillis, polling.idlePeriodMillis)
+                    && equal(sleepPeriodMillis, polling.sleepPeriodMillis)
+                    && equal(idleAfterMillis, polling.idleAfterMillis)
+                    && equal(sleepAfterMillis, polling.sleepAfterMillis)
+                    && equal(mergeControllers, polling.mergeControllers);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Polling [adaptive=" + adaptive + ", fastPeriodMicros="
+                + fastPeriodMicros + ", idlePeriodMillis=" + idlePeriodMillis
+                + ", sleepPeriodMillis=" + sleepPeriodMillis
+                + ", idleAfterMillis=" + idleAfterMillis
+                + ", sleepAfterMillis=" + sleepAfterMillis
+                + ", mergeControllers=" + mergeControllers + "]";
+    }
+}
@@ -0,0 +1,148 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+
+/**
+ * Maps stick deflection (0 - dead zone edge, 1 - full deflection) to speed,
+ * also in [0, 1]. Types:
+ * <ul>
+ * <li>{@value #LINEAR} - no change</li>
+ * <li>{@value #EXPONENTIAL} - {@code x^exponent}, precise at low deflection</li>
+ * <li>{@value #S_CURVE} - {@code x^e / (x^e + (1 - x)^e)}, slow at both ends</li>
+ * <li>{@value #POINTS} - straight lines between the points, (0, 0) and (1, 1)
+ * are added when missing</li>
+ * </ul>
+ */
+public class ResponseCurve {
+    public static final String LINEAR = "LINEAR";
+    public static final String EXPONENTIAL = "EXPONENTIAL";
+    public static final String S_CURVE = "S_CURVE";
+    public static final String POINTS = "POINTS";
+    private static final double EXPONENT = 2.0;
+    private static final ResponseCurve LINEAR_CURVE = new ResponseCurve(
+            LINEAR, EXPONENT);
+
+    private String type = LINEAR;
+    private double exponent = EXPONENT;
+    private final List<CurvePoint> points = new ArrayList<>();
+
+    public static ResponseCurve getLinearCurve() {
+        return LINEAR_CURVE;
+    }
+
+    private ResponseCurve() {
+        // for XStreamConfigLoader
+    }
+
+    public ResponseCurve(final String type, final double exponent) {
+        checkArgument(exponent > 0, "Exponent has to be positive, was %s",
+                exponent);
+        this.type = checkNotNull(type);
+        this.exponent = exponent;
+    }
+
+    public ResponseCurve(final CurvePoint... points) {
+        this(Arrays.asList(points));
+    }
+
+    public ResponseCurve(final List<CurvePoint> points) {
+        this.type = POINTS;
+        this.points.addAll(points);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    public List<CurvePoint> getPoints() {
+
+        // XStream leaves the field empty when there is no point in the XML
+        return points == null ? Collections.<CurvePoint> emptyList() : points;
+    }
+
+    /**
+     * Slow, used only to build lookup tables.
+     */
+    public double evaluate(final double x) {
+        final double in = Math.max(0.0, Math.min(1.0, x));
+        switch (type.toUpperCase(Locale.US)) {
+        case LINEAR:
+            return in;
+        case EXPONENTIAL:
+            return Math.pow(in, exponent);
+        case S_CURVE:
+            final double up = Math.pow(in, exponent);
+            return up / (up + Math.pow(1.0 - in, exponent));
+        case POINTS:
+            return interpolate(in);
+        default:
+            throw new IllegalStateException("Don't know this curve type ("
+                    + type + ")");
+        }
+    }
+
+    private double interpolate(final double in) {
+        double lastIn = 0.0;
+        double lastOut = 0.0;
+        for (final CurvePoint point : getPoints()) {
+            checkState(point.getIn() >= lastIn,
+                    "Points have to be sorted by in");
+            if (in <= point.getIn()) {
+                final double width = point.getIn() - lastIn;
+                if (width == 0.0) {
+                    return point.getOut();
+                }
+                return lastOut + (point.getOut() - lastOut)
+                        * (in - lastIn) / width;
+            }
+            lastIn = point.getIn();
+            lastOut = point.getOut();
+        }
+
+        final double width = 1.0 - lastIn;
+        if (width == 0.0) {
+            return lastOut;
+        }
+        return lastOut + (1.0 - lastOut) * (in - lastIn) / width;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(type, exponent, getPoints());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof ResponseCurve) {
+            final ResponseCurve curve = (ResponseCurve) obj;
+
+            return type.equalsIgnoreCase(curve.type)
+                    && exponent == curve.exponent
+                    && equal(getPoints(), curve.getPoints());
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCurve [type=" + type + ", exponent=" + exponent
+                + ", points=" + Joiner.on(",").join(getPoints()) + "]";
+    }
+}
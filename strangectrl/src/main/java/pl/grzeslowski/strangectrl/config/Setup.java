@@ -1,6 +1,7 @@
 package pl.grzeslowski.strangectrl.config;
 
 import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Objects;
 
@@ -9,6 +10,8 @@ public class Setup {
     private static final int TIME_REFRESHER = 10;
     private static final int CHECK_NEW_CONTROLLERS_DELAY = 10;
     private static final int SCROLL_LINES = 3;
+    private static final boolean CONTINUOUS_SCROLL = false;
+    private static final int SCROLL_SPEED = 20;
     private static final Setup DEFAULT = new Setup(MAX_MOUSE_MOVE,
             TIME_REFRESHER, CHECK_NEW_CONTROLLERS_DELAY, SCROLL_LINES);
 
@@ -16,6 +19,10 @@ public class Setup {
     private int timeRefresher = TIME_REFRESHER;
     private int checkNewControllersDelay = CHECK_NEW_CONTROLLERS_DELAY;
     private int scrollLines = SCROLL_LINES;
+    private Polling polling = Polling.getDefaultPolling();
+    private ResponseCurve mouseCurve = ResponseCurve.getLinearCurve();
+    private boolean continuousScroll = CONTINUOUS_SCROLL;
+    private int scrollSpeed = SCROLL_SPEED;
 
     public static Setup getDefaultSetup() {
         return DEFAULT;
@@ -27,10 +34,36 @@ public class Setup {
 
     public Setup(final int maxMouseMove, final int timeRefresher,
             final int checkNewControllersDelay, final int scrollLines) {
+        this(maxMouseMove, timeRefresher, checkNewControllersDelay,
+                scrollLines, Polling.getDefaultPolling());
+    }
+
+    public Setup(final int maxMouseMove, final int timeRefresher,
+            final int checkNewControllersDelay, final int scrollLines,
+            final Polling polling) {
         this.maxMouseMove = maxMouseMove;
         this.timeRefresher = timeRefresher;
         this.checkNewControllersDelay = checkNewControllersDelay;
         this.scrollLines = scrollLines;
+        this.polling = checkNotNull(polling);
+    }
+
+    public Setup(final int maxMouseMove, final int timeRefresher,
+            final int checkNewControllersDelay, final int scrollLines,
+            final Polling polling, final ResponseCurve mouseCurve) {
+        this(maxMouseMove, timeRefresher, checkNewControllersDelay,
+                scrollLines, polling);
+        this.mouseCurve = checkNotNull(mouseCurve);
+    }
+
+    public Setup(final int maxMouseMove, final int timeRefresher,
+            final int checkNewControllersDelay, final int scrollLines,
+            final Polling polling, final ResponseCurve mouseCurve,
+            final boolean continuousScroll, final int scrollSpeed) {
+        this(maxMouseMove, timeRefresher, checkNewControllersDelay,
+                scrollLines, polling, mouseCurve);
+        this.continuousScroll = continuousScroll;
+        this.scrollSpeed = scrollSpeed;
     }
 
     public int getMaxMouseMove() {
@@ -49,10 +82,37 @@ public class Setup {
         return scrollLines;
     }
 
+    public Polling getPolling() {
+        return polling;
+    }
+
+    /**
+     * @return curve of the stick moving the mouse
+     */
+    public ResponseCurve getMouseCurve() {
+        return mouseCurve;
+    }
+
+    /**
+     * @return {@code true} when the right stick scrolls all the time it is
+     *         deflected, instead of one flick = {@link #getScrollLines()}
+     */
+    public boolean isContinuousScroll() {
+        return continuousScroll;
+    }
+
+    /**
+     * @return notches per second of continuous scroll at full deflection
+     */
+    public int getScrollSpeed() {
+        return scrollSpeed;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hashCode(maxMouseMove, timeRefresher,
-                checkNewControllersDelay, scrollLines);
+                checkNewControllersDelay, scrollLines, polling, mouseCurve,
+                continuousScroll, scrollSpeed);
     }
 
     @Override
@@ -64,7 +124,11 @@ public class Setup {
                     && equal(timeRefresher, setup.timeRefresher)
                     && equal(checkNewControllersDelay,
                             setup.checkNewControllersDelay)
-                            && equal(scrollLines, setup.scrollLines);
+                            && equal(scrollLines, setup.scrollLines)
+                            && equal(polling, setup.polling)
+                            && equal(mouseCurve, setup.mouseCurve)
+                            && equal(continuousScroll, setup.continuousScroll)
+                            && equal(scrollSpeed, setup.scrollSpeed);
         } else {
             return false;
         }
@@ -75,7 +139,9 @@ public class Setup {
         return "Setup [maxMouseMove=" + maxMouseMove + ", timeRefresher="
                 + timeRefresher + ", checkNewControllersDelay="
                 + checkNewControllersDelay + ", scrollLines=" + scrollLines
-                + "]";
+                + ", polling=" + polling + ", mouseCurve=" + mouseCurve
+                + ", continuousScroll=" + continuousScroll + ", scrollSpeed="
+                + scrollSpeed + "]";
     }
 
 }
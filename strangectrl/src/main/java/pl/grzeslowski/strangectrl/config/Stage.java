@@ -0,0 +1,95 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Objects;
+
+/**
+ * One stage of an {@link Analog} axis:
+ * <ul>
+ * <li>{@value #DEAD_ZONE} - axial dead zone of size {@code value}</li>
+ * <li>{@value #RADIAL_DEAD_ZONE} - dead zone of size {@code value} for the
+ * whole stick, only for the mouse stick axes; if both axes set it, the values
+ * have to be the same</li>
+ * <li>{@value #ANTI_DEAD_ZONE} - smallest non zero output {@code value}</li>
+ * <li>{@value #CURVE} - the nested {@code curve}</li>
+ * <li>{@value #EMA} - moving average, {@code value} is the weight of a new
+ * value per 10 ms</li>
+ * <li>{@value #ONE_EURO} - One Euro filter, {@code value} is min cutoff in Hz
+ * and {@code param} is beta</li>
+ * <li>{@value #RATE_LIMIT} - {@code value} is max change per second</li>
+ * </ul>
+ */
+public class Stage {
+    public static final String DEAD_ZONE = "DEAD_ZONE";
+    public static final String RADIAL_DEAD_ZONE = "RADIAL_DEAD_ZONE";
+    public static final String ANTI_DEAD_ZONE = "ANTI_DEAD_ZONE";
+    public static final String CURVE = "CURVE";
+    public static final String EMA = "EMA";
+    public static final String ONE_EURO = "ONE_EURO";
+    public static final String RATE_LIMIT = "RATE_LIMIT";
+
+    private String type;
+    private double value;
+    private double param;
+    private ResponseCurve curve;
+
+    private Stage() {
+        // for XStreamLoader
+    }
+
+    public Stage(final String type, final double value) {
+        this(type, value, 0.0);
+    }
+
+    public Stage(final String type, final double value, final double param) {
+        this.type = checkNotNull(type);
+        this.value = value;
+        this.param = param;
+    }
+
+    public Stage(final ResponseCurve curve) {
+        this.type = CURVE;
+        this.curve = checkNotNull(curve);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getParam() {
+        return param;
+    }
+
+    public ResponseCurve getCurve() {
+        return curve;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(type, value, param, curve);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Stage) {
+            final Stage stage = (Stage) obj;
+
+            return equal(type, stage.type) && value == stage.value
+                    && param == stage.param && equal(curve, stage.curve);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Stage[" + type + ", value=" + value + ", param=" + param
+                + (curve != null ? ", " + curve : "") + "]";
+    }
+}
@@ -0,0 +1,80 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Objects;
+
+/**
+ * One step of a macro button. The step waits {@code delay} ms after the
+ * previous one and then does {@code action} with {@code value}:
+ * <ul>
+ * <li>{@value #KEY_PRESS}, {@value #KEY_RELEASE} - key name, like in
+ * {@link Key}</li>
+ * <li>{@value #MOUSE_PRESS}, {@value #MOUSE_RELEASE} - LEFT, RIGHT or CENTER</li>
+ * <li>{@value #MOUSE_MOVE} - absolute position as "x,y"</li>
+ * <li>{@value #MOUSE_WHEEL} - notches to scroll</li>
+ * </ul>
+ */
+public class Step {
+    public static final String KEY_PRESS = "KEY_PRESS";
+    public static final String KEY_RELEASE = "KEY_RELEASE";
+    public static final String MOUSE_PRESS = "MOUSE_PRESS";
+    public static final String MOUSE_RELEASE = "MOUSE_RELEASE";
+    public static final String MOUSE_MOVE = "MOUSE_MOVE";
+    public static final String MOUSE_WHEEL = "MOUSE_WHEEL";
+
+    private String action;
+    private String value;
+    private int delay;
+
+    private Step() {
+        // for XStreamLoader
+    }
+
+    public Step(final String action, final String value) {
+        this(action, value, 0);
+    }
+
+    public Step(final String action, final String value, final int delay) {
+        checkArgument(delay >= 0);
+        this.action = checkNotNull(action);
+        this.value = checkNotNull(value);
+        this.delay = delay;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getDelay() {
+        return delay;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(action, value, delay);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof Step) {
+            final Step step = (Step) obj;
+
+            return equal(action, step.action) && equal(value, step.value)
+                    && delay == step.delay;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Step[" + action + " " + value + " after " + delay + "ms]";
+    }
+}
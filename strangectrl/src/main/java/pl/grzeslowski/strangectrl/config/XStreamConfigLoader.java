@@ -14,20 +14,48 @@ public class XStreamConfigLoader implements ConfigLoader {
         xstream.alias("configuration", Configuration.class);
         xstream.alias("button", Button.class);
         xstream.alias("key", Key.class);
+        xstream.alias("step", Step.class);
         xstream.alias("setup", Setup.class);
+        xstream.alias("polling", Polling.class);
+        xstream.alias("curve", ResponseCurve.class);
+        xstream.alias("point", CurvePoint.class);
+        xstream.alias("analog", Analog.class);
+        xstream.alias("stage", Stage.class);
 
         xstream.alias("pov", Pov.class);
         xstream.alias("pov_button", Button.class);
 
         // creating implicit collections
-        xstream.addImplicitCollection(Configuration.class, "buttons");
+        xstream.addImplicitCollection(Configuration.class, "buttons",
+                Button.class);
+        xstream.addImplicitCollection(Configuration.class, "analogs",
+                Analog.class);
         xstream.addImplicitCollection(Pov.class, "povDirections");
         xstream.addImplicitCollection(Button.class, "keys", "key", Key.class);
+        xstream.addImplicitCollection(Button.class, "steps", "step",
+                Step.class);
+        xstream.addImplicitCollection(ResponseCurve.class, "points", "point",
+                CurvePoint.class);
+        xstream.addImplicitCollection(Analog.class, "stages", "stage",
+                Stage.class);
 
         // attributes
         xstream.useAttributeFor(Button.class, "value");
         xstream.useAttributeFor(Button.class, "pressType");
+        xstream.useAttributeFor(Button.class, "rate");
+        xstream.useAttributeFor(Button.class, "dutyCycle");
         xstream.useAttributeFor(Key.class, "key");
+        xstream.useAttributeFor(Step.class, "action");
+        xstream.useAttributeFor(Step.class, "value");
+        xstream.useAttributeFor(Step.class, "delay");
+        xstream.useAttributeFor(ResponseCurve.class, "type");
+        xstream.useAttributeFor(ResponseCurve.class, "exponent");
+        xstream.useAttributeFor(CurvePoint.class, "in");
+        xstream.useAttributeFor(CurvePoint.class, "out");
+        xstream.useAttributeFor(Analog.class, "value");
+        xstream.useAttributeFor(Stage.class, "type");
+        xstream.useAttributeFor(Stage.class, "value");
+        xstream.useAttributeFor(Stage.class, "param");
     }
 
     @Override
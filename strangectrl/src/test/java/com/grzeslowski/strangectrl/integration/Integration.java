@@ -10,11 +10,10 @@ import org.junit.Test;
 import pl.grzeslowski.strangectrl.cmd.ComboKeyCommand;
 import pl.grzeslowski.strangectrl.cmd.CommandFactory;
 import pl.grzeslowski.strangectrl.cmd.MouseCommand;
-import pl.grzeslowski.strangectrl.cmd.MouseMoveXCommand;
-import pl.grzeslowski.strangectrl.cmd.MouseMoveYCommand;
 import pl.grzeslowski.strangectrl.cmd.MouseWheelCommand;
 import pl.grzeslowski.strangectrl.cmd.PovKeyCommand;
 import pl.grzeslowski.strangectrl.cmd.SequentialKeyCommand;
+import pl.grzeslowski.strangectrl.cmd.StickCommand;
 import pl.grzeslowski.strangectrl.config.ConfigReader;
 import pl.grzeslowski.strangectrl.config.Configuration;
 import pl.grzeslowski.strangectrl.config.Key;
@@ -24,6 +23,7 @@ import com.xafero.strangectrl.awt.DesktopUtils;
 import com.xafero.strangectrl.cmd.ICommand;
 import com.xafero.strangectrl.input.InputUtils;
 import com.xafero.strangectrl.input.InputUtils.MouseButton;
+import com.xafero.strangectrl.input.PointerEngine;
 
 public class Integration {
 
@@ -60,8 +60,9 @@ public class Integration {
         final ICommand wE = new PovKeyCommand(new SequentialKeyCommand(new Key("LEFT"), inputUtils));
 
         // analogs
-        final ICommand mouseXE = new MouseMoveXCommand(inputUtils, setup.getMaxMouseMove(), CommandFactory.DELTA_FOR_MOUSE_MOVE, desktopUtils);
-        final ICommand mouseYE = new MouseMoveYCommand(inputUtils, setup.getMaxMouseMove(), CommandFactory.DELTA_FOR_MOUSE_MOVE, desktopUtils);
+        final StickCommand stickE = new StickCommand(setup.getMaxMouseMove(), CommandFactory.DELTA_FOR_MOUSE_MOVE, new PointerEngine(inputUtils, desktopUtils));
+        final ICommand mouseXE = stickE.getAxisCommand(StickCommand.Axis.X);
+        final ICommand mouseYE = stickE.getAxisCommand(StickCommand.Axis.Y);
         final ICommand scrollE = new MouseWheelCommand(inputUtils, setup.getScrollLines(), CommandFactory.DELTA_FOR_SCROLL);
 
         // @formatter:on
@@ -0,0 +1,87 @@
+package com.xafero.strangectrl.awt;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.Rectangle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Supplier;
+
+public class ScreenTopologyTest {
+    private final GraphicsDevice left = mock(GraphicsDevice.class);
+    private final GraphicsDevice right = mock(GraphicsDevice.class);
+    private final GraphicsConfiguration leftConfiguration = mock(GraphicsConfiguration.class);
+    private final GraphicsConfiguration rightConfiguration = mock(GraphicsConfiguration.class);
+    private GraphicsDevice[] devices = { left, right };
+    private ScreenTopology screenTopology;
+
+    @Before
+    public void setUp() {
+        when(left.getDefaultConfiguration()).thenReturn(leftConfiguration);
+        when(right.getDefaultConfiguration()).thenReturn(rightConfiguration);
+        when(leftConfiguration.getBounds()).thenReturn(
+                new Rectangle(0, 0, 1920, 1080));
+        when(rightConfiguration.getBounds()).thenReturn(
+                new Rectangle(1920, 0, 1280, 1024));
+
+        screenTopology = new ScreenTopology(new Supplier<GraphicsDevice[]>() {
+
+            @Override
+            public GraphicsDevice[] get() {
+                return devices;
+            }
+        });
+    }
+
+    @Test
+    public void find_screens_without_asking_devices() {
+
+        // when
+        final Rectangle bounds = screenTopology.getBounds(right);
+        final GraphicsDevice leftAt = screenTopology.getDeviceAt(1919, 500);
+        final GraphicsDevice rightAt = screenTopology.getDeviceAt(1920, 500);
+        final GraphicsDevice none = screenTopology.getDeviceAt(2000, 1050);
+
+        // then
+        assertThat(bounds).isEqualTo(new Rectangle(1920, 0, 1280, 1024));
+        assertThat(leftAt).isSameAs(left);
+        assertThat(rightAt).isSameAs(right);
+        assertThat(none).isNull();
+        assertThat(screenTopology.getDesktopBounds()).isEqualTo(
+                new Rectangle(0, 0, 3200, 1080));
+        verify(right, times(1)).getDefaultConfiguration();
+    }
+
+    @Test
+    public void tell_listeners_only_about_changes() {
+
+        // given
+        final ScreenTopology.Listener listener = mock(ScreenTopology.Listener.class);
+        screenTopology.addListener(listener);
+
+        // when
+        final boolean unchanged = screenTopology.refresh();
+        when(rightConfiguration.getBounds()).thenReturn(
+                new Rectangle(-1280, 0, 1280, 1024));
+        final boolean moved = screenTopology.refresh();
+        devices = new GraphicsDevice[] { left };
+        final boolean removed = screenTopology.refresh();
+
+        // then
+        assertThat(unchanged).isFalse();
+        assertThat(moved).isTrue();
+        assertThat(removed).isTrue();
+        verify(listener, times(2)).screensChanged(screenTopology);
+        assertThat(screenTopology.getDeviceAt(-10, 10)).isNull();
+        assertThat(screenTopology.getBounds(right)).isNull();
+        assertThat(screenTopology.getScreenCount()).isEqualTo(1);
+    }
+}
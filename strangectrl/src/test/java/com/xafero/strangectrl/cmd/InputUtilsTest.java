@@ -1,5 +1,6 @@
 package com.xafero.strangectrl.cmd;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -18,6 +19,8 @@ import pl.grzeslowski.strangectrl.config.Key;
 
 import com.xafero.strangectrl.input.InputUtils;
 import com.xafero.strangectrl.input.InputUtils.MouseButton;
+import com.xafero.strangectrl.input.Macro;
+import com.xafero.strangectrl.output.RecordingBackend;
 
 public class InputUtilsTest {
 
@@ -125,6 +128,28 @@ public class InputUtilsTest {
         verify(robot).mouseMove(10, 20);
     }
 
+    @Test
+    public void mouse_move_by() throws Exception {
+
+        // given
+        final RecordingBackend backend = new RecordingBackend(4);
+        final InputUtils inputUtils = new InputUtils(backend);
+        inputUtils.getMacroRecorder().start();
+
+        // when
+        inputUtils.moveMouseBy(5, -3);
+
+        // then
+        assertThat(backend.size()).isEqualTo(1);
+        assertThat(backend.getOp(0)).isEqualTo(RecordingBackend.MOUSE_MOVE_BY);
+        assertThat(backend.getFirstArg(0)).isEqualTo(5);
+        assertThat(backend.getSecondArg(0)).isEqualTo(-3);
+        final Macro macro = inputUtils.getMacroRecorder().stop();
+        assertThat(macro.getOp(0)).isEqualTo(Macro.MOUSE_MOVE_BY);
+        assertThat(Macro.unpackX(macro.getArg(0))).isEqualTo(5);
+        assertThat(Macro.unpackY(macro.getArg(0))).isEqualTo(-3);
+    }
+
     @Test
     public void mouse_press_left() throws Exception {
 
@@ -326,4 +351,27 @@ public class InputUtilsTest {
         verify(robot, times(2)).mousePress(MouseButton.LEFT.getButtonMask());
         verify(robot, times(1)).mouseRelease(MouseButton.LEFT.getButtonMask());
     }
+
+    @Test
+    public void track_pressed_keys() throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final InputUtils inputUtils = new InputUtils(robot);
+
+        // when
+        inputUtils.pressKey(new Key("SHIFT"), new Key("Q"), new Key("F12"));
+        inputUtils.releaseKey(new Key("Q"));
+        inputUtils.mousePressRight();
+
+        // then
+        assertThat(inputUtils.isPressed(KeyEvent.VK_SHIFT)).isTrue();
+        assertThat(inputUtils.isPressed(KeyEvent.VK_Q)).isFalse();
+        assertThat(inputUtils.getPressedKeyCodes()).isEqualTo(
+                new int[] { KeyEvent.VK_SHIFT, KeyEvent.VK_F12 });
+        assertThat(inputUtils.getPressedKeysCount()).isEqualTo(2);
+        assertThat(inputUtils.isPressed(MouseButton.RIGHT)).isTrue();
+        assertThat(inputUtils.isPressed(MouseButton.LEFT)).isFalse();
+        assertThat(inputUtils.getPressedMouseButtonsCount()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,92 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+public class AdaptivePollingRateTest {
+    private static final long FAST = 1;
+    private static final long IDLE = 10;
+    private static final long SLEEP = 100;
+    private static final long IDLE_AFTER = 1000;
+    private static final long SLEEP_AFTER = 5000;
+
+    @Test
+    public void sleep_when_there_is_no_controller() throws Exception {
+
+        // given
+        final PollActivity activity = mock(PollActivity.class);
+        when(activity.hasControllers()).thenReturn(false);
+        final AdaptivePollingRate rate = newRate(activity);
+
+        // when
+        final long period = rate.nextPeriodNanos(0);
+
+        // then
+        assertThat(period).isEqualTo(SLEEP);
+    }
+
+    @Test
+    public void poll_fast_when_busy() throws Exception {
+
+        // given
+        final PollActivity activity = mock(PollActivity.class);
+        when(activity.hasControllers()).thenReturn(true);
+        when(activity.isBusy()).thenReturn(true);
+        final AdaptivePollingRate rate = newRate(activity);
+
+        // when
+        final long period = rate.nextPeriodNanos(0);
+
+        // then
+        assertThat(period).isEqualTo(FAST);
+    }
+
+    @Test
+    public void decay_after_idle_thresholds() throws Exception {
+
+        // given
+        final PollActivity activity = mock(PollActivity.class);
+        when(activity.hasControllers()).thenReturn(true);
+        when(activity.isBusy()).thenReturn(true, false);
+        final AdaptivePollingRate rate = newRate(activity);
+
+        // when
+        final long busy = rate.nextPeriodNanos(0);
+        final long stillFast = rate.nextPeriodNanos(IDLE_AFTER - 1);
+        final long idle = rate.nextPeriodNanos(IDLE_AFTER);
+        final long sleep = rate.nextPeriodNanos(SLEEP_AFTER);
+
+        // then
+        assertThat(busy).isEqualTo(FAST);
+        assertThat(stillFast).isEqualTo(FAST);
+        assertThat(idle).isEqualTo(IDLE);
+        assertThat(sleep).isEqualTo(SLEEP);
+    }
+
+    @Test
+    public void go_back_to_fast_after_new_activity() throws Exception {
+
+        // given
+        final PollActivity activity = mock(PollActivity.class);
+        when(activity.hasControllers()).thenReturn(true);
+        when(activity.isBusy()).thenReturn(true, false, true);
+        final AdaptivePollingRate rate = newRate(activity);
+
+        // when
+        rate.nextPeriodNanos(0);
+        final long sleep = rate.nextPeriodNanos(SLEEP_AFTER);
+        final long fast = rate.nextPeriodNanos(SLEEP_AFTER + 1);
+
+        // then
+        assertThat(sleep).isEqualTo(SLEEP);
+        assertThat(fast).isEqualTo(FAST);
+    }
+
+    private AdaptivePollingRate newRate(final PollActivity activity) {
+        return new AdaptivePollingRate(activity, FAST, IDLE, SLEEP,
+                IDLE_AFTER, SLEEP_AFTER);
+    }
+}
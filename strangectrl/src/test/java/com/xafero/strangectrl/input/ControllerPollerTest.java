@@ -1,24 +1,32 @@
 package com.xafero.strangectrl.input;
 
-import static org.mockito.Mockito.atLeast;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import net.java.games.input.Controller;
+import net.java.games.input.Controller.Type;
 import net.java.games.input.EventQueue;
 
 import org.junit.Test;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.xafero.strangectrl.output.OutputFrame;
+import com.xafero.strangectrl.output.RecordingBackend;
 
 public class ControllerPollerTest {
 
@@ -31,20 +39,9 @@ public class ControllerPollerTest {
 
         final IControllerCallback callback = mock(IControllerCallback.class);
 
-        final AtomicInteger times = new AtomicInteger();
         final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
-        when(controllersRefresher.getController()).then(new Answer<Set<?>>() {
-
-            @Override
-            public Set<?> answer(final InvocationOnMock invocation)
-                    throws Throwable {
-                if (times.getAndIncrement() == 0) {
-                    return Sets.newHashSet(controller);
-                } else {
-                    return new HashSet<>();
-                }
-            }
-        });
+        final ControllerSnapshot snapshot = snapshot(controller);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
 
         final ControllerPoller poller = spy(new ControllerPoller(callback,
                 controllersRefresher));
@@ -76,20 +73,9 @@ public class ControllerPollerTest {
         });
         when(controller.getEventQueue()).thenReturn(new EventQueue(0));
 
-        final AtomicInteger times = new AtomicInteger();
         final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
-        when(controllersRefresher.getController()).then(new Answer<Set<?>>() {
-
-            @Override
-            public Set<?> answer(final InvocationOnMock invocation)
-                    throws Throwable {
-                if (times.getAndIncrement() == 0) {
-                    return Sets.newHashSet(controller);
-                } else {
-                    return new HashSet<>();
-                }
-            }
-        });
+        final ControllerSnapshot snapshot = snapshot(controller);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
 
         final IControllerCallback callback = mock(IControllerCallback.class);
 
@@ -107,7 +93,8 @@ public class ControllerPollerTest {
     }
 
     @Test
-    public void refresh_controllers_when_queue_is_empty() throws Exception {
+    public void lost_controller_is_not_polled_until_discovery_drops_it()
+            throws Exception {
 
         // given
         final Controller controller = mock(Controller.class);
@@ -115,20 +102,9 @@ public class ControllerPollerTest {
 
         final IControllerCallback callback = mock(IControllerCallback.class);
 
-        final AtomicInteger times = new AtomicInteger();
         final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
-        when(controllersRefresher.getController()).then(new Answer<Set<?>>() {
-
-            @Override
-            public Set<?> answer(final InvocationOnMock invocation)
-                    throws Throwable {
-                if (times.getAndIncrement() == 0) {
-                    return Sets.newHashSet(controller);
-                } else {
-                    return new HashSet<>();
-                }
-            }
-        });
+        final ControllerSnapshot snapshot = snapshot(controller);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
 
         final ControllerPoller poller = spy(new ControllerPoller(callback,
                 controllersRefresher));
@@ -136,10 +112,12 @@ public class ControllerPollerTest {
         // when
         poller.run();
         poller.run();
+        poller.run();
 
         // then
         verify(callback).controllerRemoved();
-        verify(controllersRefresher, times(1)).getController();
+        verify(controller, times(1)).poll();
+        assertThat(poller.hasControllers()).isFalse();
     }
 
     @Test
@@ -155,24 +133,11 @@ public class ControllerPollerTest {
 
         final IControllerCallback callback = mock(IControllerCallback.class);
 
-        final AtomicInteger times = new AtomicInteger();
         final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
-        when(controllersRefresher.getController()).then(new Answer<Set<?>>() {
-
-            @Override
-            public Set<?> answer(final InvocationOnMock invocation)
-                    throws Throwable {
-                if (times.get() == 0) {
-                    times.incrementAndGet();
-                    return Sets.newHashSet(controller);
-                } else if (times.get() == 1) {
-                    times.incrementAndGet();
-                    return Sets.newHashSet(controller2);
-                } else {
-                    return new HashSet<>();
-                }
-            }
-        });
+        final ControllerSnapshot snapshot1 = snapshot(controller);
+        final ControllerSnapshot snapshot2 = snapshot(controller2);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot1,
+                snapshot2, ControllerSnapshot.EMPTY);
 
         final ControllerPoller poller = spy(new ControllerPoller(callback,
                 controllersRefresher));
@@ -185,8 +150,239 @@ public class ControllerPollerTest {
 
         // then
         verify(callback, times(2)).controllerRemoved();
-        verify(controllersRefresher, atLeast(1)).getController();
-        verify(controller).poll();
         verify(controller, times(1)).poll();
+        verify(controller2, times(1)).poll();
+    }
+
+    @Test
+    public void every_controller_has_own_callback() throws Exception {
+
+        // given
+        final Controller controller = mock(Controller.class);
+        when(controller.poll()).thenReturn(false);
+
+        final Controller controller2 = mock(Controller.class);
+        when(controller2.poll()).thenReturn(false);
+
+        final IControllerCallback callback = mock(IControllerCallback.class);
+        final IControllerCallback callback2 = mock(IControllerCallback.class);
+        final ControllerCallbackFactory callbackFactory = mock(ControllerCallbackFactory.class);
+        when(callbackFactory.createCallback(controller)).thenReturn(callback);
+        when(callbackFactory.createCallback(controller2)).thenReturn(
+                callback2);
+
+        final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
+        final ControllerSnapshot snapshot = snapshot(controller, controller2);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
+
+        final ControllerPoller poller = new ControllerPoller(callbackFactory,
+                controllersRefresher, MoreExecutors.sameThreadExecutor());
+
+        // when
+        poller.run();
+        poller.run();
+
+        // then
+        verify(callback).doPeriodCommands();
+        verify(callback).controllerRemoved();
+        verify(callback2).doPeriodCommands();
+        verify(callback2).controllerRemoved();
+    }
+
+    @Test
+    public void plug_in_second_controller_while_first_is_polled()
+            throws Exception {
+
+        // given
+        final Controller controller = mock(Controller.class);
+        when(controller.poll()).thenReturn(true);
+        when(controller.getEventQueue()).thenReturn(new EventQueue(0));
+
+        final Controller controller2 = mock(Controller.class);
+        when(controller2.poll()).thenReturn(true);
+        when(controller2.getEventQueue()).thenReturn(new EventQueue(0));
+
+        final IControllerCallback callback = mock(IControllerCallback.class);
+        final IControllerCallback callback2 = mock(IControllerCallback.class);
+        final ControllerCallbackFactory callbackFactory = mock(ControllerCallbackFactory.class);
+        when(callbackFactory.createCallback(controller)).thenReturn(callback);
+        when(callbackFactory.createCallback(controller2)).thenReturn(
+                callback2);
+
+        final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
+        final ControllerSnapshot snapshot1 = snapshot(controller);
+        final ControllerSnapshot snapshot2 = snapshot(controller, controller2);
+        final ControllerSnapshot snapshot3 = snapshot(controller2);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot1,
+                snapshot2, snapshot3);
+
+        final ControllerPoller poller = new ControllerPoller(callbackFactory,
+                controllersRefresher, MoreExecutors.sameThreadExecutor());
+
+        // when
+        poller.run();
+        poller.run();
+        poller.run();
+
+        // then
+        verify(controller, times(2)).poll();
+        verify(controller2, times(2)).poll();
+        verify(callback).controllerRemoved();
+        verify(callback2, never()).controllerRemoved();
+    }
+
+    @Test
+    public void pass_actions_of_all_lanes_as_one_frame() throws Exception {
+
+        // given
+        final RecordingBackend backend = new RecordingBackend(8);
+        final OutputFrame frame = new OutputFrame(backend);
+        final Answer<Void> moveRight = new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+                    throws Throwable {
+                frame.mouseMoveBy(1, 0);
+                return null;
+            }
+        };
+
+        final Controller controller = mock(Controller.class);
+        when(controller.poll()).thenReturn(true);
+        when(controller.getEventQueue()).thenReturn(new EventQueue(0));
+        final Controller controller2 = mock(Controller.class);
+        when(controller2.poll()).thenReturn(true);
+        when(controller2.getEventQueue()).thenReturn(new EventQueue(0));
+
+        final IControllerCallback callback = mock(IControllerCallback.class);
+        doAnswer(moveRight).when(callback).doPeriodCommands();
+        final IControllerCallback callback2 = mock(IControllerCallback.class);
+        doAnswer(moveRight).when(callback2).doPeriodCommands();
+        final ControllerCallbackFactory callbackFactory = mock(ControllerCallbackFactory.class);
+        when(callbackFactory.createCallback(controller)).thenReturn(callback);
+        when(callbackFactory.createCallback(controller2)).thenReturn(
+                callback2);
+
+        final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
+        final ControllerSnapshot snapshot = snapshot(controller, controller2);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
+
+        final ControllerPoller poller = new ControllerPoller(callbackFactory,
+                controllersRefresher, MoreExecutors.sameThreadExecutor());
+        poller.setOutputFrame(frame);
+
+        // when
+        poller.run();
+
+        // then
+        assertThat(frame.getFlushes()).isEqualTo(1);
+        assertThat(backend.size()).isEqualTo(1);
+        assertThat(backend.getOp(0)).isEqualTo(RecordingBackend.MOUSE_MOVE_BY);
+        assertThat(backend.getFirstArg(0)).isEqualTo(2);
+    }
+
+    @Test
+    public void pass_actions_of_lanes_on_pool_threads_as_one_frame()
+            throws Exception {
+
+        // given
+        final RecordingBackend backend = new RecordingBackend(8);
+        final OutputFrame frame = new OutputFrame(backend);
+        final Answer<Void> slowMoveRight = new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+                    throws Throwable {
+                Thread.sleep(2);
+                frame.mouseMoveBy(1, 0);
+                return null;
+            }
+        };
+
+        final Controller controller = mock(Controller.class);
+        when(controller.poll()).thenReturn(true);
+        when(controller.getEventQueue()).thenReturn(new EventQueue(0));
+        final Controller controller2 = mock(Controller.class);
+        when(controller2.poll()).thenReturn(true);
+        when(controller2.getEventQueue()).thenReturn(new EventQueue(0));
+
+        final IControllerCallback callback = mock(IControllerCallback.class);
+        doAnswer(slowMoveRight).when(callback).doPeriodCommands();
+        final IControllerCallback callback2 = mock(IControllerCallback.class);
+        doAnswer(slowMoveRight).when(callback2).doPeriodCommands();
+        final ControllerCallbackFactory callbackFactory = mock(ControllerCallbackFactory.class);
+        when(callbackFactory.createCallback(controller)).thenReturn(callback);
+        when(callbackFactory.createCallback(controller2)).thenReturn(
+                callback2);
+
+        final ControllersRefresher controllersRefresher = mock(ControllersRefresher.class);
+        final ControllerSnapshot snapshot = snapshot(controller, controller2);
+        when(controllersRefresher.getSnapshot()).thenReturn(snapshot);
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.prestartAllCoreThreads();
+        final ControllerPoller poller = new ControllerPoller(callbackFactory,
+                controllersRefresher, executor);
+        poller.setOutputFrame(frame);
+        poller.setMaxFrameWaitNanos(TimeUnit.SECONDS.toNanos(10));
+
+        // when
+        try {
+            poller.run();
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(frame.getFlushes()).isEqualTo(1);
+        assertThat(backend.size()).isEqualTo(1);
+        assertThat(backend.getOp(0)).isEqualTo(RecordingBackend.MOUSE_MOVE_BY);
+        assertThat(backend.getFirstArg(0)).isEqualTo(2);
+    }
+
+    @Test
+    public void keep_lane_of_controller_enumerated_as_new_object()
+            throws Exception {
+
+        // given
+        final Controller pad = mock(Controller.class);
+        when(pad.getName()).thenReturn("Pad");
+        when(pad.poll()).thenReturn(true);
+        when(pad.getEventQueue()).thenReturn(new EventQueue(0));
+        final Controller samePadAgain = mock(Controller.class);
+        when(samePadAgain.getName()).thenReturn("Pad");
+
+        final InputUtils inputUtils = mock(InputUtils.class);
+        when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+                Sets.newHashSet(pad)).thenReturn(Sets.newHashSet(samePadAgain));
+        final ControllersRefresher controllersRefresher = new ControllersRefresher(
+                inputUtils, 1000);
+
+        final IControllerCallback callback = mock(IControllerCallback.class);
+        final ControllerCallbackFactory callbackFactory = mock(ControllerCallbackFactory.class);
+        when(callbackFactory.createCallback(pad)).thenReturn(callback);
+
+        final ControllerPoller poller = new ControllerPoller(callbackFactory,
+                controllersRefresher, MoreExecutors.sameThreadExecutor());
+
+        // when
+        controllersRefresher.discover();
+        poller.run();
+        controllersRefresher.discover();
+        poller.run();
+
+        // then
+        verify(callbackFactory, times(1)).createCallback(
+                Mockito.any(Controller.class));
+        verify(callback, never()).controllerRemoved();
+        verify(callback, times(2)).doPeriodCommands();
+        verify(pad, times(2)).poll();
+        verify(samePadAgain, never()).poll();
+        assertThat(poller.getControllerCount()).isEqualTo(1);
+    }
+
+    private static ControllerSnapshot snapshot(final Controller... controllers) {
+        return ControllerSnapshot.of(Arrays.asList(controllers));
     }
 }
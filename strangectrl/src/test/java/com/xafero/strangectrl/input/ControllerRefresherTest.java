@@ -1,81 +1,150 @@
 package com.xafero.strangectrl.input;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import net.java.games.input.Controller;
 import net.java.games.input.Controller.Type;
 
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.collect.Sets;
+
 public class ControllerRefresherTest {
 	@Test
-	public void refreshControllersAfterXInvocations() throws Exception {
+	public void publish_discovered_controllers() throws Exception {
 
 		// given
+		final Controller controller = controller("Pad");
 		final InputUtils inputUtils = mock(InputUtils.class);
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(controller));
 		final ControllersRefresher refresher = new ControllersRefresher(
-				inputUtils, 3, 1000);
+				inputUtils, 1000);
 
 		// when
-		refresher.getController();
-		refresher.getController();
-		refresher.getController();
+		refresher.discover();
 
 		// then
-		verify(inputUtils).getControllers(Mockito.any(Type[].class));
+		assertThat(refresher.getSnapshot().getControllers()).containsOnly(
+				controller);
 	}
 
 	@Test
-	public void refreshControllersForFirstTime() throws Exception {
+	public void keep_snapshot_when_nothing_changed() throws Exception {
 
 		// given
 		final InputUtils inputUtils = mock(InputUtils.class);
+		final Controller pad = controller("Pad");
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(pad));
 		final ControllersRefresher refresher = new ControllersRefresher(
-				inputUtils, 100, 1);
+				inputUtils, 1000);
 
 		// when
-		refresher.getController();
+		refresher.discover();
+		final ControllerSnapshot first = refresher.getSnapshot();
+		refresher.discover();
 
 		// then
-		verify(inputUtils).getControllers(Mockito.any(Type[].class));
+		assertThat(refresher.getSnapshot()).isSameAs(first);
 	}
 
 	@Test
-	public void refreshControllersAfterWaitingTime() throws Exception {
+	public void keep_known_controller_enumerated_as_new_object()
+			throws Exception {
 
 		// given
 		final InputUtils inputUtils = mock(InputUtils.class);
-		final int timeInSecs = 1;
+		final Controller pad = controller("Pad");
+		final Controller samePadAgain = controller("Pad");
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(pad)).thenReturn(Sets.newHashSet(samePadAgain));
 		final ControllersRefresher refresher = new ControllersRefresher(
-				inputUtils, timeInSecs, 1);
+				inputUtils, 1000);
 
 		// when
-		refresher.getController();
-		Thread.sleep(timeInSecs * 2 * 1000);
-		refresher.getController();
-		refresher.getController();
+		refresher.discover();
+		final ControllerSnapshot first = refresher.getSnapshot();
+		refresher.discover();
 
 		// then
-		verify(inputUtils, times(2)).getControllers(Mockito.any(Type[].class));
+		assertThat(refresher.getSnapshot()).isSameAs(first);
+		assertThat(refresher.getSnapshot().getControllers()).containsOnly(pad);
 	}
 
 	@Test
-	public void refreshNextTime() throws Exception {
+	public void prefer_controller_plugged_in_again() throws Exception {
 
 		// given
 		final InputUtils inputUtils = mock(InputUtils.class);
-		final int timeInSecs = 999;
+		final Controller pad = controller("Pad");
+		final Controller samePadAgain = controller("Pad");
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(pad)).thenReturn(Sets.newHashSet(samePadAgain));
 		final ControllersRefresher refresher = new ControllersRefresher(
-				inputUtils, timeInSecs, 1);
+				inputUtils, 1000);
 
 		// when
-		refresher.getController();
-		refresher.getController();
-		refresher.refreshNextTime();
-		refresher.getController();
+		refresher.discover();
+		refresher.controllerLost(pad);
+		refresher.discover();
 
 		// then
-		verify(inputUtils, times(2)).getControllers(Mockito.any(Type[].class));
+		assertThat(refresher.getSnapshot().getControllers()).containsOnly(
+				samePadAgain);
+	}
+
+	@Test
+	public void keep_known_controller_when_other_is_plugged_in()
+			throws Exception {
+
+		// given
+		final Controller pad = controller("Pad");
+		final Controller otherPad = controller("Other");
+		final InputUtils inputUtils = mock(InputUtils.class);
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(pad)).thenReturn(
+				Sets.newHashSet(pad, otherPad));
+		final ControllersRefresher refresher = new ControllersRefresher(
+				inputUtils, 1000);
+
+		// when
+		refresher.discover();
+		refresher.discover();
+
+		// then
+		assertThat(refresher.getSnapshot().getControllers()).containsOnly(
+				pad, otherPad);
+	}
+
+	@Test
+	public void background_discovery() throws Exception {
+
+		// given
+		final Controller controller = controller("Pad");
+		final InputUtils inputUtils = mock(InputUtils.class);
+		when(inputUtils.getControllers(Mockito.any(Type[].class))).thenReturn(
+				Sets.newHashSet(controller));
+		final ControllersRefresher refresher = new ControllersRefresher(
+				inputUtils, 10);
+
+		// when
+		refresher.start();
+		for (int i = 0; i < 100 && refresher.getSnapshot().size() == 0; i++) {
+			Thread.sleep(10);
+		}
+		refresher.stop();
+
+		// then
+		assertThat(refresher.getSnapshot().getControllers()).containsOnly(
+				controller);
+	}
+
+	private static Controller controller(final String name) {
+		final Controller controller = mock(Controller.class);
+		when(controller.getName()).thenReturn(name);
+		return controller;
 	}
 }
@@ -0,0 +1,65 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DeadlineWaiterTest {
+
+    @Test
+    public void keep_interrupt_of_waiting_thread() throws Exception {
+
+        // given
+        final DeadlineWaiter waiter = new DeadlineWaiter();
+        final long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(20);
+        Thread.currentThread().interrupt();
+
+        // when
+        final long wokeAt = waiter.awaitDeadline(deadline);
+
+        // then
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(wokeAt - deadline).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void park_instead_of_spinning_past_the_cap() throws Exception {
+
+        // given
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isCurrentThreadCpuTimeSupported());
+        final DeadlineWaiter waiter = new DeadlineWaiter();
+        final long wait = TimeUnit.MILLISECONDS.toNanos(50);
+        final long cpuBefore = threads.getCurrentThreadCpuTime();
+        final long deadline = System.nanoTime() + wait;
+
+        // when
+        final long wokeAt = waiter.awaitDeadline(deadline, 0);
+
+        // then
+        assertThat(wokeAt - deadline).isGreaterThanOrEqualTo(0);
+        assertThat(threads.getCurrentThreadCpuTime() - cpuBefore).isLessThan(
+                wait / 2);
+    }
+
+    @Test
+    public void return_early_when_cancelled() throws Exception {
+
+        // given
+        final DeadlineWaiter waiter = new DeadlineWaiter();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        // when
+        waiter.cancel();
+        final long wokeAt = waiter.awaitDeadline(deadline);
+
+        // then
+        assertThat(wokeAt).isLessThan(deadline);
+    }
+}
@@ -0,0 +1,135 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.java.games.input.Component;
+import net.java.games.input.Event;
+
+import org.junit.Test;
+
+public class EventCoalescerTest {
+    private final EventCoalescer coalescer = new EventCoalescer();
+    private final RecordingCallback callback = new RecordingCallback();
+    private final Component x = component("x", true, false);
+    private final Component y = component("y", true, false);
+    private final Component a = component("A", false, false);
+
+    @Test
+    public void dispatch_last_value_of_every_axis() throws Exception {
+
+        // when
+        offer(x, 0.1f);
+        offer(y, 0.2f);
+        offer(x, 0.3f);
+        offer(x, 0.5f);
+        coalescer.flush(callback);
+
+        // then
+        assertThat(callback.events).containsExactly("x=0.5", "y=0.2");
+        assertThat(coalescer.getCoalesced()).isEqualTo(2);
+    }
+
+    @Test
+    public void keep_buttons_in_order() throws Exception {
+
+        // when
+        offer(x, 0.1f);
+        offer(a, 1.0f);
+        offer(x, 0.2f);
+        offer(a, 0.0f);
+        coalescer.flush(callback);
+
+        // then
+        assertThat(callback.events).containsExactly("x=0.1", "A=1.0",
+                "x=0.2", "A=0.0");
+    }
+
+    @Test
+    public void keep_every_edge_of_axis_bound_to_button() throws Exception {
+
+        // given
+        final Component trigger = component("z", true, false);
+        callback.edgeComponents.add(trigger);
+
+        // when
+        offer(x, 0.1f);
+        offer(trigger, 1.0f);
+        offer(x, 0.2f);
+        offer(trigger, 0.0f);
+        coalescer.flush(callback);
+
+        // then
+        assertThat(callback.events).containsExactly("x=0.1", "z=1.0",
+                "x=0.2", "z=0.0");
+        assertThat(coalescer.getCoalesced()).isZero();
+    }
+
+    @Test
+    public void sum_relative_axes() throws Exception {
+
+        // given
+        final Component wheel = component("z", true, true);
+
+        // when
+        offer(wheel, 1.0f);
+        offer(wheel, 2.0f);
+        coalescer.flush(callback);
+
+        // then
+        assertThat(callback.events).containsExactly("z=3.0");
+    }
+
+    private void offer(final Component component, final float value) {
+        final Event event = new Event();
+        event.set(component, value, 0);
+        if (!coalescer.offer(event, 0, callback)) {
+            coalescer.flush(callback);
+            callback.onNewEvent(event);
+        }
+    }
+
+    private static Component component(final String name,
+            final boolean analog, final boolean relative) {
+        final Component component = mock(Component.class);
+        when(component.getName()).thenReturn(name);
+        when(component.isAnalog()).thenReturn(analog);
+        when(component.isRelative()).thenReturn(relative);
+        return component;
+    }
+
+    private static class RecordingCallback implements IControllerCallback {
+        private final List<String> events = new ArrayList<>();
+        private final Set<Component> edgeComponents = new HashSet<>();
+
+        @Override
+        public void onNewEvent(final Event event) {
+            events.add(event.getComponent().getName() + "="
+                    + event.getValue());
+        }
+
+        @Override
+        public void doPeriodCommands() {
+        }
+
+        @Override
+        public void controllerRemoved() {
+        }
+
+        @Override
+        public boolean hasActiveCommands() {
+            return false;
+        }
+
+        @Override
+        public boolean isCoalescable(final Component component) {
+            return !edgeComponents.contains(component);
+        }
+    }
+}
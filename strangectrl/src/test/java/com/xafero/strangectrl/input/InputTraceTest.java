@@ -0,0 +1,54 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.awt.event.KeyEvent;
+
+import org.junit.Test;
+
+public class InputTraceTest {
+
+    @Test
+    public void disabled_trace_does_not_record() throws Exception {
+
+        // given
+        final InputTrace trace = new InputTrace(4, false);
+
+        // when
+        trace.record(Macro.KEY_PRESS, KeyEvent.VK_Q, 0);
+
+        // then
+        assertThat(trace.drain()).isEqualTo(0);
+        assertThat(trace.getDropped()).isEqualTo(0);
+    }
+
+    @Test
+    public void drop_records_when_full() throws Exception {
+
+        // given
+        final InputTrace trace = new InputTrace(2, true);
+
+        // when
+        trace.record(Macro.KEY_PRESS, KeyEvent.VK_Q, 0);
+        trace.record(Macro.MOUSE_MOVE, 10, 20);
+        trace.record(Macro.KEY_RELEASE, KeyEvent.VK_Q, 0);
+
+        // then
+        assertThat(trace.drain()).isEqualTo(2);
+        assertThat(trace.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    public void describe_actions() throws Exception {
+
+        // then
+        assertThat(InputTrace.describe(Macro.KEY_PRESS, KeyEvent.VK_Q, 0))
+                .isEqualTo("Pressed key {Q}");
+        assertThat(InputTrace.describe(Macro.MOUSE_MOVE, 10, 20)).isEqualTo(
+                "Moved mouse [10, 20]");
+        assertThat(
+                InputTrace.describe(Macro.MOUSE_RELEASE,
+                        InputUtils.MouseButton.RIGHT.ordinal(), 0)).isEqualTo(
+                "Released mouse button {RIGHT}");
+    }
+}
@@ -0,0 +1,87 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class MacroRecorderTest {
+    private final ManualTicker ticker = new ManualTicker();
+    private final MacroRecorder recorder = new MacroRecorder(ticker);
+
+    @Test
+    public void merge_mouse_moves_within_one_window() throws Exception {
+
+        // given
+        recorder.start();
+
+        // when
+        ticker.advance(5);
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(1, 1));
+        ticker.advance(5);
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(2, 2));
+        ticker.advance(5);
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(3, 3));
+        ticker.advance(20);
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(4, 4));
+        final Macro macro = recorder.stop();
+
+        // then
+        assertThat(macro.size()).isEqualTo(2);
+        assertThat(macro.getDelay(0)).isEqualTo(5);
+        assertThat(macro.getArg(0)).isEqualTo(Macro.packPoint(3, 3));
+        assertThat(macro.getDelay(1)).isEqualTo(30);
+        assertThat(macro.getArg(1)).isEqualTo(Macro.packPoint(4, 4));
+    }
+
+    @Test
+    public void sum_relative_mouse_moves() throws Exception {
+
+        // given
+        recorder.start();
+
+        // when
+        recorder.record(Macro.MOUSE_MOVE_BY, Macro.packPoint(5, -3));
+        ticker.advance(1);
+        recorder.record(Macro.MOUSE_MOVE_BY, Macro.packPoint(2, -4));
+        final Macro macro = recorder.stop();
+
+        // then
+        assertThat(macro.size()).isEqualTo(1);
+        assertThat(Macro.unpackX(macro.getArg(0))).isEqualTo(7);
+        assertThat(Macro.unpackY(macro.getArg(0))).isEqualTo(-7);
+    }
+
+    @Test
+    public void keep_other_steps_between_moves() throws Exception {
+
+        // given
+        recorder.start();
+
+        // when
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(1, 1));
+        recorder.record(Macro.MOUSE_PRESS, 0);
+        recorder.record(Macro.MOUSE_MOVE, Macro.packPoint(2, 2));
+        recorder.record(Macro.MOUSE_PRESS, 0);
+        final Macro macro = recorder.stop();
+
+        // then
+        assertThat(macro.size()).isEqualTo(4);
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.GraphicsDevice;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.awt.DesktopUtils;
+import com.xafero.strangectrl.awt.ScreenTopology;
+
+public class PointerEngineTest {
+    private final ManualTicker ticker = new ManualTicker();
+    private final InputUtils inputUtils = mock(InputUtils.class);
+    private final DesktopUtils desktopUtils = mock(DesktopUtils.class);
+    private final GraphicsDevice graphicsDevice = mock(GraphicsDevice.class);
+    private PointerEngine pointerEngine;
+
+    @Before
+    public void setUp() {
+        when(desktopUtils.getBounds(graphicsDevice)).thenReturn(
+                new Rectangle(0, 0, 100, 200));
+        when(desktopUtils.getMousePos(graphicsDevice)).thenReturn(
+                new Point(30, 60));
+
+        pointerEngine = new PointerEngine(inputUtils, desktopUtils, ticker,
+                TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void send_deltas_when_output_moves_relatively() throws Exception {
+
+        // given
+        when(inputUtils.supportsRelativeMotion()).thenReturn(true);
+        final PointerEngine relativeEngine = new PointerEngine(inputUtils,
+                desktopUtils, ticker, TimeUnit.MILLISECONDS.toNanos(100));
+
+        // when
+        relativeEngine.move(graphicsDevice, 0.6, -1.5);
+        relativeEngine.move(graphicsDevice, 0.6, -0.6);
+
+        // then
+        verify(inputUtils).moveMouseBy(0, -1);
+        verify(inputUtils).moveMouseBy(1, -1);
+        verify(inputUtils, never()).moveMouse(Mockito.anyInt(),
+                Mockito.anyInt());
+        verify(desktopUtils, never()).getMousePos(graphicsDevice);
+    }
+
+    @Test
+    public void accumulate_sub_pixel_moves() throws Exception {
+
+        // when
+        pointerEngine.move(graphicsDevice, 0.3, 0.0);
+
+        // then
+        verify(inputUtils, never()).moveMouse(Mockito.anyInt(),
+                Mockito.anyInt());
+
+        // when
+        pointerEngine.move(graphicsDevice, 0.3, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(31, 60);
+
+        // when
+        pointerEngine.move(graphicsDevice, 0.3, 0.0);
+        pointerEngine.move(graphicsDevice, 0.3, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(31, 60);
+        verify(inputUtils, never()).moveMouse(32, 60);
+
+        // when
+        pointerEngine.move(graphicsDevice, 0.3, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(32, 60);
+    }
+
+    @Test
+    public void read_cursor_only_once_per_resync_period() throws Exception {
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            ticker.advance(5);
+            pointerEngine.move(graphicsDevice, 1.0, 1.0);
+        }
+
+        // then
+        verify(desktopUtils, times(1)).getMousePos(graphicsDevice);
+        verify(desktopUtils, times(1)).getBounds(graphicsDevice);
+        verify(inputUtils).moveMouse(40, 70);
+    }
+
+    @Test
+    public void follow_external_move_after_resync() throws Exception {
+
+        // given
+        pointerEngine.move(graphicsDevice, 1.5, 0.0);
+        when(desktopUtils.getMousePos(graphicsDevice)).thenReturn(
+                new Point(80, 10));
+
+        // when
+        ticker.advance(100);
+        pointerEngine.move(graphicsDevice, 1.0, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(32, 60);
+        verify(inputUtils).moveMouse(81, 10);
+        assertThat(pointerEngine.getResyncs()).isEqualTo(2);
+    }
+
+    @Test
+    public void resync_when_screens_change() throws Exception {
+
+        // given
+        pointerEngine.move(graphicsDevice, 1.0, 0.0);
+        when(desktopUtils.getMousePos(graphicsDevice)).thenReturn(
+                new Point(80, 10));
+
+        // when
+        pointerEngine.screensChanged(mock(ScreenTopology.class));
+        pointerEngine.move(graphicsDevice, 1.0, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(31, 60);
+        verify(inputUtils).moveMouse(81, 10);
+        assertThat(pointerEngine.getResyncs()).isEqualTo(2);
+    }
+
+    @Test
+    public void stay_on_screen() throws Exception {
+
+        // when
+        pointerEngine.move(graphicsDevice, 500.0, -500.0);
+        pointerEngine.move(graphicsDevice, -1.0, 1.0);
+
+        // then
+        verify(inputUtils).moveMouse(99, 0);
+        verify(inputUtils).moveMouse(98, 1);
+    }
+
+    @Test
+    public void go_on_to_next_screen() throws Exception {
+
+        // given
+        final GraphicsDevice rightScreen = mock(GraphicsDevice.class);
+        when(desktopUtils.getDeviceAt(100, 60)).thenReturn(rightScreen);
+        when(desktopUtils.getBounds(rightScreen)).thenReturn(
+                new Rectangle(100, 0, 50, 50));
+
+        // when
+        pointerEngine.move(graphicsDevice, 70.0, 0.0);
+        pointerEngine.move(graphicsDevice, 500.0, 0.0);
+
+        // then
+        verify(inputUtils).moveMouse(100, 60);
+        verify(inputUtils).moveMouse(149, 49);
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
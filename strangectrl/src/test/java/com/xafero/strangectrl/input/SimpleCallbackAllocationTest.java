@@ -0,0 +1,120 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.GraphicsDevice;
+import java.lang.management.ManagementFactory;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Event;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import pl.grzeslowski.strangectrl.cmd.CommandFactory;
+
+import com.xafero.strangectrl.cmd.ICommand;
+
+public class SimpleCallbackAllocationTest {
+    private static final int EVENTS = 200000;
+
+    // getThreadAllocatedBytes itself allocates a few small arrays
+    private static final long MEASUREMENT_SLACK = 1024;
+
+    @Test
+    public void steady_state_dispatch_does_not_allocate() throws Exception {
+
+        // given
+        final com.sun.management.ThreadMXBean threadBean = threadBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final CommandFactory commandFactory = mock(CommandFactory.class);
+        when(commandFactory.getCommand(Mockito.eq("x"), Mockito.anyDouble()))
+                .thenReturn(new NoOpCommand(false));
+        when(commandFactory.getCommand(Mockito.eq("y"), Mockito.anyDouble()))
+                .thenReturn(new NoOpCommand(true));
+        when(commandFactory.getCommand("pov", 0.25)).thenReturn(
+                new NoOpCommand(false));
+
+        final SimpleCallback callback = new SimpleCallback(commandFactory,
+                mock(GraphicsDevice.class));
+
+        final Component axisX = component(Identifier.Axis.X);
+        final Component axisY = component(Identifier.Axis.Y);
+        final Component pov = component(Identifier.Axis.POV);
+        final Event event = new Event();
+
+        // compile the table and warm up
+        dispatch(callback, event, axisX, axisY, pov, EVENTS);
+
+        // when
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        dispatch(callback, event, axisX, axisY, pov, EVENTS);
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId)
+                - before;
+
+        // then
+        assertThat(allocated).isLessThan(MEASUREMENT_SLACK);
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private static Component component(final Identifier identifier) {
+        final Component component = mock(Component.class);
+        when(component.getIdentifier()).thenReturn(identifier);
+        return component;
+    }
+
+    private static void dispatch(final SimpleCallback callback,
+            final Event event, final Component axisX, final Component axisY,
+            final Component pov, final int count) {
+        for (int i = 0; i < count; i++) {
+            final float value = (i & 1) == 0 ? 0.5f : 0.0f;
+            event.set(axisX, value, i);
+            callback.onNewEvent(event);
+            event.set(axisY, value, i);
+            callback.onNewEvent(event);
+            event.set(pov, value / 2, i);
+            callback.onNewEvent(event);
+            callback.doPeriodCommands();
+        }
+    }
+
+    private static class NoOpCommand implements ICommand {
+        private final boolean periodCommand;
+
+        NoOpCommand(final boolean periodCommand) {
+            this.periodCommand = periodCommand;
+        }
+
+        @Override
+        public void execute(final GraphicsDevice graphicsDevice,
+                final double value) {
+            // nothing to do
+        }
+
+        @Override
+        public void executePeriodCommand(final GraphicsDevice graphicsDevice,
+                final double value) {
+            // nothing to do
+        }
+
+        @Override
+        public boolean isPeriodCommand() {
+            return periodCommand;
+        }
+    }
+}
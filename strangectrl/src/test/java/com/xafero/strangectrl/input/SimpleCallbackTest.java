@@ -1,22 +1,29 @@
 package com.xafero.strangectrl.input;
 
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.awt.GraphicsDevice;
+import java.util.Arrays;
 
 import net.java.games.input.Component;
 import net.java.games.input.Component.Identifier;
 import net.java.games.input.Event;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import pl.grzeslowski.strangectrl.cmd.CommandFactory;
 
 import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
 
 public class SimpleCallbackTest {
 
@@ -526,4 +533,153 @@ public class SimpleCallbackTest {
 		verify(commandSecondUse).execute(graphicsDevice, 0.0);
 	}
 
+	@Test
+	public void tick_commands_after_period_commands() throws Exception {
+
+		// given
+		final ICommand command = mock(ICommand.class);
+		when(command.isPeriodCommand()).thenReturn(true);
+
+		final Component component = mock(Component.class);
+		when(component.getIdentifier()).thenReturn(Identifier.Axis.X);
+
+		final Event event = new Event();
+		event.set(component, 0.5f, 0);
+
+		final TickCommand tickCommand = mock(TickCommand.class);
+		final CommandFactory commandFactory = mock(CommandFactory.class);
+		when(commandFactory.getCommand(Mockito.eq("x"), Mockito.anyDouble()))
+				.thenReturn(command);
+		when(commandFactory.getTickCommands()).thenReturn(
+				Arrays.asList(tickCommand));
+
+		final GraphicsDevice graphicsDevice = mock(GraphicsDevice.class);
+		final SimpleCallback callback = new SimpleCallback(commandFactory,
+				graphicsDevice);
+
+		// when
+		callback.onNewEvent(event);
+		callback.doPeriodCommands();
+
+		// then
+		final InOrder order = inOrder(command, tickCommand);
+		order.verify(command, times(2)).executePeriodCommand(graphicsDevice,
+				0.5);
+		order.verify(tickCommand).tick(graphicsDevice);
+	}
+
+	@Test
+	public void replace_commands_between_ticks() throws Exception {
+
+		// given
+		final ICommand oldCommand = mock(ICommand.class);
+		final CommandFactory oldFactory = mock(CommandFactory.class);
+		when(oldFactory.getCommand(Mockito.eq("x"), Mockito.anyDouble()))
+				.thenReturn(oldCommand);
+		final ICommand newCommand = mock(ICommand.class);
+		final CommandFactory newFactory = mock(CommandFactory.class);
+		when(newFactory.getCommand(Mockito.eq("x"), Mockito.anyDouble()))
+				.thenReturn(newCommand);
+
+		final Component component = mock(Component.class);
+		when(component.getIdentifier()).thenReturn(Identifier.Axis.X);
+		final Event event = new Event();
+		event.set(component, 1.0f, 0);
+
+		final GraphicsDevice graphicsDevice = mock(GraphicsDevice.class);
+		final SimpleCallback callback = new SimpleCallback(oldFactory,
+				graphicsDevice);
+		callback.onNewEvent(event);
+
+		// when
+		callback.replaceCommands(newFactory);
+		callback.onNewEvent(event);
+		callback.doPeriodCommands();
+		callback.onNewEvent(event);
+
+		// then
+		final InOrder order = inOrder(oldCommand, newCommand);
+		order.verify(oldCommand, times(2)).execute(graphicsDevice, 1.0);
+		order.verify(oldCommand).execute(graphicsDevice, 0.0);
+		order.verify(newCommand).execute(graphicsDevice, 1.0);
+	}
+
+	@Test
+	public void tick_after_asking_for_many_components() throws Exception {
+
+		// given
+		final ICommand command = mock(ICommand.class);
+		when(command.isPeriodCommand()).thenReturn(true);
+		final CommandFactory commandFactory = mock(CommandFactory.class);
+		when(commandFactory.getCommand(Mockito.anyString(),
+				Mockito.anyDouble())).thenAnswer(new Answer<ICommand>() {
+
+			@Override
+			public ICommand answer(final InvocationOnMock invocation)
+					throws Throwable {
+				if ("0".equals(invocation.getArguments()[0])) {
+					return command;
+				}
+				return mock(ICommand.class);
+			}
+		});
+		when(commandFactory.getCommand(Mockito.eq("z"), Mockito.anyDouble()))
+				.thenReturn(null);
+
+		final GraphicsDevice graphicsDevice = mock(GraphicsDevice.class);
+		final SimpleCallback callback = new SimpleCallback(commandFactory,
+				graphicsDevice);
+		final Component unbound = mock(Component.class);
+		when(unbound.getIdentifier()).thenReturn(Identifier.Axis.Z);
+		final Component[] buttons = new Component[12];
+		for (int i = 0; i < buttons.length; i++) {
+			buttons[i] = mock(Component.class);
+			when(buttons[i].getIdentifier()).thenReturn(
+					new Identifier.Button(String.valueOf(i)) {
+					});
+		}
+		final Event event = new Event();
+		event.set(buttons[0], 1.0f, 0);
+
+		// when
+		callback.isCoalescable(unbound);
+		for (final Component button : buttons) {
+			callback.isCoalescable(button);
+		}
+		callback.onNewEvent(event);
+		callback.doPeriodCommands();
+		callback.controllerRemoved();
+
+		// then
+		verify(command, times(2)).executePeriodCommand(graphicsDevice, 1.0);
+	}
+
+	@Test
+	public void coalesce_only_period_and_analog_commands() throws Exception {
+
+		// given
+		final ICommand periodCommand = mock(ICommand.class);
+		when(periodCommand.isPeriodCommand()).thenReturn(true);
+		final ICommand keyCommand = mock(ICommand.class);
+		final CommandFactory commandFactory = mock(CommandFactory.class);
+		when(commandFactory.getCommand(Mockito.eq("x"), Mockito.anyDouble()))
+				.thenReturn(periodCommand);
+		when(commandFactory.getCommand(Mockito.eq("z"), Mockito.anyDouble()))
+				.thenReturn(keyCommand);
+
+		final Component stick = mock(Component.class);
+		when(stick.getIdentifier()).thenReturn(Identifier.Axis.X);
+		final Component trigger = mock(Component.class);
+		when(trigger.getIdentifier()).thenReturn(Identifier.Axis.Z);
+		final Component unbound = mock(Component.class);
+		when(unbound.getIdentifier()).thenReturn(Identifier.Axis.RZ);
+
+		final SimpleCallback callback = new SimpleCallback(commandFactory,
+				mock(GraphicsDevice.class));
+
+		// then
+		assertThat(callback.isCoalescable(stick)).isTrue();
+		assertThat(callback.isCoalescable(trigger)).isFalse();
+		assertThat(callback.isCoalescable(unbound)).isTrue();
+	}
 }
@@ -0,0 +1,145 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class TimeRunnerTest {
+
+    @Test
+    public void sub_millisecond_period_does_not_drift() throws Exception {
+
+        // given
+        final int ticksToRun = 400;
+        final AtomicReference<TimeRunner> runnerRef = new AtomicReference<>();
+        final TimerTask task = new StopAfterTask(runnerRef, ticksToRun, 0);
+        final TimeRunner runner = new TimeRunner(500, TimeUnit.MICROSECONDS,
+                task);
+        runnerRef.set(runner);
+
+        // when
+        final long start = System.nanoTime();
+        runner.start();
+        final long elapsed = System.nanoTime() - start;
+
+        // then - every tick (run or dropped) stays on its own deadline
+        final long deadlines = ticksToRun - 1 + runner.getSkippedTicks();
+        assertThat(runner.getTicks()).isEqualTo(ticksToRun);
+        assertThat(elapsed).isGreaterThanOrEqualTo(
+                deadlines * runner.getPeriodNanos());
+        assertThat(elapsed).isLessThan(
+                (deadlines + 3) * runner.getPeriodNanos()
+                        + TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void drop_missed_ticks_when_task_overruns() throws Exception {
+
+        // given
+        final AtomicReference<TimeRunner> runnerRef = new AtomicReference<>();
+        final TimerTask task = new StopAfterTask(runnerRef, 3, 20);
+        final TimeRunner runner = new TimeRunner(1, TimeUnit.MILLISECONDS, 1,
+                task);
+        runnerRef.set(runner);
+
+        // when
+        runner.start();
+
+        // then
+        assertThat(runner.getTicks()).isEqualTo(3);
+        assertThat(runner.getOverruns()).isGreaterThanOrEqualTo(2);
+        assertThat(runner.getSkippedTicks()).isGreaterThanOrEqualTo(2 * 18);
+    }
+
+    @Test
+    public void measure_jitter() throws Exception {
+
+        // given
+        final AtomicReference<TimeRunner> runnerRef = new AtomicReference<>();
+        final TimerTask task = new StopAfterTask(runnerRef, 50, 0);
+        final TimeRunner runner = new TimeRunner(1, task);
+        runnerRef.set(runner);
+
+        // when
+        runner.start();
+
+        // then
+        assertThat(runner.getMaxJitterNanos()).isGreaterThanOrEqualTo(
+                runner.getMeanJitterNanos());
+        assertThat(runner.getMeanJitterNanos()).isGreaterThanOrEqualTo(0);
+        assertThat(runner.isRunning()).isFalse();
+    }
+
+    @Test
+    public void stop_wakes_waiting_runner() throws Exception {
+
+        // given
+        final CountDownLatch ticked = new CountDownLatch(1);
+        final TimeRunner runner = new TimeRunner(10, TimeUnit.SECONDS,
+                new TimerTask() {
+
+                    @Override
+                    public void run() {
+                        ticked.countDown();
+                    }
+                });
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                runner.start();
+            }
+        });
+        thread.start();
+        assertThat(ticked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        runner.stop();
+        thread.join(TimeUnit.SECONDS.toMillis(2));
+
+        // then
+        assertThat(thread.isAlive()).isFalse();
+        assertThat(runner.getTicks()).isEqualTo(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void period_has_to_be_positive() throws Exception {
+
+        // when
+        new TimeRunner(0, TimeUnit.NANOSECONDS, new StopAfterTask(null, 0, 0));
+    }
+
+    private static class StopAfterTask extends TimerTask {
+        private final AtomicReference<TimeRunner> runner;
+        private final int ticks;
+        private final long sleepMillis;
+        private int executed;
+
+        StopAfterTask(final AtomicReference<TimeRunner> runner,
+                final int ticks, final long sleepMillis) {
+            this.runner = runner;
+            this.ticks = ticks;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void run() {
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (final InterruptedException e) {
+                    // not need to handle
+                }
+            }
+
+            if (++executed == ticks) {
+                runner.get().stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.xafero.strangectrl.input;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class TimingWheelTest {
+
+    @Test
+    public void run_timeouts_in_deadline_order() throws Exception {
+
+        // given
+        final ManualTicker ticker = new ManualTicker();
+        final TimingWheel wheel = new TimingWheel(ticker,
+                TimeUnit.MILLISECONDS.toNanos(1), 8);
+        final List<String> log = new ArrayList<>();
+
+        // when - 20 ms is further than one turn of the wheel
+        wheel.schedule(new LogTimeout(log, "late"), 20, TimeUnit.MILLISECONDS);
+        wheel.schedule(new LogTimeout(log, "early"), 3, TimeUnit.MILLISECONDS);
+        wheel.schedule(new LogTimeout(log, "second early"), 3,
+                TimeUnit.MILLISECONDS);
+        wheel.advanceTo(ticker.advance(TimeUnit.MILLISECONDS.toNanos(2)));
+
+        // then
+        assertThat(log).isEmpty();
+        assertThat(wheel.getPending()).isEqualTo(3);
+
+        // when
+        wheel.advanceTo(ticker.advance(TimeUnit.MILLISECONDS.toNanos(1)));
+
+        // then
+        assertThat(log).containsExactly("early", "second early");
+
+        // when
+        wheel.advanceTo(ticker.advance(TimeUnit.MILLISECONDS.toNanos(17)));
+
+        // then
+        assertThat(log).containsExactly("early", "second early", "late");
+        assertThat(wheel.getPending()).isEqualTo(0);
+    }
+
+    @Test
+    public void cancelled_timeout_does_not_run() throws Exception {
+
+        // given
+        final ManualTicker ticker = new ManualTicker();
+        final TimingWheel wheel = new TimingWheel(ticker,
+                TimeUnit.MILLISECONDS.toNanos(1), 8);
+        final List<String> log = new ArrayList<>();
+        final LogTimeout timeout = new LogTimeout(log, "cancelled");
+        wheel.schedule(timeout, 5, TimeUnit.MILLISECONDS);
+
+        // when
+        final boolean cancelled = wheel.cancel(timeout);
+        wheel.advanceTo(ticker.advance(TimeUnit.MILLISECONDS.toNanos(10)));
+
+        // then
+        assertThat(cancelled).isTrue();
+        assertThat(timeout.isScheduled()).isFalse();
+        assertThat(log).isEmpty();
+        assertThat(wheel.cancel(timeout)).isFalse();
+    }
+
+    @Test
+    public void started_wheel_runs_timeouts_on_its_thread() throws Exception {
+
+        // given
+        final TimingWheel wheel = new TimingWheel();
+        final CountDownLatch latch = new CountDownLatch(2);
+        final TimingWheel.Timeout timeout = new TimingWheel.Timeout() {
+
+            @Override
+            public void run() {
+                latch.countDown();
+                if (latch.getCount() > 0) {
+                    wheel.schedule(this, 1, TimeUnit.MILLISECONDS);
+                }
+            }
+        };
+        wheel.start();
+
+        try {
+
+            // when
+            wheel.schedule(timeout, 5, TimeUnit.MILLISECONDS);
+
+            // then
+            assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    private static class LogTimeout extends TimingWheel.Timeout {
+        private final List<String> log;
+        private final String name;
+
+        LogTimeout(final List<String> log, final String name) {
+            this.log = log;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            log.add(name);
+        }
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        long advance(final long delta) {
+            nanos += delta;
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.xafero.strangectrl.mbean;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.input.CallbackStats;
+import com.xafero.strangectrl.input.InputUtils;
+
+public class MBeansTest {
+
+    @Test
+    public void register_and_read_attribute() throws Exception {
+
+        // given
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final InputUtils inputUtils = mock(InputUtils.class);
+        when(inputUtils.getPressedKeysCount()).thenReturn(2);
+        final MBeans mBeans = new MBeans(server);
+
+        // when
+        mBeans.register("CommandEngine", new CommandEngine(
+                new CallbackStats(), inputUtils));
+
+        // then
+        final ObjectName name = new ObjectName(MBeans.DOMAIN
+                + ":type=CommandEngine");
+        assertThat(server.getAttribute(name, "PressedKeys")).isEqualTo(2);
+        assertThat(server.getAttribute(name, "EventsHandled")).isEqualTo(0L);
+    }
+
+    @Test
+    public void unregister_all() throws Exception {
+
+        // given
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final MBeans mBeans = new MBeans(server);
+        mBeans.register("CommandEngine", new CommandEngine(
+                new CallbackStats(), mock(InputUtils.class)));
+
+        // when
+        mBeans.unregisterAll();
+
+        // then
+        assertThat(
+                server.isRegistered(new ObjectName(MBeans.DOMAIN
+                        + ":type=CommandEngine"))).isFalse();
+    }
+
+    @Test
+    public void events_per_second_between_samples() throws Exception {
+
+        // given
+        final CallbackStats stats = mock(CallbackStats.class);
+        when(stats.getEventsHandled()).thenReturn(100L, 600L);
+        final AtomicLong now = new AtomicLong();
+        final Ticker ticker = new Ticker() {
+
+            @Override
+            public long read() {
+                return now.get();
+            }
+        };
+        final CommandEngine engine = new CommandEngine(stats,
+                mock(InputUtils.class), ticker);
+
+        // when
+        now.set(TimeUnit.SECONDS.toNanos(2));
+        final double eventsPerSecond = engine.getEventsPerSecond();
+
+        // then
+        assertThat(eventsPerSecond).isEqualTo(250.0);
+    }
+}
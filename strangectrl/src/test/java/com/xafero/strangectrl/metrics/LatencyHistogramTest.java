@@ -0,0 +1,85 @@
+package com.xafero.strangectrl.metrics;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentiles_within_bucket_precision() throws Exception {
+
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        // then
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMaxNanos()).isEqualTo(1000000);
+        assertPercentile(histogram, 50, 500000);
+        assertPercentile(histogram, 99, 990000);
+        assertPercentile(histogram, 99.9, 999000);
+    }
+
+    @Test
+    public void every_bucket_maps_back_to_itself() throws Exception {
+
+        // when
+        for (int index = 0; index <= LatencyHistogram
+                .indexOf(LatencyHistogram.MAX_TRACKABLE_NANOS); index++) {
+            final long value = LatencyHistogram.highestValueAt(index);
+
+            // then
+            assertThat(LatencyHistogram.indexOf(value)).isEqualTo(index);
+            assertThat(LatencyHistogram.indexOf(value + 1)).isEqualTo(
+                    index + 1);
+        }
+    }
+
+    @Test
+    public void too_big_values_are_clamped() throws Exception {
+
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        // then
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getMaxNanos()).isEqualTo(
+                LatencyHistogram.MAX_TRACKABLE_NANOS);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+    }
+
+    @Test
+    public void write_report() throws Exception {
+
+        // given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        final StringWriter writer = new StringWriter();
+
+        // when
+        histogram.writeReport(writer);
+
+        // then
+        assertThat(writer.toString()).startsWith("count 1, p50 100.0 us");
+        assertThat(writer.toString()).contains("upper_bound_us\tcount");
+    }
+
+    private static void assertPercentile(final LatencyHistogram histogram,
+            final double percentile, final long expected) {
+        final long value = histogram.getValueAtPercentile(percentile);
+        assertThat(value).isGreaterThanOrEqualTo(expected);
+        assertThat(value).isLessThanOrEqualTo(expected + expected / 32);
+    }
+}
@@ -0,0 +1,84 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.xafero.strangectrl.output.ActionRing.ActionHandler;
+
+public class ActionRingTest {
+
+    @Test
+    public void drain_in_offer_order() throws Exception {
+
+        // given
+        final ActionRing ring = new ActionRing(4);
+        final RecordingHandler handler = new RecordingHandler();
+
+        // when
+        ring.offer(1, 10, 100, 1000);
+        ring.offer(2, 20, 200, 2000);
+        ring.offer(3, 30, 300, 3000);
+        final int drained = ring.drain(handler, 10);
+
+        // then
+        assertThat(drained).isEqualTo(3);
+        assertThat(handler.actions).containsExactly("1:10:100:1000",
+                "2:20:200:2000", "3:30:300:3000");
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void full_ring_rejects_offer() throws Exception {
+
+        // given
+        final ActionRing ring = new ActionRing(2);
+        ring.offer(1, 0, 0, 0);
+        ring.offer(2, 0, 0, 0);
+
+        // when
+        final boolean offered = ring.offer(3, 0, 0, 0);
+
+        // then
+        assertThat(offered).isFalse();
+        assertThat(ring.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void wrap_around() throws Exception {
+
+        // given
+        final ActionRing ring = new ActionRing(2);
+        final RecordingHandler handler = new RecordingHandler();
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            ring.offer(i, i, i, i);
+            ring.drain(handler, 1);
+        }
+
+        // then
+        assertThat(handler.actions).containsExactly("0:0:0:0", "1:1:1:1",
+                "2:2:2:2", "3:3:3:3", "4:4:4:4");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacity_has_to_be_power_of_two() throws Exception {
+
+        // when
+        new ActionRing(3);
+    }
+
+    private static class RecordingHandler implements ActionHandler {
+        private final List<String> actions = new ArrayList<>();
+
+        @Override
+        public void onAction(final int op, final int firstArg,
+                final int secondArg, final long stamp) {
+            actions.add(op + ":" + firstArg + ":" + secondArg + ":" + stamp);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class OutputFrameTest {
+
+    @Test
+    public void pass_actions_outside_of_frame() {
+
+        // given
+        final OutputBackend backend = mock(OutputBackend.class);
+        final OutputFrame frame = new OutputFrame(backend);
+
+        // when
+        frame.mouseMove(1, 2);
+        frame.mouseMove(3, 4);
+
+        // then
+        final InOrder order = inOrder(backend);
+        order.verify(backend).mouseMove(1, 2);
+        order.verify(backend).mouseMove(3, 4);
+        assertThat(frame.getCollapsed()).isZero();
+    }
+
+    @Test
+    public void collapse_moves_and_wheel_of_frame() {
+
+        // given
+        final OutputBackend backend = mock(OutputBackend.class);
+        final OutputFrame frame = new OutputFrame(backend);
+
+        // when
+        frame.begin();
+        frame.mouseMove(1, 2);
+        frame.mouseMove(3, 4);
+        frame.mouseMoveBy(1, -1);
+        frame.mouseMoveBy(2, -2);
+        frame.mouseWheel(1);
+        frame.mouseWheel(2);
+        verifyZeroInteractions(backend);
+        frame.end();
+
+        // then
+        final InOrder order = inOrder(backend);
+        order.verify(backend).mouseMove(3, 4);
+        order.verify(backend).mouseMoveBy(3, -3);
+        order.verify(backend).mouseWheel(3);
+        verifyNoMoreInteractions(backend);
+        assertThat(frame.getCollapsed()).isEqualTo(3);
+        assertThat(frame.getFlushes()).isEqualTo(1);
+    }
+
+    @Test
+    public void keep_move_before_click() {
+
+        // given
+        final OutputBackend backend = mock(OutputBackend.class);
+        final OutputFrame frame = new OutputFrame(backend);
+
+        // when
+        frame.begin();
+        frame.mouseMove(1, 2);
+        frame.mousePress(InputEvent.BUTTON1_MASK);
+        frame.mouseMove(3, 4);
+        frame.end();
+
+        // then
+        final InOrder order = inOrder(backend);
+        order.verify(backend).mouseMove(1, 2);
+        order.verify(backend).mousePress(InputEvent.BUTTON1_MASK);
+        order.verify(backend).mouseMove(3, 4);
+        verifyNoMoreInteractions(backend);
+    }
+
+    @Test
+    public void drop_repeated_presses_only() {
+
+        // given
+        final OutputBackend backend = mock(OutputBackend.class);
+        final OutputFrame frame = new OutputFrame(backend);
+
+        // when
+        frame.begin();
+        frame.begin();
+        frame.keyPress(KeyEvent.VK_A);
+        frame.keyPress(KeyEvent.VK_A);
+        frame.end();
+        frame.keyRelease(KeyEvent.VK_A);
+        frame.keyPress(KeyEvent.VK_A);
+        frame.keyRelease(KeyEvent.VK_B);
+        frame.keyRelease(KeyEvent.VK_B);
+        frame.end();
+
+        // then
+        final InOrder order = inOrder(backend);
+        order.verify(backend).keyPress(KeyEvent.VK_A);
+        order.verify(backend).keyRelease(KeyEvent.VK_A);
+        order.verify(backend).keyPress(KeyEvent.VK_A);
+        order.verify(backend).keyRelease(KeyEvent.VK_B);
+        verifyNoMoreInteractions(backend);
+        assertThat(frame.getCollapsed()).isEqualTo(2);
+    }
+
+    @Test
+    public void flush_full_frame() {
+
+        // given
+        final OutputBackend backend = mock(OutputBackend.class);
+        final OutputFrame frame = new OutputFrame(backend, 2);
+
+        // when
+        frame.begin();
+        frame.keyPress(KeyEvent.VK_A);
+        frame.keyPress(KeyEvent.VK_B);
+        frame.keyPress(KeyEvent.VK_C);
+
+        // then
+        verify(backend).keyPress(KeyEvent.VK_A);
+        verify(backend).keyPress(KeyEvent.VK_B);
+        verifyNoMoreInteractions(backend);
+    }
+}
@@ -0,0 +1,136 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.awt.Robot;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.xafero.strangectrl.metrics.EventStamps;
+
+public class OutputPipelineTest {
+
+    @Test
+    public void not_started_pipeline_calls_robot_right_away()
+            throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final OutputPipeline pipeline = new OutputPipeline(robot);
+
+        // when
+        pipeline.keyPress(KeyEvent.VK_Q);
+
+        // then
+        verify(robot).keyPress(KeyEvent.VK_Q);
+        assertThat(pipeline.getEnqueued()).isEqualTo(0);
+    }
+
+    @Test
+    public void injector_replays_actions_in_order() throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final OutputPipeline pipeline = new OutputPipeline(robot);
+        pipeline.start();
+
+        // when
+        pipeline.keyPress(KeyEvent.VK_Q);
+        pipeline.mouseMove(10, 20);
+        pipeline.mousePress(InputEvent.BUTTON1_MASK);
+        pipeline.mouseRelease(InputEvent.BUTTON1_MASK);
+        pipeline.mouseWheel(-3);
+        pipeline.keyRelease(KeyEvent.VK_Q);
+        pipeline.stop();
+
+        // then
+        final InOrder inOrder = inOrder(robot);
+        inOrder.verify(robot).keyPress(KeyEvent.VK_Q);
+        inOrder.verify(robot).mouseMove(10, 20);
+        inOrder.verify(robot).mousePress(InputEvent.BUTTON1_MASK);
+        inOrder.verify(robot).mouseRelease(InputEvent.BUTTON1_MASK);
+        inOrder.verify(robot).mouseWheel(-3);
+        inOrder.verify(robot).keyRelease(KeyEvent.VK_Q);
+        assertThat(pipeline.getEnqueued()).isEqualTo(6);
+        assertThat(pipeline.getInjected()).isEqualTo(6);
+        assertThat(pipeline.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void full_queue_waits_for_injector() throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final OutputPipeline pipeline = new OutputPipeline(robot, 2);
+        pipeline.start();
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            pipeline.mouseWheel(i);
+        }
+        pipeline.stop();
+
+        // then
+        assertThat(pipeline.getInjected()).isEqualTo(1000);
+        assertThat(pipeline.getMaxQueueDepth()).isLessThanOrEqualTo(2);
+        verify(robot).mouseWheel(999);
+    }
+
+    @Test
+    public void record_latency_of_actions_caused_by_events() throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final OutputPipeline pipeline = new OutputPipeline(robot);
+        pipeline.start();
+
+        // when
+        EventStamps.begin(System.nanoTime());
+        try {
+            pipeline.keyPress(KeyEvent.VK_Q);
+        } finally {
+            EventStamps.end();
+        }
+        pipeline.keyRelease(KeyEvent.VK_Q);
+        pipeline.stop();
+
+        // then
+        assertThat(pipeline.getInputLatency().getCount()).isEqualTo(1);
+        assertThat(pipeline.getInjected()).isEqualTo(2);
+    }
+
+    @Test
+    public void inject_actions_submitted_while_stopping() throws Exception {
+
+        // given
+        final int actions = 100000;
+        final RecordingBackend backend = new RecordingBackend(actions);
+        final OutputPipeline pipeline = new OutputPipeline(backend, 16);
+        pipeline.start();
+        final Thread producer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < actions; i++) {
+                    pipeline.mouseWheel(1);
+                }
+            }
+        });
+
+        // when
+        producer.start();
+        Thread.sleep(1);
+        pipeline.stop();
+        producer.join();
+
+        // then
+        assertThat(backend.size()).isEqualTo(actions);
+        assertThat(pipeline.getQueueDepth()).isZero();
+    }
+}
@@ -0,0 +1,137 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class RecordingBackendTest {
+
+    @Test
+    public void record_actions_through_pipeline() throws Exception {
+
+        // given
+        final RecordingBackend recording = new RecordingBackend(16);
+        final OutputPipeline pipeline = new OutputPipeline(recording);
+        pipeline.start();
+
+        // when
+        pipeline.keyPress(KeyEvent.VK_Q);
+        pipeline.mouseMoveBy(-3, 4);
+        pipeline.keyRelease(KeyEvent.VK_Q);
+        pipeline.stop();
+
+        // then
+        assertThat(recording.size()).isEqualTo(3);
+        assertThat(recording.getOp(0)).isEqualTo(RecordingBackend.KEY_PRESS);
+        assertThat(recording.getFirstArg(0)).isEqualTo(KeyEvent.VK_Q);
+        assertThat(recording.getOp(1)).isEqualTo(
+                RecordingBackend.MOUSE_MOVE_BY);
+        assertThat(recording.getFirstArg(1)).isEqualTo(-3);
+        assertThat(recording.getSecondArg(1)).isEqualTo(4);
+        assertThat(recording.getOp(2)).isEqualTo(RecordingBackend.KEY_RELEASE);
+        assertThat(recording.getStamp(2)).isGreaterThanOrEqualTo(
+                recording.getStamp(0));
+    }
+
+    @Test
+    public void replay_in_recorded_order() throws Exception {
+
+        // given
+        final RecordingBackend recording = new RecordingBackend(16);
+        recording.mouseMove(10, 20);
+        recording.mousePress(InputEvent.BUTTON1_MASK);
+        recording.mouseRelease(InputEvent.BUTTON1_MASK);
+        recording.mouseWheel(2);
+        final OutputBackend backend = mock(OutputBackend.class);
+
+        // when
+        final int replayed = recording.replayTo(backend);
+
+        // then
+        assertThat(replayed).isEqualTo(4);
+        final InOrder order = inOrder(backend);
+        order.verify(backend).mouseMove(10, 20);
+        order.verify(backend).mousePress(InputEvent.BUTTON1_MASK);
+        order.verify(backend).mouseRelease(InputEvent.BUTTON1_MASK);
+        order.verify(backend).mouseWheel(2);
+    }
+
+    @Test
+    public void count_dropped_actions_when_full() throws Exception {
+
+        // given
+        final RecordingBackend recording = new RecordingBackend(2);
+
+        // when
+        recording.keyPress(1);
+        recording.keyPress(2);
+        recording.keyPress(3);
+
+        // then
+        assertThat(recording.size()).isEqualTo(2);
+        assertThat(recording.getDropped()).isEqualTo(1);
+
+        // when
+        recording.clear();
+        recording.keyPress(4);
+
+        // then
+        assertThat(recording.size()).isEqualTo(1);
+        assertThat(recording.getFirstArg(0)).isEqualTo(4);
+    }
+
+    @Test
+    public void record_from_many_threads() throws Exception {
+
+        // given
+        final int threads = 4;
+        final int perThread = 10000;
+        final RecordingBackend recording = new RecordingBackend(threads
+                * perThread);
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int keyCode = t + 1;
+            writers[t] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        recording.keyPress(keyCode);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+
+        // when
+        start.countDown();
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+
+        // then
+        final int[] perKey = new int[threads + 1];
+        for (int i = 0; i < recording.size(); i++) {
+            assertThat(recording.getOp(i)).isEqualTo(
+                    RecordingBackend.KEY_PRESS);
+            perKey[recording.getFirstArg(i)]++;
+        }
+        for (int t = 1; t <= threads; t++) {
+            assertThat(perKey[t]).isEqualTo(perThread);
+        }
+        assertThat(recording.getDropped()).isEqualTo(0);
+    }
+}
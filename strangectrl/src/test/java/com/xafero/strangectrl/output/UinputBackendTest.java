@@ -0,0 +1,118 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.awt.GraphicsDevice;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Suppliers;
+import com.xafero.strangectrl.awt.ScreenTopology;
+
+public class UinputBackendTest {
+    private static final int TIMEVAL_BYTES = 16;
+
+    private Path device;
+    private UinputBackend backend;
+
+    @Before
+    public void setUp() throws Exception {
+        device = File.createTempFile("uinput", ".bin").toPath();
+        backend = new UinputBackend(FileChannel.open(device,
+                StandardOpenOption.WRITE), TIMEVAL_BYTES);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        backend.close();
+        Files.delete(device);
+    }
+
+    @Test
+    public void write_key_events_closed_by_report() throws Exception {
+
+        // when
+        backend.keyPress(KeyEvent.VK_A);
+        backend.keyRelease(KeyEvent.VK_A);
+
+        // then
+        assertThat(readEvents()).containsExactly("1:30=1", "0:0=0", "1:30=0",
+                "0:0=0");
+    }
+
+    @Test
+    public void move_relatively_and_press_buttons() throws Exception {
+
+        // when
+        backend.mouseMoveBy(5, -3);
+        backend.mouseMoveBy(0, 2);
+        backend.mousePress(InputEvent.BUTTON1_MASK | InputEvent.BUTTON3_MASK);
+
+        // then
+        assertThat(readEvents()).containsExactly("2:0=5", "2:1=-3", "0:0=0",
+                "2:1=2", "0:0=0", "1:272=1", "1:273=1", "0:0=0");
+    }
+
+    @Test
+    public void scroll_in_high_resolution() throws Exception {
+
+        // when
+        backend.mouseWheelHiRes(60);
+        backend.mouseWheelHiRes(60);
+        backend.mouseWheel(-1);
+
+        // then
+        assertThat(readEvents()).containsExactly("2:11=-60", "0:0=0",
+                "2:11=-60", "2:8=-1", "0:0=0", "2:11=120", "2:8=1", "0:0=0");
+    }
+
+    @Test
+    public void skip_keys_without_code() throws Exception {
+
+        // when
+        backend.keyPress(KeyEvent.VK_KANA);
+
+        // then
+        assertThat(readEvents()).isEmpty();
+    }
+
+    @Test
+    public void keep_given_channel_when_screens_change() throws Exception {
+
+        // given
+        final ScreenTopology screenTopology = new ScreenTopology(
+                Suppliers.ofInstance(new GraphicsDevice[0]));
+
+        // when
+        backend.screensChanged(screenTopology);
+        backend.mouseMove(10, 20);
+
+        // then
+        assertThat(readEvents()).containsExactly("3:0=10", "3:1=20", "0:0=0");
+    }
+
+    private List<String> readEvents() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(device))
+                .order(ByteOrder.nativeOrder());
+        final List<String> events = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            buffer.position(buffer.position() + TIMEVAL_BYTES);
+            events.add(buffer.getShort() + ":" + buffer.getShort() + "="
+                    + buffer.getInt());
+        }
+        return events;
+    }
+}
@@ -0,0 +1,58 @@
+package com.xafero.strangectrl.output;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class UinputDeviceTest {
+
+    @Test
+    public void encode_requests_like_the_kernel_headers() throws Exception {
+
+        // then
+        assertThat(UinputDevice.UI_DEV_CREATE).isEqualTo(0x5501);
+        assertThat(UinputDevice.UI_DEV_DESTROY).isEqualTo(0x5502);
+        assertThat(UinputDevice.UI_DEV_SETUP).isEqualTo(0x405c5503);
+        assertThat(UinputDevice.UI_ABS_SETUP).isEqualTo(0x401c5504);
+        assertThat(UinputDevice.UI_SET_EVBIT).isEqualTo(0x40045564);
+        assertThat(UinputDevice.UI_SET_KEYBIT).isEqualTo(0x40045565);
+        assertThat(UinputDevice.UI_SET_RELBIT).isEqualTo(0x40045566);
+        assertThat(UinputDevice.UI_SET_ABSBIT).isEqualTo(0x40045567);
+    }
+
+    @Test
+    public void lay_out_setup_structs() throws Exception {
+
+        // when
+        final ByteBuffer setup = UinputDevice.setup("pad");
+        final ByteBuffer absSetup = UinputDevice.absSetup(
+                UinputBackend.ABS_Y, -1080, 1079);
+
+        // then
+        assertThat(setup.remaining()).isEqualTo(UinputDevice.SETUP_BYTES);
+        assertThat(setup.getShort(0)).isEqualTo((short) 0x06);
+        assertThat(setup.get(8)).isEqualTo((byte) 'p');
+        assertThat(setup.get(10)).isEqualTo((byte) 'd');
+        assertThat(setup.get(11)).isEqualTo((byte) 0);
+        assertThat(absSetup.remaining()).isEqualTo(
+                UinputDevice.ABS_SETUP_BYTES);
+        assertThat(absSetup.getShort(0)).isEqualTo(
+                (short) UinputBackend.ABS_Y);
+        assertThat(absSetup.getInt(8)).isEqualTo(-1080);
+        assertThat(absSetup.getInt(12)).isEqualTo(1079);
+    }
+
+    @Test(expected = IOException.class)
+    public void fail_without_uinput() throws Exception {
+
+        // when
+        UinputDevice.create(new File("/nonexistent/uinput").toPath(),
+                new int[] { UinputBackend.BTN_LEFT },
+                new int[] { UinputBackend.REL_X }, new Rectangle(0, 0, 10, 10));
+    }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.awt.GraphicsDevice;
+import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 
 import org.junit.Test;
@@ -30,7 +31,7 @@ public class ComboKeyCommandTest {
 		command.execute(dev, value);
 
 		// then
-		verify(inputUtils).pressKey(Lists.newArrayList(key));
+		verify(inputUtils).pressKey(new int[] { KeyEvent.VK_D });
 	}
 
 
@@ -49,8 +50,8 @@ public class ComboKeyCommandTest {
 		command.execute(dev, 1.0f);
 
 		// then
-		verify(inputUtils, times(2)).pressKey(Lists.newArrayList(key));
-		verify(inputUtils, times(1)).releaseKey(Lists.newArrayList(key));
+		verify(inputUtils, times(2)).pressKey(new int[] { KeyEvent.VK_D });
+		verify(inputUtils, times(1)).releaseKey(new int[] { KeyEvent.VK_D });
 	}
 
 	@Test
@@ -69,6 +70,13 @@ public class ComboKeyCommandTest {
 
 		// then
 
-		verify(inputUtils).pressKey(keys);
+		verify(inputUtils).pressKey(new int[] { KeyEvent.VK_D, KeyEvent.VK_E });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void fail_on_unknown_key() throws Exception {
+
+		// when
+		new ComboKeyCommand(new Key("NO_SUCH_KEY"), mock(InputUtils.class));
 	}
 }
@@ -1,22 +1,35 @@
 package pl.grzeslowski.strangectrl.cmd;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.awt.GraphicsDevice;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import pl.grzeslowski.strangectrl.config.Analog;
 import pl.grzeslowski.strangectrl.config.Button;
 import pl.grzeslowski.strangectrl.config.Configuration;
 import pl.grzeslowski.strangectrl.config.Key;
 import pl.grzeslowski.strangectrl.config.Pov;
+import pl.grzeslowski.strangectrl.config.Stage;
+import pl.grzeslowski.strangectrl.config.Step;
 
 import com.google.common.collect.Lists;
 import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.cmd.TickCommand;
 import com.xafero.strangectrl.input.InputUtils;
 import com.xafero.strangectrl.input.InputUtils.MouseButton;
+import com.xafero.strangectrl.input.Macro;
+import com.xafero.strangectrl.input.PointerEngine;
 
 public class CommandFactoryTest {
 
@@ -275,4 +288,103 @@ public class CommandFactoryTest {
         assertThat(keyCommand).isEqualTo(expected);
     }
 
+    @Test
+    public void compile_macro_button() throws Exception {
+
+        // given
+        final List<Step> steps = Arrays.asList(new Step(Step.KEY_PRESS,
+                "SHIFT"), new Step(Step.MOUSE_PRESS, "left", 10), new Step(
+                Step.MOUSE_MOVE, "100, 200", 50));
+        final Button button = new Button("RT", Button.MACRO_TYPE,
+                new ArrayList<Key>(), steps);
+        final Configuration configuration = new Configuration(button);
+        final InputUtils inputUtils = mock(InputUtils.class);
+
+        // expected
+        final Macro macro = new Macro(new int[] {
+                0, Macro.KEY_PRESS, KeyEvent.VK_SHIFT,
+                10, Macro.MOUSE_PRESS, MouseButton.LEFT.ordinal(),
+                50, Macro.MOUSE_MOVE, Macro.packPoint(100, 200) });
+        final ICommand expected = new MacroCommand(macro, inputUtils);
+
+        // when
+        final CommandFactory commandFactory = new CommandFactory(inputUtils,
+                configuration);
+
+        // then
+        assertThat(commandFactory.getCommand("RT", 0.0)).isEqualTo(expected);
+    }
+
+    @Test
+    public void fail_on_unknown_key_when_loading() throws Exception {
+
+        // given
+        final Configuration configuration = new Configuration(new Button("A",
+                new Key("CONTROL"), new Key("NO_SUCH_KEY")));
+        final InputUtils inputUtils = mock(InputUtils.class);
+
+        try {
+
+            // when
+            new CommandFactory(inputUtils, configuration);
+            fail("Expected failure on unknown key");
+        } catch (final RuntimeException e) {
+
+            // then
+            assertThat(e.getMessage()).isEqualTo(
+                    "Wrong button A: Unknown key \"NO_SUCH_KEY\"");
+        }
+    }
+
+    @Test
+    public void fail_on_conflicting_radial_dead_zones() throws Exception {
+
+        // given
+        final Configuration configuration = new Configuration(
+                new ArrayList<Button>(), null, Arrays.asList(new Analog("x",
+                        new Stage(Stage.RADIAL_DEAD_ZONE, 0.2)), new Analog(
+                        "y", new Stage(Stage.RADIAL_DEAD_ZONE, 0.3))));
+        final InputUtils inputUtils = mock(InputUtils.class);
+
+        try {
+
+            // when
+            new CommandFactory(inputUtils, configuration);
+            fail("Expected failure on conflicting dead zones");
+        } catch (final RuntimeException e) {
+
+            // then
+            assertThat(e.getMessage()).isEqualTo(
+                    "Conflicting radial dead zones 0.2 and 0.3");
+        }
+    }
+
+    @Test
+    public void share_pointer_engine_between_factories() throws Exception {
+
+        // given
+        final Configuration configuration = new Configuration(new Button("A",
+                new Key("Q")));
+        final InputUtils inputUtils = mock(InputUtils.class);
+        final PointerEngine pointerEngine = mock(PointerEngine.class);
+        final CommandFactory first = new CommandFactory(inputUtils,
+                configuration, pointerEngine);
+        final CommandFactory second = new CommandFactory(inputUtils,
+                configuration, pointerEngine);
+
+        // when
+        for (final CommandFactory commandFactory : Arrays.asList(first, second)) {
+            commandFactory.getCommand("x", 1.0).execute(null, 1.0);
+            for (final TickCommand tickCommand : commandFactory
+                    .getTickCommands()) {
+                tickCommand.tick(null);
+                Thread.sleep(1);
+                tickCommand.tick(null);
+            }
+        }
+
+        // then
+        verify(pointerEngine, times(2)).move(Mockito.<GraphicsDevice> any(),
+                Mockito.anyDouble(), Mockito.anyDouble());
+    }
 }
@@ -0,0 +1,86 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import org.junit.Test;
+
+import pl.grzeslowski.strangectrl.config.CurvePoint;
+import pl.grzeslowski.strangectrl.config.ResponseCurve;
+
+public class CurveTableTest {
+
+    @Test
+    public void linear_curve() throws Exception {
+
+        // when
+        final CurveTable table = CurveTable.LINEAR;
+
+        // then
+        assertThat(table.map(0.0)).isEqualTo(0.0, delta(1e-6));
+        assertThat(table.map(0.123)).isEqualTo(0.123, delta(1e-6));
+        assertThat(table.map(1.0)).isEqualTo(1.0, delta(1e-6));
+    }
+
+    @Test
+    public void clamp_values_outside_range() throws Exception {
+
+        // given
+        final CurveTable table = CurveTable.LINEAR;
+
+        // then
+        assertThat(table.map(-0.5)).isEqualTo(0.0, delta(1e-6));
+        assertThat(table.map(1.5)).isEqualTo(1.0, delta(1e-6));
+        assertThat(table.map(Double.NaN)).isEqualTo(0.0, delta(1e-6));
+    }
+
+    @Test
+    public void exponential_curve_between_samples() throws Exception {
+
+        // given
+        final ResponseCurve curve = new ResponseCurve(
+                ResponseCurve.EXPONENTIAL, 3.0);
+
+        // when
+        final CurveTable table = CurveTable.compile(curve);
+
+        // then
+        for (double x = 0.0; x <= 1.0; x += 0.0137) {
+            assertThat(table.map(x)).isEqualTo(Math.pow(x, 3), delta(1e-4));
+        }
+    }
+
+    @Test
+    public void s_curve_is_symmetric() throws Exception {
+
+        // given
+        final ResponseCurve curve = new ResponseCurve(ResponseCurve.S_CURVE,
+                2.0);
+
+        // when
+        final CurveTable table = CurveTable.compile(curve);
+
+        // then
+        assertThat(table.map(0.5)).isEqualTo(0.5, delta(1e-6));
+        assertThat(table.map(0.2) + table.map(0.8)).isEqualTo(1.0,
+                delta(1e-4));
+        assertThat(table.map(0.2)).isLessThan(0.2);
+    }
+
+    @Test
+    public void piecewise_curve() throws Exception {
+
+        // given
+        final ResponseCurve curve = new ResponseCurve(new CurvePoint(0.5,
+                0.1), new CurvePoint(0.8, 0.5));
+
+        // when
+        final CurveTable table = CurveTable.compile(curve);
+
+        // then
+        assertThat(table.map(0.25)).isEqualTo(0.05, delta(1e-6));
+        assertThat(table.map(0.5)).isEqualTo(0.1, delta(1e-6));
+        assertThat(table.map(0.65)).isEqualTo(0.3, delta(1e-6));
+        assertThat(table.map(0.9)).isEqualTo(0.75, delta(1e-6));
+    }
+}
@@ -0,0 +1,158 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.awt.GraphicsDevice;
+import java.awt.Robot;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import pl.grzeslowski.strangectrl.config.Key;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.Macro;
+import com.xafero.strangectrl.input.MacroRecorder;
+import com.xafero.strangectrl.input.TimingWheel;
+
+public class MacroCommandTest {
+    private final ManualTicker ticker = new ManualTicker();
+    private final TimingWheel wheel = new TimingWheel(ticker,
+            TimingWheel.DEFAULT_TICK_NANOS, 64);
+    private final GraphicsDevice dev = mock(GraphicsDevice.class);
+
+    @Test
+    public void play_steps_after_their_delays() throws Exception {
+
+        // given
+        final InputUtils inputUtils = mock(InputUtils.class);
+        final Macro macro = new Macro(new int[] {
+                0, Macro.KEY_PRESS, KeyEvent.VK_SHIFT,
+                50, Macro.MOUSE_MOVE, Macro.packPoint(100, 200),
+                20, Macro.KEY_RELEASE, KeyEvent.VK_SHIFT });
+        final MacroCommand command = new MacroCommand(macro, inputUtils, wheel);
+
+        // when
+        command.execute(dev, 1.0);
+
+        // then
+        verify(inputUtils).pressKeyCode(KeyEvent.VK_SHIFT);
+        verify(inputUtils, never()).moveMouse(Mockito.anyInt(),
+                Mockito.anyInt());
+
+        // when
+        wheel.advanceTo(ticker.advance(50));
+
+        // then
+        verify(inputUtils).moveMouse(100, 200);
+        verify(inputUtils, never()).releaseKeyCode(KeyEvent.VK_SHIFT);
+
+        // when
+        wheel.advanceTo(ticker.advance(20));
+
+        // then
+        verify(inputUtils).releaseKeyCode(KeyEvent.VK_SHIFT);
+        assertThat(command.isPlaying()).isFalse();
+    }
+
+    @Test
+    public void cancel_stops_playback_and_releases_keys() throws Exception {
+
+        // given
+        final InputUtils inputUtils = mock(InputUtils.class);
+        final Macro macro = new Macro(new int[] {
+                0, Macro.KEY_PRESS, KeyEvent.VK_SHIFT,
+                50, Macro.MOUSE_MOVE, Macro.packPoint(100, 200),
+                20, Macro.KEY_RELEASE, KeyEvent.VK_SHIFT });
+        final MacroCommand command = new MacroCommand(macro, inputUtils, wheel);
+        command.execute(dev, 1.0);
+
+        // when
+        command.cancel();
+        wheel.advanceTo(ticker.advance(100));
+
+        // then
+        verify(inputUtils).releaseKeyCode(KeyEvent.VK_SHIFT);
+        verify(inputUtils, never()).moveMouse(Mockito.anyInt(),
+                Mockito.anyInt());
+        assertThat(command.isPlaying()).isFalse();
+        assertThat(wheel.getPending()).isZero();
+    }
+
+    @Test
+    public void press_during_playback_is_ignored() throws Exception {
+
+        // given
+        final InputUtils inputUtils = mock(InputUtils.class);
+        final Macro macro = new Macro(new int[] {
+                0, Macro.MOUSE_WHEEL, 1,
+                100, Macro.MOUSE_WHEEL, -1 });
+        final MacroCommand command = new MacroCommand(macro, inputUtils, wheel);
+
+        // when
+        command.execute(dev, 1.0);
+        command.execute(dev, 0.0);
+        command.execute(dev, 1.0);
+        wheel.advanceTo(ticker.advance(100));
+
+        // then
+        verify(inputUtils, times(1)).mouseWheel(1);
+        verify(inputUtils, times(1)).mouseWheel(-1);
+    }
+
+    @Test
+    public void play_recorded_macro() throws Exception {
+
+        // given
+        final Robot robot = mock(Robot.class);
+        final InputUtils inputUtils = new InputUtils(robot);
+        final MacroRecorder recorder = inputUtils.getMacroRecorder();
+        final MacroCommand command = new MacroCommand(recorder, inputUtils,
+                wheel);
+        final Key keyQ = new Key("Q");
+
+        recorder.start();
+        inputUtils.pressKey(keyQ);
+        inputUtils.releaseKey(keyQ);
+        inputUtils.mouseWheel(3);
+        final Macro recorded = recorder.stop();
+
+        // when
+        command.execute(dev, 1.0);
+        for (int i = 0; i < 10 && command.isPlaying(); i++) {
+            wheel.advanceTo(ticker.advance(1000));
+        }
+
+        // then
+        assertThat(recorded.size()).isEqualTo(3);
+        final InOrder order = inOrder(robot);
+        for (int i = 0; i < 2; i++) {
+            order.verify(robot).keyPress(KeyEvent.VK_Q);
+            order.verify(robot).keyRelease(KeyEvent.VK_Q);
+            order.verify(robot).mouseWheel(3);
+        }
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        long advance(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.input.InputUtils;
+
+public class ScrollCommandTest {
+    private final ManualTicker ticker = new ManualTicker();
+    private final InputUtils inputUtils = mock(InputUtils.class);
+    private final GraphicsDevice dev = mock(GraphicsDevice.class);
+
+    @Test
+    public void do_not_scroll_in_dead_zone() throws Exception {
+
+        // given
+        final ScrollCommand command = new ScrollCommand(inputUtils, 20, 0.5,
+                AnalogChain.empty(), ticker);
+
+        // when
+        command.execute(dev, 0.5);
+        tick(command, 10, 10);
+
+        // then
+        verify(inputUtils, never()).mouseWheel(Mockito.anyInt());
+    }
+
+    @Test
+    public void scroll_continuously_while_deflected() throws Exception {
+
+        // given - 25 notches per second at full deflection
+        final ScrollCommand command = new ScrollCommand(inputUtils, 25, 0.0,
+                AnalogChain.empty(), ticker);
+
+        // when
+        command.execute(dev, 1.0);
+        tick(command, 41, 10);
+
+        // then - one notch at once and one every 4 ticks after it
+        verify(inputUtils, times(11)).mouseWheel(1);
+        verifyNoMoreInteractions(inputUtils);
+    }
+
+    @Test
+    public void scale_speed_with_deflection() throws Exception {
+
+        // given
+        final ScrollCommand command = new ScrollCommand(inputUtils, 50, 0.5,
+                AnalogChain.empty(), ticker);
+
+        // when - half way between dead zone and the edge = 25 notches/s
+        command.execute(dev, -0.75);
+        tick(command, 41, 10);
+
+        // then
+        verify(inputUtils, times(11)).mouseWheel(-1);
+        verifyNoMoreInteractions(inputUtils);
+    }
+
+    @Test
+    public void send_many_notches_in_long_tick() throws Exception {
+
+        // given
+        final ScrollCommand command = new ScrollCommand(inputUtils, 100, 0.0,
+                AnalogChain.empty(), ticker);
+
+        // when
+        command.execute(dev, 1.0);
+        tick(command, 1, 0);
+        tick(command, 1, 50);
+
+        // then
+        verify(inputUtils).mouseWheel(1);
+        verify(inputUtils).mouseWheel(5);
+    }
+
+    private void tick(final ScrollCommand command, final int ticks,
+            final long millis) {
+        for (int i = 0; i < ticks; i++) {
+            ticker.advance(millis, TimeUnit.MILLISECONDS);
+            command.tick(dev);
+        }
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        void advance(final long time, final TimeUnit unit) {
+            nanos += unit.toNanos(time);
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+}
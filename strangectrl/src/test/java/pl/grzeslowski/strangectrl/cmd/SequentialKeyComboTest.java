@@ -1,19 +1,29 @@
 package pl.grzeslowski.strangectrl.cmd;
 
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.awt.GraphicsDevice;
+import java.awt.event.KeyEvent;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import pl.grzeslowski.strangectrl.config.Key;
 
+import com.google.common.base.Ticker;
 import com.google.common.collect.Lists;
 import com.xafero.strangectrl.input.InputUtils;
+import com.xafero.strangectrl.input.TimingWheel;
 
 public class SequentialKeyComboTest {
+	private static final int[] D = { KeyEvent.VK_D };
+	private static final int[] E = { KeyEvent.VK_E };
+
 	@Test
 	public void pushing_multiple_keys() throws Exception {
 
@@ -22,18 +32,110 @@ public class SequentialKeyComboTest {
 		final Key keyE = new Key("e");
 		final ArrayList<Key> keys = Lists.newArrayList(keyD, keyE);
 		final InputUtils inputUtils = mock(InputUtils.class);
+		final ManualTicker ticker = new ManualTicker();
+		final TimingWheel wheel = new TimingWheel(ticker,
+				TimingWheel.DEFAULT_TICK_NANOS, 64);
+		final SequentialKeyCommand command = new SequentialKeyCommand(keys,
+				inputUtils, wheel);
+		final GraphicsDevice dev = mock(GraphicsDevice.class);
+
+		// when
+		command.execute(dev, 1.0f);
+		wheel.advanceTo(ticker.advance(20));
+		wheel.advanceTo(ticker.advance(20));
+
+		// then
+		verify(inputUtils).pressKey(D);
+		verify(inputUtils).pressKey(E);
+
+		verify(inputUtils).releaseKey(D);
+		verify(inputUtils).releaseKey(E);
+	}
+
+	@Test
+	public void execute_does_not_wait_for_release() throws Exception {
+
+		// given
+		final Key keyD = new Key("D");
+		final Key keyE = new Key("e");
+		final ArrayList<Key> keys = Lists.newArrayList(keyD, keyE);
+		final InputUtils inputUtils = mock(InputUtils.class);
+		final ManualTicker ticker = new ManualTicker();
+		final TimingWheel wheel = new TimingWheel(ticker,
+				TimingWheel.DEFAULT_TICK_NANOS, 64);
+		final SequentialKeyCommand command = new SequentialKeyCommand(keys,
+				inputUtils, wheel);
+		final GraphicsDevice dev = mock(GraphicsDevice.class);
+
+		// when
+		command.execute(dev, 1.0f);
+
+		// then
+		verify(inputUtils).pressKey(D);
+		verify(inputUtils, never()).releaseKey(D);
+		verify(inputUtils, never()).pressKey(E);
+
+		// when
+		wheel.advanceTo(ticker.advance(20));
+
+		// then
+		final InOrder order = inOrder(inputUtils);
+		order.verify(inputUtils).pressKey(D);
+		order.verify(inputUtils).releaseKey(D);
+		order.verify(inputUtils).pressKey(E);
+		verify(inputUtils, never()).releaseKey(E);
+
+		// when
+		wheel.advanceTo(ticker.advance(20));
+
+		// then
+		order.verify(inputUtils).releaseKey(E);
+	}
+
+	@Test
+	public void pushing_again_during_playback_plays_sequence_twice()
+			throws Exception {
+
+		// given
+		final Key keyD = new Key("D");
+		final Key keyE = new Key("e");
+		final ArrayList<Key> keys = Lists.newArrayList(keyD, keyE);
+		final InputUtils inputUtils = mock(InputUtils.class);
+		final ManualTicker ticker = new ManualTicker();
+		final TimingWheel wheel = new TimingWheel(ticker,
+				TimingWheel.DEFAULT_TICK_NANOS, 64);
 		final SequentialKeyCommand command = new SequentialKeyCommand(keys,
-				inputUtils);
+				inputUtils, wheel);
 		final GraphicsDevice dev = mock(GraphicsDevice.class);
 
 		// when
 		command.execute(dev, 1.0f);
+		command.execute(dev, 1.0f);
+		for (int i = 0; i < 4; i++) {
+			wheel.advanceTo(ticker.advance(20));
+		}
 
 		// then
-		verify(inputUtils).pressKey(keyD);
-		verify(inputUtils).pressKey(keyE);
+		final InOrder order = inOrder(inputUtils);
+		for (int i = 0; i < 2; i++) {
+			order.verify(inputUtils).pressKey(D);
+			order.verify(inputUtils).releaseKey(D);
+			order.verify(inputUtils).pressKey(E);
+			order.verify(inputUtils).releaseKey(E);
+		}
+	}
+
+	private static class ManualTicker extends Ticker {
+		private long nanos;
+
+		@Override
+		public long read() {
+			return nanos;
+		}
 
-		verify(inputUtils).releaseKey(keyD);
-		verify(inputUtils).releaseKey(keyE);
+		long advance(final long millis) {
+			nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+			return nanos;
+		}
 	}
 }
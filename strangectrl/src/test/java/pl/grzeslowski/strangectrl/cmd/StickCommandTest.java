@@ -0,0 +1,206 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import pl.grzeslowski.strangectrl.cmd.StickCommand.Axis;
+import pl.grzeslowski.strangectrl.cmd.analog.AnalogChain;
+import pl.grzeslowski.strangectrl.cmd.analog.EmaStage;
+import pl.grzeslowski.strangectrl.config.ResponseCurve;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.input.PointerEngine;
+
+public class StickCommandTest {
+    private final PointerEngine pointerEngine = mock(PointerEngine.class);
+    private final GraphicsDevice dev = mock(GraphicsDevice.class);
+    private final ManualTicker ticker = new ManualTicker();
+
+    @Test
+    public void one_move_per_tick_for_both_axes() throws Exception {
+
+        // given
+        final StickCommand stick = stick(10, 0.0, CurveTable.LINEAR);
+
+        // when
+        stick.getAxisCommand(Axis.X).executePeriodCommand(dev, 0.6);
+        stick.getAxisCommand(Axis.Y).executePeriodCommand(dev, -0.8);
+        tickTwice(stick);
+
+        // then
+        verify(pointerEngine, times(1)).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(6.0)),
+                Mockito.doubleThat(closeTo(-8.0)));
+    }
+
+    @Test
+    public void radial_dead_zone() throws Exception {
+
+        // given - both axes over 0.2 alone, but the vector is inside
+        final StickCommand stick = stick(10, 0.3, CurveTable.LINEAR);
+        stick.getAxisCommand(Axis.X).execute(dev, 0.2);
+        stick.getAxisCommand(Axis.Y).execute(dev, 0.2);
+
+        // when
+        stick.tick(dev);
+
+        // then
+        verifyZeroInteractions(pointerEngine);
+    }
+
+    @Test
+    public void rescale_outside_dead_zone() throws Exception {
+
+        // given
+        final StickCommand stick = stick(10, 0.2, CurveTable.LINEAR);
+        stick.getAxisCommand(Axis.X).execute(dev, 0.6);
+
+        // when
+        tickTwice(stick);
+
+        // then - half way between the dead zone and the full deflection
+        verify(pointerEngine).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(5.0)),
+                Mockito.doubleThat(closeTo(0.0)));
+    }
+
+    @Test
+    public void apply_response_curve() throws Exception {
+
+        // given
+        final CurveTable curve = CurveTable.compile(new ResponseCurve(
+                ResponseCurve.EXPONENTIAL, 2.0));
+        final StickCommand stick = stick(10, 0.0, curve);
+        stick.getAxisCommand(Axis.Y).execute(dev, -0.5);
+
+        // when
+        tickTwice(stick);
+
+        // then
+        verify(pointerEngine).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(0.0)),
+                Mockito.doubleThat(closeTo(-2.5)));
+    }
+
+    @Test
+    public void same_speed_at_any_tick_period() throws Exception {
+
+        // given
+        final StickCommand fastStick = stick(10, 0.0, CurveTable.LINEAR);
+        final PointerEngine slowEngine = mock(PointerEngine.class);
+        final ManualTicker slowTicker = new ManualTicker();
+        final StickCommand slowStick = new StickCommand(10, 0.0,
+                CurveTable.LINEAR, AnalogChain.empty(), AnalogChain.empty(),
+                slowEngine, slowTicker);
+        fastStick.getAxisCommand(Axis.X).execute(dev, 0.5);
+        slowStick.getAxisCommand(Axis.X).execute(dev, 0.5);
+
+        // when - 100 ms at 1 ms and at 10 ms ticks
+        for (int i = 0; i <= 100; i++) {
+            fastStick.tick(dev);
+            ticker.advanceMicros(1000);
+        }
+        for (int i = 0; i <= 10; i++) {
+            slowStick.tick(dev);
+            slowTicker.advanceMicros(10000);
+        }
+
+        // then - 5 px per 10 ms both times
+        verify(pointerEngine, times(100)).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(0.5)),
+                Mockito.doubleThat(closeTo(0.0)));
+        verify(slowEngine, times(10)).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(5.0)),
+                Mockito.doubleThat(closeTo(0.0)));
+    }
+
+    @Test
+    public void stamp_chain_with_ticker() throws Exception {
+
+        // given
+        final StickCommand stick = new StickCommand(10, 0.0,
+                CurveTable.LINEAR, new AnalogChain(new EmaStage(0.5)),
+                AnalogChain.empty(), pointerEngine, ticker);
+
+        // when
+        stick.getAxisCommand(Axis.X).execute(dev, 0.2);
+        ticker.advanceMicros(10000);
+        stick.getAxisCommand(Axis.X).execute(dev, 0.6);
+        tickTwice(stick);
+
+        // then - half way to the new value after one 10 ms step
+        verify(pointerEngine).move(Mockito.eq(dev),
+                Mockito.doubleThat(closeTo(4.0)),
+                Mockito.doubleThat(closeTo(0.0)));
+    }
+
+    @Test
+    public void compare_chains() throws Exception {
+
+        // given
+        final StickCommand plain = stick(10, 0.2, CurveTable.LINEAR);
+        final StickCommand smoothed = new StickCommand(10, 0.2,
+                CurveTable.LINEAR, new AnalogChain(new EmaStage(0.5)),
+                AnalogChain.empty(), pointerEngine, ticker);
+        final StickCommand smoothedToo = new StickCommand(10, 0.2,
+                CurveTable.LINEAR, new AnalogChain(new EmaStage(0.5)),
+                AnalogChain.empty(), pointerEngine, ticker);
+
+        // then
+        assertThat(smoothed).isNotEqualTo(plain);
+        assertThat(smoothed).isEqualTo(smoothedToo);
+        assertThat(smoothed.hashCode()).isEqualTo(smoothedToo.hashCode());
+    }
+
+    private StickCommand stick(final int maxMove, final double deadZone,
+            final CurveTable curve) {
+        return new StickCommand(maxMove, deadZone, curve, AnalogChain.empty(),
+                AnalogChain.empty(), pointerEngine, ticker);
+    }
+
+    /**
+     * First tick out of the dead zone only starts the clock.
+     */
+    private void tickTwice(final StickCommand stick) {
+        stick.tick(dev);
+        ticker.advanceMicros(10000);
+        stick.tick(dev);
+    }
+
+    private static org.hamcrest.Matcher<Double> closeTo(final double expected) {
+        return new org.hamcrest.BaseMatcher<Double>() {
+
+            @Override
+            public boolean matches(final Object item) {
+                return Math.abs((Double) item - expected) < 1e-9;
+            }
+
+            @Override
+            public void describeTo(final org.hamcrest.Description description) {
+                description.appendText("close to " + expected);
+            }
+        };
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advanceMicros(final long micros) {
+            nanos += TimeUnit.MICROSECONDS.toNanos(micros);
+        }
+    }
+}
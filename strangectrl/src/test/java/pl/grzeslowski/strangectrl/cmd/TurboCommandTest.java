@@ -0,0 +1,120 @@
+package pl.grzeslowski.strangectrl.cmd;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.awt.GraphicsDevice;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.xafero.strangectrl.cmd.ICommand;
+import com.xafero.strangectrl.input.TimingWheel;
+
+public class TurboCommandTest {
+    private final ManualTicker ticker = new ManualTicker();
+    private final TimingWheel wheel = new TimingWheel(ticker,
+            TimingWheel.DEFAULT_TICK_NANOS, 64);
+    private final GraphicsDevice dev = mock(GraphicsDevice.class);
+
+    @Test
+    public void pulse_while_held() throws Exception {
+
+        // given
+        final ICommand command = mock(ICommand.class);
+        final TurboCommand turbo = new TurboCommand(command, 10, 0.25, wheel);
+
+        // when
+        turbo.execute(dev, 1.0);
+
+        // then
+        verify(command).execute(dev, 1.0);
+
+        // when
+        advance(25);
+
+        // then
+        verify(command).execute(dev, 0.0);
+
+        // when
+        advance(75);
+
+        // then
+        verify(command, times(2)).execute(dev, 1.0);
+        verify(command, times(1)).execute(dev, 0.0);
+
+        // when
+        advance(100);
+
+        // then
+        verify(command, times(3)).execute(dev, 1.0);
+        verify(command, times(2)).execute(dev, 0.0);
+    }
+
+    @Test
+    public void release_when_button_released() throws Exception {
+
+        // given
+        final ICommand command = mock(ICommand.class);
+        final TurboCommand turbo = new TurboCommand(command, 10, 0.5, wheel);
+        turbo.execute(dev, 1.0);
+        advance(10);
+
+        // when
+        turbo.execute(dev, 0.0);
+        advance(1000);
+
+        // then
+        verify(command, times(1)).execute(dev, 1.0);
+        verify(command, times(1)).execute(dev, 0.0);
+    }
+
+    @Test
+    public void skip_missed_pulses_and_keep_phase() throws Exception {
+
+        // given
+        final ICommand command = mock(ICommand.class);
+        final TurboCommand turbo = new TurboCommand(command, 10, 0.5, wheel);
+        turbo.execute(dev, 1.0);
+        advance(50);
+
+        // when - wheel was not advanced for more than three periods
+        wheel.advanceTo(ticker.advance(320));
+
+        // then - pulse from 300 ms was already released at 350 ms
+        verify(command, times(2)).execute(dev, 1.0);
+        verify(command, times(2)).execute(dev, 0.0);
+
+        // when
+        advance(29);
+
+        // then
+        verify(command, times(2)).execute(dev, 1.0);
+
+        // when
+        advance(1);
+
+        // then - next pulse on 400 ms
+        verify(command, times(3)).execute(dev, 1.0);
+    }
+
+    private void advance(final long millis) {
+        wheel.advanceTo(ticker.advance(millis));
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        long advance(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package pl.grzeslowski.strangectrl.cmd.analog;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AnalogChainTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void dead_zone_then_anti_dead_zone() throws Exception {
+
+        // given
+        final AnalogChain chain = new AnalogChain(new DeadZoneStage(0.2),
+                new AntiDeadZoneStage(0.1));
+
+        // then
+        assertThat(chain.process(0.15, 0)).isEqualTo(0.0, delta(1e-9));
+        assertThat(chain.process(-0.15, 0)).isEqualTo(0.0, delta(1e-9));
+        assertThat(chain.process(0.6, 0)).isEqualTo(0.55, delta(1e-9));
+        assertThat(chain.process(-1.0, 0)).isEqualTo(-1.0, delta(1e-9));
+    }
+
+    @Test
+    public void ema_smooths_steps() throws Exception {
+
+        // given
+        final AnalogChain chain = new AnalogChain(new EmaStage(0.5));
+
+        // when
+        chain.process(0.0, 0);
+        final double first = chain.process(1.0, 10 * MS);
+        final double second = chain.process(1.0, 20 * MS);
+
+        // then
+        assertThat(first).isEqualTo(0.5, delta(1e-9));
+        assertThat(second).isEqualTo(0.75, delta(1e-9));
+
+        // when
+        chain.reset();
+
+        // then
+        assertThat(chain.process(-0.3, 30 * MS)).isEqualTo(-0.3, delta(1e-9));
+    }
+
+    @Test
+    public void ema_does_not_depend_on_sample_rate() throws Exception {
+
+        // given
+        final AnalogChain fast = new AnalogChain(new EmaStage(0.5));
+        final AnalogChain slow = new AnalogChain(new EmaStage(0.5));
+        fast.process(0.0, 0);
+        slow.process(0.0, 0);
+
+        // when - the same held value for 20 ms
+        double fastValue = 0.0;
+        for (int i = 1; i <= 20; i++) {
+            fastValue = fast.process(1.0, i * MS);
+        }
+        slow.process(1.0, 10 * MS);
+        final double slowValue = slow.process(1.0, 20 * MS);
+
+        // then
+        assertThat(fastValue).isEqualTo(0.75, delta(1e-9));
+        assertThat(slowValue).isEqualTo(0.75, delta(1e-9));
+    }
+
+    @Test
+    public void one_euro_follows_fast_moves_closer_than_slow_ones()
+            throws Exception {
+
+        // given
+        final OneEuroStage still = new OneEuroStage(1.0, 0.0);
+        final OneEuroStage adaptive = new OneEuroStage(1.0, 10.0);
+
+        // when
+        still.process(0.0, 0);
+        adaptive.process(0.0, 0);
+        double stillValue = 0;
+        double adaptiveValue = 0;
+        for (int i = 1; i <= 10; i++) {
+            stillValue = still.process(i / 10.0, i * 10 * MS);
+            adaptiveValue = adaptive.process(i / 10.0, i * 10 * MS);
+        }
+
+        // then
+        assertThat(stillValue).isLessThan(adaptiveValue);
+        assertThat(adaptiveValue).isLessThanOrEqualTo(1.0);
+    }
+
+    @Test
+    public void rate_limit_ramps_up_but_stops_at_once() throws Exception {
+
+        // given - full deflection in 100 ms at most
+        final AnalogChain chain = new AnalogChain(new RateLimitStage(10.0));
+
+        // then
+        assertThat(chain.process(1.0, 0)).isEqualTo(0.0, delta(1e-9));
+        assertThat(chain.process(1.0, 10 * MS)).isEqualTo(0.1, delta(1e-9));
+        assertThat(chain.process(1.0, 60 * MS)).isEqualTo(0.6, delta(1e-9));
+        assertThat(chain.process(1.0, 200 * MS)).isEqualTo(1.0, delta(1e-9));
+        assertThat(chain.process(0.0, 210 * MS)).isEqualTo(0.0, delta(1e-9));
+    }
+}
@@ -0,0 +1,83 @@
+package pl.grzeslowski.strangectrl.config;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ConfigWatcherTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reload_written_file() throws Exception {
+
+        // given
+        final File file = new File(folder.getRoot(), "config.xml");
+        write(file, "<configuration></configuration>");
+
+        final CountDownLatch reloaded = new CountDownLatch(1);
+        final AtomicReference<Configuration> loaded = new AtomicReference<>();
+        final ConfigWatcher watcher = new ConfigWatcher(file,
+                new ConfigReader(), new ConfigWatcher.Listener() {
+
+                    @Override
+                    public void configurationChanged(
+                            final Configuration configuration) {
+                        loaded.set(configuration);
+                        reloaded.countDown();
+                    }
+                }, 50);
+        watcher.start();
+
+        // when
+        write(new File(folder.getRoot(), "other.xml"), "<other/>");
+        write(file, "<configuration><button value=\"A\">"
+                + "<key key=\"Q\" /></button></configuration>");
+
+        // then
+        try {
+            assertThat(reloaded.await(10, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            watcher.stop();
+        }
+        assertThat(loaded.get()).isEqualTo(
+                new Configuration(new Button("A", new Key("Q"))));
+        assertThat(watcher.getReloads()).isEqualTo(1);
+    }
+
+    @Test
+    public void keep_old_configuration_when_file_is_broken() throws Exception {
+
+        // given
+        final File file = new File(folder.getRoot(), "config.xml");
+        write(file, "<configuration><button");
+        final ConfigWatcher.Listener listener = mock(ConfigWatcher.Listener.class);
+        final ConfigWatcher watcher = new ConfigWatcher(file,
+                new ConfigReader(), listener);
+
+        // when
+        final boolean reloaded = watcher.reload();
+
+        // then
+        assertThat(reloaded).isFalse();
+        assertThat(watcher.getFailedReloads()).isEqualTo(1);
+        verifyZeroInteractions(listener);
+    }
+
+    private static void write(final File file, final String content)
+            throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
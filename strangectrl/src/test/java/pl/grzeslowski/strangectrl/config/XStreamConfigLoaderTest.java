@@ -2,6 +2,10 @@ package pl.grzeslowski.strangectrl.config;
 
 import static org.fest.assertions.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 public class XStreamConfigLoaderTest {
@@ -288,4 +292,198 @@ public class XStreamConfigLoaderTest {
         // then
         assertThat(loadXml).isEqualTo(expected);
     }
+
+    @Test
+    public void load_polling_setup() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<setup>"
+                + "<polling>"
+                + "<adaptive>false</adaptive>"
+                + "<fastPeriodMicros>2000</fastPeriodMicros>"
+                + "<idlePeriodMillis>20</idlePeriodMillis>"
+                + "<sleepPeriodMillis>200</sleepPeriodMillis>"
+                + "<idleAfterMillis>3000</idleAfterMillis>"
+                + "<sleepAfterMillis>30000</sleepAfterMillis>"
+                + "<mergeControllers>true</mergeControllers>"
+                + "</polling>"
+                + "</setup>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final Setup defaultSetup = Setup.getDefaultSetup();
+        final Polling polling = new Polling(false, 2000, 20, 200, 3000, 30000,
+                true);
+        final Setup setup = new Setup(defaultSetup.getMaxMouseMove(),
+                defaultSetup.getTimeRefresher(),
+                defaultSetup.getCheckNewControllersDelay(),
+                defaultSetup.getScrollLines(), polling);
+        final Configuration expected = new Configuration(setup);
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
+
+    @Test
+    public void load_macro_button() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<button value=\"RT\" pressType=\"MACRO\">"
+                + "  <step action=\"KEY_PRESS\" value=\"SHIFT\" />"
+                + "  <step action=\"MOUSE_MOVE\" value=\"100,200\" delay=\"50\" />"
+                + "  <step action=\"KEY_RELEASE\" value=\"SHIFT\" delay=\"20\" />"
+                + "</button>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final List<Step> steps = Arrays.asList(new Step(Step.KEY_PRESS,
+                "SHIFT"), new Step(Step.MOUSE_MOVE, "100,200", 50), new Step(
+                Step.KEY_RELEASE, "SHIFT", 20));
+        final Button button = new Button("RT", Button.MACRO_TYPE,
+                new ArrayList<Key>(), steps);
+        final Configuration expected = new Configuration(button);
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
+
+    @Test
+    public void load_turbo_button() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<button value=\"A\" pressType=\"TURBO\" rate=\"30\" dutyCycle=\"0.4\">"
+                + "  <key key=\"Q\" />"
+                + "</button>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final Button button = new Button("A", Arrays.asList(new Key("Q")),
+                30, 0.4);
+        final Configuration expected = new Configuration(button);
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
+
+    @Test
+    public void load_mouse_curve() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<setup>"
+                + "<mouseCurve type=\"POINTS\">"
+                + "<point in=\"0.5\" out=\"0.1\" />"
+                + "<point in=\"0.8\" out=\"0.5\" />"
+                + "</mouseCurve>"
+                + "</setup>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final Setup defaultSetup = Setup.getDefaultSetup();
+        final ResponseCurve curve = new ResponseCurve(new CurvePoint(0.5, 0.1),
+                new CurvePoint(0.8, 0.5));
+        final Setup setup = new Setup(defaultSetup.getMaxMouseMove(),
+                defaultSetup.getTimeRefresher(),
+                defaultSetup.getCheckNewControllersDelay(),
+                defaultSetup.getScrollLines(), defaultSetup.getPolling(),
+                curve);
+        final Configuration expected = new Configuration(setup);
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
+
+    @Test
+    public void load_continuous_scroll() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<setup>"
+                + "<continuousScroll>true</continuousScroll>"
+                + "<scrollSpeed>40</scrollSpeed>"
+                + "</setup>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final Setup defaultSetup = Setup.getDefaultSetup();
+        final Setup setup = new Setup(defaultSetup.getMaxMouseMove(),
+                defaultSetup.getTimeRefresher(),
+                defaultSetup.getCheckNewControllersDelay(),
+                defaultSetup.getScrollLines(), defaultSetup.getPolling(),
+                defaultSetup.getMouseCurve(), true, 40);
+        final Configuration expected = new Configuration(setup);
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
+
+    @Test
+    public void load_analog_stages() throws Exception {
+
+        // given
+        final XStreamConfigLoader loader = new XStreamConfigLoader();
+
+        // @formatter:off
+        final String xml = "<configuration>"
+                + "<button value=\"A\"><key key=\"Q\" /></button>"
+                + "<analog value=\"x\">"
+                + "<stage type=\"DEAD_ZONE\" value=\"0.1\" />"
+                + "<stage type=\"CURVE\"><curve type=\"EXPONENTIAL\" exponent=\"3\" /></stage>"
+                + "<stage type=\"ONE_EURO\" value=\"1\" param=\"0.5\" />"
+                + "</analog>"
+                + "</configuration>";
+        // @formatter:on
+
+        // expected
+        final Analog analog = new Analog("x", new Stage(Stage.DEAD_ZONE, 0.1),
+                new Stage(new ResponseCurve(ResponseCurve.EXPONENTIAL, 3)),
+                new Stage(Stage.ONE_EURO, 1, 0.5));
+        final Button button = new Button("A", new Key("Q"));
+        final Configuration expected = new Configuration(
+                Arrays.asList(button), null, Arrays.asList(analog));
+
+        // when
+        final Configuration loadXml = loader.loadXml(xml);
+
+        // then
+        assertThat(loadXml).isEqualTo(expected);
+    }
 }